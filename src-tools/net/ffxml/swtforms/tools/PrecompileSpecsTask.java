@@ -0,0 +1,393 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.tools;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import net.ffxml.swtforms.layout.CellConstraints;
+import net.ffxml.swtforms.layout.ColumnSpec;
+import net.ffxml.swtforms.layout.RowSpec;
+import net.ffxml.swtforms.layout.SpecSourceEncoder;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Task;
+
+/**
+ * An Ant task that validates encoded column specs, row specs and cell
+ * constraints at build time and generates a Java class that holds them as
+ * prebuilt constants. Applications that use the generated constants do not
+ * parse layout descriptions at runtime, and a malformed description fails the
+ * build instead of failing in production.
+ * <p>
+ * 
+ * The task reads a properties file. The suffix of each key determines how its
+ * value is decoded; the rest of the key is turned into the constant name:
+ * 
+ * <pre>
+ * # layouts.properties
+ * address.columns     = r:max(50dlu;p), 3dlu, 70dlu:grow
+ * address.rows        = p, 3dlu, p, 3dlu, p
+ * address.name.label.constraints = 1, 1
+ * </pre>
+ * 
+ * generates <code>ADDRESS_COLUMNS</code> of type <code>ColumnSpec[]</code>,
+ * <code>ADDRESS_ROWS</code> of type <code>RowSpec[]</code> and
+ * <code>ADDRESS_NAME_LABEL_CONSTRAINTS</code> of type
+ * <code>CellConstraints</code>. Supported suffixes are <code>.columns</code>,
+ * <code>.rows</code> and <code>.constraints</code>.
+ * <p>
+ * 
+ * <strong>Example:</strong>
+ * 
+ * <pre>
+ * &lt;taskdef name=&quot;precompilespecs&quot;
+ *          classname=&quot;net.ffxml.swtforms.tools.PrecompileSpecsTask&quot;
+ *          classpathref=&quot;classpath.main&quot; /&gt;
+ * &lt;precompilespecs specfile=&quot;src/layouts.properties&quot;
+ *                  destdir=&quot;build/generated&quot;
+ *                  classname=&quot;com.acme.ui.Layouts&quot; /&gt;
+ * </pre>
+ * 
+ * Layout variables like <code>$lcgap</code> are expanded with the root
+ * {@link net.ffxml.swtforms.layout.LayoutMap} at build time and thus bound
+ * to the build machine's layout style; keep style dependent gaps out of
+ * precompiled specs. The generated arrays and constraints are shared
+ * instances: clone the constraints before you modify them.
+ * 
+ * @author Florian Fankhauser
+ * @see SpecSourceEncoder
+ */
+public final class PrecompileSpecsTask extends Task {
+
+	private static final String COLUMNS_SUFFIX = ".columns";
+	private static final String ROWS_SUFFIX = ".rows";
+	private static final String CONSTRAINTS_SUFFIX = ".constraints";
+
+	// Fields ***************************************************************
+
+	private File specFile;
+	private File destDir;
+	private String className;
+	private String encoding = "ISO-8859-1";
+	private boolean force = false;
+
+	// Attributes ***********************************************************
+
+	/**
+	 * Sets the properties file that holds the encoded layout descriptions.
+	 * 
+	 * @param specFile
+	 *            the properties file to read
+	 */
+	public void setSpecFile(File specFile) {
+		this.specFile = specFile;
+	}
+
+	/**
+	 * Sets the root directory of the generated source file.
+	 * 
+	 * @param destDir
+	 *            the generated sources' root directory
+	 */
+	public void setDestDir(File destDir) {
+		this.destDir = destDir;
+	}
+
+	/**
+	 * Sets the fully qualified name of the class to generate.
+	 * 
+	 * @param className
+	 *            the generated class' fully qualified name
+	 */
+	public void setClassName(String className) {
+		this.className = className;
+	}
+
+	/**
+	 * Sets the encoding of the generated source file, ISO-8859-1 by default.
+	 * 
+	 * @param encoding
+	 *            the generated source's encoding
+	 */
+	public void setEncoding(String encoding) {
+		this.encoding = encoding;
+	}
+
+	/**
+	 * Enables or disables regeneration even if the generated source is newer
+	 * than the properties file.
+	 * 
+	 * @param force
+	 *            true to always regenerate
+	 */
+	public void setForce(boolean force) {
+		this.force = force;
+	}
+
+	// Execution ************************************************************
+
+	/**
+	 * Validates the encoded descriptions and generates the constants class.
+	 * 
+	 * @throws BuildException
+	 *             if an attribute is missing, the file cannot be read or
+	 *             written, or an encoded description is invalid
+	 */
+	public void execute() throws BuildException {
+		checkAttributes();
+		File destFile = new File(destDir, className.replace('.',
+				File.separatorChar)
+				+ ".java");
+		if (!force && destFile.exists()
+				&& destFile.lastModified() >= specFile.lastModified()) {
+			log("Precompiled specs are up to date: " + destFile,
+					Project.MSG_VERBOSE);
+			return;
+		}
+
+		Map constants = readConstants();
+		log("Precompiling " + constants.size() + " layout descriptions to "
+				+ destFile, Project.MSG_INFO);
+
+		File parent = destFile.getParentFile();
+		if (!parent.exists() && !parent.mkdirs())
+			throw new BuildException("Cannot create the directory " + parent,
+					getLocation());
+		Writer writer = null;
+		try {
+			writer = new OutputStreamWriter(new FileOutputStream(destFile),
+					encoding);
+			writeSource(writer, constants);
+		} catch (IOException e) {
+			throw new BuildException("Cannot write " + destFile, e,
+					getLocation());
+		} finally {
+			if (writer != null) {
+				try {
+					writer.close();
+				} catch (IOException e) {
+					log("Cannot close " + destFile, Project.MSG_WARN);
+				}
+			}
+		}
+	}
+
+	// Helper Code **********************************************************
+
+	private void checkAttributes() {
+		if (specFile == null)
+			throw new BuildException("The specfile attribute is required.",
+					getLocation());
+		if (!specFile.isFile())
+			throw new BuildException("The spec file " + specFile
+					+ " does not exist.", getLocation());
+		if (destDir == null)
+			throw new BuildException("The destdir attribute is required.",
+					getLocation());
+		if (className == null || className.length() == 0)
+			throw new BuildException("The classname attribute is required.",
+					getLocation());
+	}
+
+	/**
+	 * Reads the properties file, decodes every entry and returns a map from
+	 * constant declarations to initializer expressions, sorted by key.
+	 */
+	private Map readConstants() {
+		Properties properties = new Properties();
+		InputStream in = null;
+		try {
+			in = new FileInputStream(specFile);
+			properties.load(in);
+		} catch (IOException e) {
+			throw new BuildException("Cannot read " + specFile, e,
+					getLocation());
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException e) {
+					log("Cannot close " + specFile, Project.MSG_WARN);
+				}
+			}
+		}
+
+		Map constants = new TreeMap();
+		Iterator iterator = new TreeMap(properties).entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry entry = (Map.Entry) iterator.next();
+			String key = ((String) entry.getKey()).trim();
+			String value = ((String) entry.getValue()).trim();
+			try {
+				constants.put(key, declaration(key, value));
+			} catch (RuntimeException e) {
+				throw new BuildException(specFile + ": invalid entry '" + key
+						+ "' = '" + value + "': " + e.getMessage(), e,
+						getLocation());
+			}
+		}
+		return constants;
+	}
+
+	private String declaration(String key, String encoded) {
+		if (key.endsWith(COLUMNS_SUFFIX)) {
+			ColumnSpec[] specs = ColumnSpec.decodeSpecs(encoded);
+			StringBuffer buffer = new StringBuffer();
+			buffer.append("ColumnSpec[] ").append(constantName(key)).append(
+					" = new ColumnSpec[] {");
+			for (int i = 0; i < specs.length; i++) {
+				appendElement(buffer, SpecSourceEncoder.encode(specs[i]), i);
+			}
+			return buffer.append(" }").toString();
+		}
+		if (key.endsWith(ROWS_SUFFIX)) {
+			RowSpec[] specs = RowSpec.decodeSpecs(encoded);
+			StringBuffer buffer = new StringBuffer();
+			buffer.append("RowSpec[] ").append(constantName(key)).append(
+					" = new RowSpec[] {");
+			for (int i = 0; i < specs.length; i++) {
+				appendElement(buffer, SpecSourceEncoder.encode(specs[i]), i);
+			}
+			return buffer.append(" }").toString();
+		}
+		if (key.endsWith(CONSTRAINTS_SUFFIX)) {
+			CellConstraints constraints = new CellConstraints(encoded);
+			return "CellConstraints " + constantName(key) + " = "
+					+ SpecSourceEncoder.encode(constraints);
+		}
+		throw new IllegalArgumentException("The key must end with "
+				+ COLUMNS_SUFFIX + ", " + ROWS_SUFFIX + " or "
+				+ CONSTRAINTS_SUFFIX + '.');
+	}
+
+	private static void appendElement(StringBuffer buffer, String element,
+			int index) {
+		if (index > 0)
+			buffer.append(',');
+		buffer.append("\n\t\t\t").append(element);
+	}
+
+	/**
+	 * Turns a key like <code>address.name-label.constraints</code> into a
+	 * constant name like <code>ADDRESS_NAME_LABEL_CONSTRAINTS</code>.
+	 */
+	private static String constantName(String key) {
+		StringBuffer buffer = new StringBuffer(key.length());
+		for (int i = 0; i < key.length(); i++) {
+			char c = key.charAt(i);
+			if (Character.isLetterOrDigit(c))
+				buffer.append(Character.toUpperCase(c));
+			else
+				buffer.append('_');
+		}
+		if (buffer.length() == 0 || Character.isDigit(buffer.charAt(0)))
+			buffer.insert(0, '_');
+		return buffer.toString();
+	}
+
+	private void writeSource(Writer writer, Map constants) throws IOException {
+		int lastDot = className.lastIndexOf('.');
+		String packageName = lastDot < 0 ? null : className.substring(0,
+				lastDot);
+		String simpleName = className.substring(lastDot + 1);
+		String newline = System.getProperty("line.separator");
+
+		StringBuffer buffer = new StringBuffer();
+		buffer.append("/*").append(newline);
+		buffer.append(" * Generated by ").append(getClass().getName()).append(
+				" from ").append(specFile.getName()).append('.').append(
+				newline);
+		buffer.append(" * Do not edit; edit the spec file instead.").append(
+				newline);
+		buffer.append(" */").append(newline).append(newline);
+		if (packageName != null) {
+			buffer.append("package ").append(packageName).append(';').append(
+					newline).append(newline);
+		}
+		buffer.append("import net.ffxml.swtforms.layout.CellConstraints;")
+				.append(newline);
+		buffer.append("import net.ffxml.swtforms.layout.ColumnSpec;").append(
+				newline);
+		buffer.append("import net.ffxml.swtforms.layout.ConstantSize;")
+				.append(newline);
+		buffer.append("import net.ffxml.swtforms.layout.RowSpec;").append(
+				newline);
+		buffer.append("import net.ffxml.swtforms.layout.Sizes;").append(
+				newline).append(newline);
+		buffer.append("/**").append(newline);
+		buffer.append(" * Precompiled layout specifications.").append(newline);
+		buffer.append(" */").append(newline);
+		buffer.append("public final class ").append(simpleName).append(" {")
+				.append(newline).append(newline);
+		buffer.append("\tprivate ").append(simpleName).append("() {").append(
+				newline);
+		buffer.append("\t\t// Suppresses default constructor, ensuring "
+				+ "non-instantiability.").append(newline);
+		buffer.append("\t}").append(newline);
+
+		Iterator iterator = constants.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry entry = (Map.Entry) iterator.next();
+			buffer.append(newline);
+			buffer.append("\t/** <code>").append(entry.getKey()).append(
+					"</code> */").append(newline);
+			buffer.append("\tpublic static final ").append(
+					replaceNewlines((String) entry.getValue(), newline))
+					.append(';').append(newline);
+		}
+		buffer.append(newline).append('}').append(newline);
+		writer.write(buffer.toString());
+	}
+
+	private static String replaceNewlines(String text, String newline) {
+		StringBuffer buffer = new StringBuffer(text.length());
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '\n')
+				buffer.append(newline);
+			else
+				buffer.append(c);
+		}
+		return buffer.toString();
+	}
+
+}
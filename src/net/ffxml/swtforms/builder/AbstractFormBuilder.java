@@ -89,6 +89,14 @@ public abstract class AbstractFormBuilder {
 	 */
 	private boolean leftToRight;
 
+	/**
+	 * Holds the start time of the current build session, -1 if there is no
+	 * build session.
+	 * 
+	 * @see #beginBuild()
+	 */
+	private long buildStart = -1;
+
 	// Instance Creation ****************************************************
 
 	/**
@@ -136,6 +144,89 @@ public abstract class AbstractFormBuilder {
 		this(layout, container);
 	}
 
+	// Build Sessions *******************************************************
+
+	/**
+	 * Begins a build session. Until {@link #endBuild()} the container neither
+	 * redraws nor lays out, and the layout defers the validation of
+	 * constraints and groups. Use it to build or rebuild a visible form
+	 * without flicker and repeated layouts:
+	 * 
+	 * <pre>
+	 * builder.beginBuild();
+	 * try {
+	 * 	builder.append(&quot;Name&quot;, nameField);
+	 * 	// ...
+	 * } finally {
+	 * 	builder.endBuild();
+	 * }
+	 * </pre>
+	 * 
+	 * @throws IllegalStateException
+	 *             if a build session has already begun
+	 */
+	public final void beginBuild() {
+		if (isBuilding())
+			throw new IllegalStateException("The build has already begun.");
+		buildStart = System.currentTimeMillis();
+		container.setRedraw(false);
+		container.setLayoutDeferred(true);
+		layout.setValidationDeferred(true);
+	}
+
+	/**
+	 * Ends the build session: validates the deferred constraints and groups,
+	 * lays out the container exactly once, and resumes redrawing. If the
+	 * validation fails, the container is not laid out; the layout deferral
+	 * and redrawing are restored nevertheless, and the validation exception
+	 * is thrown.
+	 * 
+	 * @return the duration of the build session in milliseconds, including
+	 *         the final layout
+	 * @throws IllegalStateException
+	 *             if no build session has begun
+	 * @throws IndexOutOfBoundsException
+	 *             if a constraint or group index is outside the grid
+	 * @throws IllegalArgumentException
+	 *             if an index is used in multiple groups
+	 */
+	public final long endBuild() {
+		if (!isBuilding())
+			throw new IllegalStateException("The build has not begun.");
+		long start = buildStart;
+		buildStart = -1;
+		boolean valid = false;
+		try {
+			layout.setValidationDeferred(false);
+			valid = true;
+			// Requests a layout that runs when the layout is no longer
+			// deferred.
+			container.layout(true);
+		} finally {
+			try {
+				container.setLayoutDeferred(false);
+			} catch (RuntimeException e) {
+				// A pending layout of an invalid grid must not hide the
+				// validation exception.
+				if (valid)
+					throw e;
+			} finally {
+				container.setRedraw(true);
+			}
+		}
+		return System.currentTimeMillis() - start;
+	}
+
+	/**
+	 * Returns whether a build session has begun and not ended yet.
+	 * 
+	 * @return true if building
+	 * @see #beginBuild()
+	 */
+	public final boolean isBuilding() {
+		return buildStart != -1;
+	}
+
 	// Accessors ************************************************************
 
 	/**
@@ -629,7 +720,7 @@ public abstract class AbstractFormBuilder {
 	 * @return the leading column
 	 */
 	protected int getLeadingColumn() {
-		return isLeftToRight() ? 1 : getColumnCount();
+		return FormCursor.leadingColumn(isLeftToRight(), getColumnCount(), 0);
 	}
 
 	/**
@@ -639,7 +730,7 @@ public abstract class AbstractFormBuilder {
 	 * @return -1 for right-to-left, 1 for left-to-right
 	 */
 	protected final int getColumnIncrementSign() {
-		return isLeftToRight() ? 1 : -1;
+		return FormCursor.columnIncrementSign(isLeftToRight());
 	}
 
 	/**
@@ -652,8 +743,8 @@ public abstract class AbstractFormBuilder {
 	 * @return CellConstraints adjusted to the left hand side
 	 */
 	protected final CellConstraints createLeftAdjustedConstraints(int columnSpan) {
-		int firstColumn = isLeftToRight() ? getColumn() : getColumn() + 1
-				- columnSpan;
+		int firstColumn = FormCursor.firstColumn(isLeftToRight(), getColumn(),
+				columnSpan);
 		return new CellConstraints(firstColumn, getRow(), columnSpan,
 				cellConstraints().gridHeight);
 	}
@@ -36,6 +36,7 @@ import net.ffxml.swtforms.layout.ColumnSpec;
 import net.ffxml.swtforms.layout.ConstantSize;
 import net.ffxml.swtforms.layout.FormLayout;
 import net.ffxml.swtforms.layout.RowSpec;
+import net.ffxml.swtforms.util.DisplayContext;
 import net.ffxml.swtforms.util.LayoutStyle;
 
 import org.eclipse.swt.widgets.Button;
@@ -147,7 +148,7 @@ public final class ButtonBarBuilder extends PanelBuilder {
 	/**
 	 * Specifies the FormLayout's the single button bar row.
 	 */
-	private static final RowSpec[] ROW_SPECS = new RowSpec[] { new RowSpec(
+	static final RowSpec[] ROW_SPECS = new RowSpec[] { new RowSpec(
 			"center:pref") };
 
 	/**
@@ -160,7 +161,7 @@ public final class ButtonBarBuilder extends PanelBuilder {
 	 * look&amp;feel implementations will likely ignore this key and so may
 	 * render a wider button margin.
 	 */
-	private static final String NARROW_KEY = "jgoodies.isNarrow";
+	static final String NARROW_KEY = "jgoodies.isNarrow";
 
 	/**
 	 * Describes how sequences of buttons are added to the button bar:
@@ -196,7 +197,8 @@ public final class ButtonBarBuilder extends PanelBuilder {
 	 */
 	public ButtonBarBuilder(Composite composite) {
 		super(new FormLayout(COL_SPECS, ROW_SPECS), composite);
-		leftToRight = LayoutStyle.getCurrent().isLeftToRightButtonOrder();
+		leftToRight = DisplayContext.forControl(composite).getLayoutStyle()
+				.isLeftToRightButtonOrder();
 	}
 
 	/**
@@ -261,13 +263,8 @@ public final class ButtonBarBuilder extends PanelBuilder {
 	 * @see LayoutStyle
 	 */
 	public void addGriddedButtons(Button[] buttons) {
-		int length = buttons.length;
-		for (int i = 0; i < length; i++) {
-			int index = leftToRight ? i : length - 1 - i;
-			addGridded(buttons[index]);
-			if (i < buttons.length - 1)
-				addRelatedGap();
-		}
+		addGriddedSequence(buttons, DisplayContext.forControl(composite)
+				.getButtonColumnSpec());
 	}
 
 	/**
@@ -281,13 +278,30 @@ public final class ButtonBarBuilder extends PanelBuilder {
 	 * @see LayoutStyle
 	 */
 	public void addGriddedGrowingButtons(Button[] buttons) {
+		addGriddedSequence(buttons, DisplayContext.forControl(composite)
+				.getGrowingButtonColumnSpec());
+	}
+
+	/**
+	 * Adds a sequence of gridded buttons separated by related gaps and groups
+	 * their columns in one operation.
+	 * 
+	 * @param buttons
+	 *            an array of buttons to add
+	 * @param columnSpec
+	 *            the column spec used for every button
+	 */
+	private void addGriddedSequence(Button[] buttons, ColumnSpec columnSpec) {
 		int length = buttons.length;
+		int[] columns = new int[length];
 		for (int i = 0; i < length; i++) {
 			int index = leftToRight ? i : length - 1 - i;
-			addGriddedGrowing(buttons[index]);
+			columns[i] = getColumn();
+			addUngrouped(buttons[index], columnSpec);
 			if (i < buttons.length - 1)
 				addRelatedGap();
 		}
+		getLayout().addGroupedColumns(columns);
 	}
 
 	/**
@@ -323,11 +337,10 @@ public final class ButtonBarBuilder extends PanelBuilder {
 	 *            the component to add
 	 */
 	public void addGridded(Control control) {
-		getLayout().appendColumn(FormFactory.BUTTON_COLSPEC);
-		getLayout().addGroupedColumn(getColumn());
-		control.setData(NARROW_KEY, Boolean.TRUE);
-		add(control);
-		nextColumn();
+		int column = getColumn();
+		addUngrouped(control, DisplayContext.forControl(composite)
+				.getButtonColumnSpec());
+		getLayout().addGroupedColumn(column);
 	}
 
 	/**
@@ -338,8 +351,14 @@ public final class ButtonBarBuilder extends PanelBuilder {
 	 *            the component to add
 	 */
 	public void addGriddedGrowing(Control control) {
-		getLayout().appendColumn(FormFactory.GROWING_BUTTON_COLSPEC);
-		getLayout().addGroupedColumn(getColumn());
+		int column = getColumn();
+		addUngrouped(control, DisplayContext.forControl(composite)
+				.getGrowingButtonColumnSpec());
+		getLayout().addGroupedColumn(column);
+	}
+
+	private void addUngrouped(Control control, ColumnSpec columnSpec) {
+		getLayout().appendColumn(columnSpec);
 		control.setData(NARROW_KEY, Boolean.TRUE);
 		add(control);
 		nextColumn();
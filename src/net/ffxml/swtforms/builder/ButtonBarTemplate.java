@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.builder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
+
+import net.ffxml.swtforms.factories.FormFactory;
+import net.ffxml.swtforms.layout.CellConstraints;
+import net.ffxml.swtforms.layout.ColumnSpec;
+import net.ffxml.swtforms.layout.FormLayout;
+import net.ffxml.swtforms.util.DisplayContext;
+
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+
+/**
+ * An immutable, reusable description of a button bar. Where a
+ * {@link ButtonBarBuilder} appends and groups the columns of every bar one by
+ * one, a template parses its column pattern and computes the column group
+ * once; building a bar only creates a layout from the shared column specs and
+ * adds the controls. Templates are cached per pattern, so the frequent bars,
+ * for example OK/Cancel, share a template across all dialogs.
+ * <p>
+ * 
+ * A pattern is a comma separated list of the following elements:
+ * <table>
+ * <tr><td><code>b</code></td><td>a gridded button</td></tr>
+ * <tr><td><code>gb</code></td><td>a gridded button that grows</td></tr>
+ * <tr><td><code>p</code></td><td>a control with its preferred width</td></tr>
+ * <tr><td><code>glue</code></td><td>a glue that gets the extra space</td></tr>
+ * <tr><td><code>rgap</code></td><td>the gap between related buttons</td></tr>
+ * <tr><td><code>ugap</code></td><td>the gap between unrelated buttons</td></tr>
+ * </table>
+ * 
+ * The button columns use the specs of the bar's
+ * {@link DisplayContext#getButtonColumnSpec() Display context}, so each
+ * Display's layout style determines the minimum button width.
+ * 
+ * <pre>
+ * ButtonBarTemplate.getInstance(&quot;glue, b, rgap, b&quot;).build(bar,
+ * 		new Control[] { okButton, cancelButton });
+ * </pre>
+ * 
+ * This class is thread safe.
+ * 
+ * @author Florian Fankhauser
+ * @see ButtonBarBuilder
+ * @see net.ffxml.swtforms.factories.ButtonBarFactory
+ */
+public final class ButtonBarTemplate {
+
+	private static final int GRIDDED = 0;
+
+	private static final int GROWING = 1;
+
+	private static final int PREF = 2;
+
+	private static final int GLUE = 3;
+
+	private static final int RELATED_GAP = 4;
+
+	private static final int UNRELATED_GAP = 5;
+
+	/**
+	 * Maps patterns to their templates.
+	 */
+	private static final Map TEMPLATES = new HashMap();
+
+	private final String pattern;
+
+	/**
+	 * Holds the element kind for each column.
+	 */
+	private final int[] kinds;
+
+	/**
+	 * Holds the 1-based columns that take controls, from left to right.
+	 */
+	private final int[] slots;
+
+	/**
+	 * Holds the single column group of the gridded buttons.
+	 */
+	private final int[][] groups;
+
+	// Instance Creation ****************************************************
+
+	private ButtonBarTemplate(String pattern) {
+		this.pattern = pattern;
+		List kindList = new ArrayList();
+		StringTokenizer tokenizer = new StringTokenizer(pattern, ",");
+		while (tokenizer.hasMoreTokens()) {
+			kindList.add(new Integer(decodeKind(tokenizer.nextToken().trim()
+					.toLowerCase())));
+		}
+		kinds = new int[kindList.size()];
+		int slotCount = 0;
+		int griddedCount = 0;
+		for (int i = 0; i < kinds.length; i++) {
+			kinds[i] = ((Integer) kindList.get(i)).intValue();
+			if (kinds[i] <= PREF)
+				slotCount++;
+			if (kinds[i] <= GROWING)
+				griddedCount++;
+		}
+		slots = new int[slotCount];
+		int[] gridded = new int[griddedCount];
+		for (int i = 0, slot = 0, group = 0; i < kinds.length; i++) {
+			if (kinds[i] <= PREF)
+				slots[slot++] = i + 1;
+			if (kinds[i] <= GROWING)
+				gridded[group++] = i + 1;
+		}
+		groups = griddedCount == 0 ? new int[][] {} : new int[][] { gridded };
+	}
+
+	/**
+	 * Returns the template for the given pattern; parses the pattern the
+	 * first time only.
+	 * 
+	 * @param pattern
+	 *            the comma separated column pattern
+	 * @return the template for the pattern
+	 * @throws NullPointerException
+	 *             if the pattern is <code>null</code>
+	 * @throws IllegalArgumentException
+	 *             if the pattern contains an unknown element
+	 */
+	public static ButtonBarTemplate getInstance(String pattern) {
+		if (pattern == null)
+			throw new NullPointerException("The pattern must not be null.");
+		synchronized (TEMPLATES) {
+			ButtonBarTemplate template = (ButtonBarTemplate) TEMPLATES
+					.get(pattern);
+			if (template == null) {
+				template = new ButtonBarTemplate(pattern);
+				TEMPLATES.put(pattern, template);
+			}
+			return template;
+		}
+	}
+
+	/**
+	 * Returns the template for a sequence of gridded buttons separated by
+	 * related gaps, optionally preceded and followed by a glue.
+	 * 
+	 * @param buttonCount
+	 *            the number of buttons
+	 * @param growing
+	 *            true if the buttons grow
+	 * @param leadingGlue
+	 *            true to add a glue before the buttons
+	 * @param trailingGlue
+	 *            true to add a glue after the buttons
+	 * @return the template for the sequence
+	 */
+	public static ButtonBarTemplate getSequence(int buttonCount,
+			boolean growing, boolean leadingGlue, boolean trailingGlue) {
+		StringBuffer buffer = new StringBuffer();
+		if (leadingGlue)
+			buffer.append("glue");
+		for (int i = 0; i < buttonCount; i++) {
+			if (buffer.length() > 0)
+				buffer.append(i == 0 ? ", " : ", rgap, ");
+			buffer.append(growing ? "gb" : "b");
+		}
+		if (trailingGlue)
+			buffer.append(buffer.length() > 0 ? ", glue" : "glue");
+		return getInstance(buffer.toString());
+	}
+
+	private static int decodeKind(String token) {
+		if (token.equals("b") || token.equals("button"))
+			return GRIDDED;
+		if (token.equals("gb") || token.equals("growing-button"))
+			return GROWING;
+		if (token.equals("p") || token.equals("pref"))
+			return PREF;
+		if (token.equals("glue"))
+			return GLUE;
+		if (token.equals("rgap") || token.equals("related-gap"))
+			return RELATED_GAP;
+		if (token.equals("ugap") || token.equals("unrelated-gap"))
+			return UNRELATED_GAP;
+		throw new IllegalArgumentException("Unknown button bar element '"
+				+ token + "'.");
+	}
+
+	// Accessors ************************************************************
+
+	/**
+	 * Returns the number of controls that a bar of this template takes.
+	 * 
+	 * @return the number of control slots
+	 */
+	public int getSlotCount() {
+		return slots.length;
+	}
+
+	/**
+	 * Returns this template's pattern.
+	 * 
+	 * @return the column pattern
+	 */
+	public String getPattern() {
+		return pattern;
+	}
+
+	// Building *************************************************************
+
+	/**
+	 * Lays out the given controls in the given composite as described by this
+	 * template. The controls fill the slots from left to right; reverse them
+	 * beforehand to honor a right-to-left button order.
+	 * 
+	 * @param composite
+	 *            the button bar composite, the controls' parent
+	 * @param controls
+	 *            the controls, one per slot
+	 * @return the composite
+	 * @throws IllegalArgumentException
+	 *             if the number of controls differs from the slot count
+	 */
+	public Composite build(Composite composite, Control[] controls) {
+		if (controls.length != slots.length)
+			throw new IllegalArgumentException("The template '" + pattern
+					+ "' takes " + slots.length + " controls, but "
+					+ controls.length + " have been given.");
+		DisplayContext context = DisplayContext.forControl(composite);
+		ColumnSpec[] colSpecs = new ColumnSpec[kinds.length];
+		for (int i = 0; i < kinds.length; i++) {
+			colSpecs[i] = columnSpec(kinds[i], context);
+		}
+		FormLayout layout = new FormLayout(colSpecs,
+				ButtonBarBuilder.ROW_SPECS);
+		layout.setColumnGroups(groups);
+		for (int i = 0; i < controls.length; i++) {
+			Control control = controls[i];
+			CellConstraints constraints = new CellConstraints(slots[i], 1);
+			if (kinds[slots[i] - 1] != PREF) {
+				control.setData(ButtonBarBuilder.NARROW_KEY, Boolean.TRUE);
+			}
+			control.setLayoutData(constraints);
+			layout.setConstraints(control, constraints);
+		}
+		composite.setLayout(layout);
+		return composite;
+	}
+
+	private static ColumnSpec columnSpec(int kind, DisplayContext context) {
+		switch (kind) {
+		case GRIDDED:
+			return context.getButtonColumnSpec();
+		case GROWING:
+			return context.getGrowingButtonColumnSpec();
+		case PREF:
+			return FormFactory.PREF_COLSPEC;
+		case GLUE:
+			return FormFactory.GLUE_COLSPEC;
+		case RELATED_GAP:
+			return FormFactory.RELATED_GAP_COLSPEC;
+		default:
+			return FormFactory.UNRELATED_GAP_COLSPEC;
+		}
+	}
+
+	public String toString() {
+		return "ButtonBarTemplate[" + pattern + "]";
+	}
+
+}
@@ -503,6 +503,102 @@ public final class DefaultFormBuilder extends I15dPanelBuilder {
 		append(c3);
 	}
 
+	// Appending Rows in Bulk -------------------------------------------------
+
+	/**
+	 * Appends a line for each pair of label text and component, like
+	 * invoking <code>append(textWithMnemonic, component, true)</code> for
+	 * each pair, but computes and appends the required gap and component rows
+	 * and their row groups up front in one operation. Hence appending many
+	 * lines takes time linear in the number of lines.
+	 * <p>
+	 * 
+	 * If the cursor is not in the leading column, the lines start in the next
+	 * line. Lines that do not start directly below the last row, or forms
+	 * whose component column lies outside the grid, are appended one by one.
+	 * 
+	 * @param textsWithMnemonic
+	 *            the label texts - may mark mnemonics
+	 * @param components
+	 *            the components, one per label text
+	 * @return the added labels
+	 * @throws NullPointerException
+	 *             if an array, a text or a component is <code>null</code>
+	 * @throws IllegalArgumentException
+	 *             if the arrays have different lengths
+	 */
+	public Label[] appendRows(String[] textsWithMnemonic, Control[] components) {
+		int count = textsWithMnemonic.length;
+		if (components.length != count)
+			throw new IllegalArgumentException(
+					"The number of texts and components must be equal.");
+		// Checks all pairs before the layout or the cursor is modified.
+		for (int i = 0; i < count; i++) {
+			if (textsWithMnemonic[i] == null)
+				throw new NullPointerException("The text must not be null.");
+			if (components[i] == null)
+				throw new NullPointerException(
+						"The component must not be null.");
+		}
+		Label[] labels = new Label[count];
+		if (count == 0)
+			return labels;
+		if (getColumn() != getLeadingColumn()) {
+			nextLine();
+		}
+		int componentColumn = getLeadingColumn() + 2
+				* getColumnIncrementSign();
+		int first = 0;
+		if (componentColumn < 1 || componentColumn > getColumnCount()) {
+			first = count;
+		}
+		// Lines not directly below the grid are appended as the sequential
+		// append would do it.
+		while (first < count && getRow() != getRowCount() + 1) {
+			labels[first] = append(textsWithMnemonic[first],
+					components[first], true);
+			first++;
+		}
+		if (first == count)
+			return labels;
+
+		// Compute and append all rows; the first line needs no gap row.
+		int lines = count - first;
+		boolean leadingGap = getRow() != 1;
+		RowSpec[] rowSpecs = new RowSpec[leadingGap ? 2 * lines
+				: 2 * lines - 1];
+		int[] componentRows = new int[lines];
+		int row = getRow();
+		int specIndex = 0;
+		for (int i = 0; i < lines; i++) {
+			if (leadingGap || i > 0) {
+				rowSpecs[specIndex++] = lineGapSpec;
+				row++;
+			}
+			rowSpecs[specIndex++] = FormFactory.PREF_ROWSPEC;
+			componentRows[i] = row++;
+		}
+		getLayout().appendRows(rowSpecs);
+		if (isRowGroupingEnabled()) {
+			getLayout().addGroupedRows(componentRows);
+		}
+
+		for (int i = 0; i < lines; i++) {
+			int index = first + i;
+			setRow(componentRows[i]);
+			setColumn(getLeadingColumn());
+			Label label = getComponentFactory().createLabel(panel,
+					textsWithMnemonic[index]);
+			add(label, createLeftAdjustedConstraints(1));
+			nextColumn(2);
+			add(components[index], createLeftAdjustedConstraints(1));
+			label.moveAbove(components[index]);
+			labels[index] = label;
+		}
+		nextLine();
+		return labels;
+	}
+
 	// Appending Labels with optional components ------------------------------
 
 	/**
@@ -950,8 +1046,8 @@ public final class DefaultFormBuilder extends I15dPanelBuilder {
 	 * line.
 	 */
 	private void ensureCursorColumnInGrid() {
-		if ((isLeftToRight() && (getColumn() > getColumnCount()))
-				|| (!isLeftToRight() && (getColumn() < 1))) {
+		if (FormCursor.isBeyondGrid(isLeftToRight(), getColumn(),
+				getColumnCount())) {
 			nextLine();
 		}
 	}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.builder;
+
+/**
+ * Implements the cursor rules that the sequential form builders share: where
+ * a line starts, in which direction the cursor moves, when it has left the
+ * grid and where a cell that spans several columns begins. The rules honor
+ * the component orientation, so that forms can be built right-to-left.
+ * 
+ * @author Florian Fankhauser
+ * @see AbstractFormBuilder
+ * @see DefaultFormBuilder
+ * @see FormPlanBuilder
+ */
+final class FormCursor {
+
+	private FormCursor() {
+		// Suppresses default constructor, ensuring non-instantiability.
+	}
+
+	/**
+	 * Returns the index of the leading column.
+	 * 
+	 * @param leftToRight
+	 *            true for left-to-right, false for right-to-left
+	 * @param columnCount
+	 *            the number of columns in the grid
+	 * @param offset
+	 *            the offset of the leading column, often 0 or 1
+	 * @return the leading column
+	 */
+	static int leadingColumn(boolean leftToRight, int columnCount, int offset) {
+		int column = leftToRight ? 1 : columnCount;
+		return column + offset * columnIncrementSign(leftToRight);
+	}
+
+	/**
+	 * Returns the sign (-1 or 1) used to increment the cursor's column when
+	 * moving to the next column.
+	 * 
+	 * @param leftToRight
+	 *            true for left-to-right, false for right-to-left
+	 * @return -1 for right-to-left, 1 for left-to-right
+	 */
+	static int columnIncrementSign(boolean leftToRight) {
+		return leftToRight ? 1 : -1;
+	}
+
+	/**
+	 * Checks and answers whether the cursor's column lies beyond the trailing
+	 * edge of the grid.
+	 * 
+	 * @param leftToRight
+	 *            true for left-to-right, false for right-to-left
+	 * @param column
+	 *            the cursor's column
+	 * @param columnCount
+	 *            the number of columns in the grid
+	 * @return true if the cursor has left the grid
+	 */
+	static boolean isBeyondGrid(boolean leftToRight, int column, int columnCount) {
+		return leftToRight ? column > columnCount : column < 1;
+	}
+
+	/**
+	 * Returns the first (leftmost) column of a cell that starts at the
+	 * cursor's column and spans the given number of columns.
+	 * 
+	 * @param leftToRight
+	 *            true for left-to-right, false for right-to-left
+	 * @param column
+	 *            the cursor's column
+	 * @param columnSpan
+	 *            the number of columns the cell spans
+	 * @return the cell's left-adjusted first column
+	 */
+	static int firstColumn(boolean leftToRight, int column, int columnSpan) {
+		return leftToRight ? column : column + 1 - columnSpan;
+	}
+}
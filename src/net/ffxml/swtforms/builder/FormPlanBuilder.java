@@ -0,0 +1,573 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.builder;
+
+import java.util.ResourceBundle;
+
+import javax.swing.SwingConstants;
+
+import net.ffxml.swtforms.factories.ComponentFactory;
+import net.ffxml.swtforms.factories.FormFactory;
+import net.ffxml.swtforms.layout.CellConstraints;
+import net.ffxml.swtforms.layout.ConstantSize;
+import net.ffxml.swtforms.layout.FormLayout;
+import net.ffxml.swtforms.layout.FormTemplate;
+import net.ffxml.swtforms.layout.LayoutMap;
+import net.ffxml.swtforms.layout.RowSpec;
+import net.ffxml.swtforms.util.DisplayContext;
+import net.ffxml.swtforms.util.LayoutStyle;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Plans a form like the {@link DefaultFormBuilder} but without creating any
+ * widget, and produces an immutable, validated {@link FormTemplate}. Building
+ * a form so takes two phases:
+ * <ol>
+ * <li>The plan is built on any thread, for example by an executor: the
+ * specifications are parsed, rows and row groups are appended, constraints
+ * are created and resource strings are looked up.
+ * <li>The template is instantiated into a composite in the user interface
+ * thread with {@link FormTemplate#instantiate(Composite)} or a
+ * {@link TimeSlicedBuilder}; this phase only creates widgets.
+ * </ol>
+ * 
+ * Components are given as {@link FormTemplate.ControlFactory}s that are
+ * invoked in phase two. Labels and separators are created with the
+ * component factory that is set when the plan is built.
+ * <p>
+ * 
+ * Outside the user interface thread the current layout style is the style of
+ * no Display. Construct the plan for the target Display or its layout style,
+ * so that layout variables like <code>$lcgap</code> and the gap rows are
+ * bound to the style configured for that Display.
+ * <p>
+ * 
+ * <strong>Example:</strong>
+ * 
+ * <pre>
+ * // Any thread
+ * FormPlanBuilder plan = new FormPlanBuilder(
+ * 		&quot;right:pref, $lcgap, pref:grow&quot;, bundle, display);
+ * plan.appendI15dSeparator(&quot;address.title&quot;);
+ * plan.appendI15d(&quot;address.street&quot;, streetFieldFactory);
+ * plan.appendI15d(&quot;address.city&quot;, cityFieldFactory);
+ * final FormTemplate template = plan.build();
+ * 
+ * // User interface thread
+ * display.asyncExec(new Runnable() {
+ * 	public void run() {
+ * 		template.instantiate(composite);
+ * 	}
+ * });
+ * </pre>
+ * 
+ * A plan builder is not thread safe; use it in one thread at a time. It
+ * builds from left to right only.
+ * 
+ * @author Florian Fankhauser
+ * @see DefaultFormBuilder
+ * @see FormTemplate
+ */
+public final class FormPlanBuilder {
+
+	private final FormLayout layout;
+
+	private final FormTemplate.Recorder recorder;
+
+	private final ResourceBundle bundle;
+
+	private ComponentFactory componentFactory = PanelBuilder
+			.getDefaultComponentFactory();
+
+	private RowSpec lineGapSpec;
+
+	private RowSpec paragraphGapSpec;
+
+	private int leadingColumnOffset = 0;
+
+	private boolean leftToRight = true;
+
+	private boolean rowGroupingEnabled = false;
+
+	private int column = 1;
+
+	private int row = 1;
+
+	// Instance Creation ****************************************************
+
+	/**
+	 * Constructs a plan builder for the given layout that uses the calling
+	 * thread's layout style for the gap rows. The layout serves as a
+	 * description only; it is never set on a composite.
+	 * 
+	 * @param layout
+	 *            the layout that provides the columns and collects the rows
+	 * @throws NullPointerException
+	 *             if the layout is <code>null</code>
+	 */
+	public FormPlanBuilder(FormLayout layout) {
+		this(layout, null);
+	}
+
+	/**
+	 * Constructs a plan builder for the given layout and resource bundle that
+	 * uses the calling thread's layout style for the gap rows.
+	 * 
+	 * @param layout
+	 *            the layout that provides the columns and collects the rows
+	 * @param bundle
+	 *            the resource bundle used to look up i15d strings
+	 * @throws NullPointerException
+	 *             if the layout is <code>null</code>
+	 */
+	public FormPlanBuilder(FormLayout layout, ResourceBundle bundle) {
+		this(layout, bundle, LayoutStyle.getCurrent());
+	}
+
+	/**
+	 * Constructs a plan builder for the given layout and resource bundle that
+	 * uses the given layout style for the gap rows.
+	 * 
+	 * @param layout
+	 *            the layout that provides the columns and collects the rows
+	 * @param bundle
+	 *            the resource bundle used to look up i15d strings
+	 * @param layoutStyle
+	 *            the layout style of the target Display
+	 * @throws NullPointerException
+	 *             if the layout or the layout style is <code>null</code>
+	 */
+	public FormPlanBuilder(FormLayout layout, ResourceBundle bundle,
+			LayoutStyle layoutStyle) {
+		if (layoutStyle == null)
+			throw new NullPointerException("The layout style must not be null.");
+		this.recorder = new FormTemplate.Recorder(layout);
+		this.layout = layout;
+		this.bundle = bundle;
+		this.lineGapSpec = FormFactory.createGapRowSpec(layoutStyle
+				.getLinePad());
+		this.paragraphGapSpec = FormFactory.createGapRowSpec(layoutStyle
+				.getParagraphPad());
+	}
+
+	/**
+	 * Constructs a plan builder for a form with the given encoded columns
+	 * that will be instantiated on the given Display. The columns and the gap
+	 * rows are bound to the Display's layout style. May be invoked from any
+	 * thread.
+	 * 
+	 * @param encodedColumnSpecs
+	 *            comma separated encoded column specifications
+	 * @param bundle
+	 *            the resource bundle used to look up i15d strings
+	 * @param display
+	 *            the Display the form will be instantiated on
+	 * @throws NullPointerException
+	 *             if the encoded column specifications or the Display are
+	 *             <code>null</code>
+	 * @see DisplayContext#getLayoutStyle()
+	 */
+	public FormPlanBuilder(String encodedColumnSpecs, ResourceBundle bundle,
+			Display display) {
+		this(encodedColumnSpecs, bundle, DisplayContext.getInstance(
+				checkDisplay(display)).getLayoutStyle());
+	}
+
+	/**
+	 * Constructs a plan builder for a form with the given encoded columns.
+	 * The columns and the gap rows are bound to the given layout style.
+	 * 
+	 * @param encodedColumnSpecs
+	 *            comma separated encoded column specifications
+	 * @param bundle
+	 *            the resource bundle used to look up i15d strings
+	 * @param layoutStyle
+	 *            the layout style of the target Display
+	 * @throws NullPointerException
+	 *             if the encoded column specifications or the layout style
+	 *             are <code>null</code>
+	 */
+	public FormPlanBuilder(String encodedColumnSpecs, ResourceBundle bundle,
+			LayoutStyle layoutStyle) {
+		this(new FormLayout(LayoutMap.getRoot().decodeColumnSpecs(
+				encodedColumnSpecs, layoutStyle), new RowSpec[0]), bundle,
+				layoutStyle);
+	}
+
+	private static Display checkDisplay(Display display) {
+		if (display == null)
+			throw new NullPointerException("The display must not be null.");
+		return display;
+	}
+
+	// Settings *************************************************************
+
+	/**
+	 * Sets the factory that creates labels and separators in phase two.
+	 * 
+	 * @param factory
+	 *            the component factory
+	 * @throws NullPointerException
+	 *             if the factory is <code>null</code>
+	 */
+	public void setComponentFactory(ComponentFactory factory) {
+		if (factory == null)
+			throw new NullPointerException(
+					"The component factory must not be null.");
+		componentFactory = factory;
+	}
+
+	/**
+	 * Sets the size of gaps between component lines.
+	 * 
+	 * @param lineGapSize
+	 *            the size of the gaps between component lines
+	 * @see DefaultFormBuilder#setLineGapSize(ConstantSize)
+	 */
+	public void setLineGapSize(ConstantSize lineGapSize) {
+		lineGapSpec = FormFactory.createGapRowSpec(lineGapSize);
+	}
+
+	/**
+	 * Sets the size of gaps between paragraphs.
+	 * 
+	 * @param paragraphGapSize
+	 *            the size of the gaps between paragraphs
+	 * @see DefaultFormBuilder#setParagraphGapSize(ConstantSize)
+	 */
+	public void setParagraphGapSize(ConstantSize paragraphGapSize) {
+		paragraphGapSpec = FormFactory.createGapRowSpec(paragraphGapSize);
+	}
+
+	/**
+	 * Sets the offset of the leading column, often 0 or 1.
+	 * 
+	 * @param columnOffset
+	 *            the new offset of the leading column
+	 * @see DefaultFormBuilder#setLeadingColumnOffset(int)
+	 */
+	public void setLeadingColumnOffset(int columnOffset) {
+		leadingColumnOffset = columnOffset;
+	}
+
+	/**
+	 * Enables or disables the grouping of new component rows.
+	 * 
+	 * @param enabled
+	 *            true to group new component rows
+	 * @see DefaultFormBuilder#setRowGroupingEnabled(boolean)
+	 */
+	public void setRowGroupingEnabled(boolean enabled) {
+		rowGroupingEnabled = enabled;
+	}
+
+	/**
+	 * Returns whether the form is planned left-to-right or right-to-left.
+	 * 
+	 * @return true for left-to-right, false for right-to-left
+	 * @see AbstractFormBuilder#isLeftToRight()
+	 */
+	public boolean isLeftToRight() {
+		return leftToRight;
+	}
+
+	/**
+	 * Sets the orientation that the form is planned in. Set it before the
+	 * first component is planned; the cursor moves to the leading column.
+	 * 
+	 * @param b
+	 *            true for left-to-right, false for right-to-left
+	 * @see AbstractFormBuilder#setLeftToRight(boolean)
+	 */
+	public void setLeftToRight(boolean b) {
+		leftToRight = b;
+		column = getLeadingColumn();
+	}
+
+	// Cursor ***************************************************************
+
+	/**
+	 * Returns the cursor's column.
+	 * 
+	 * @return the cursor's column
+	 */
+	public int getColumn() {
+		return column;
+	}
+
+	/**
+	 * Returns the cursor's row.
+	 * 
+	 * @return the cursor's row
+	 */
+	public int getRow() {
+		return row;
+	}
+
+	/**
+	 * Moves to the next line: increases the row and moves the cursor to the
+	 * leading column.
+	 */
+	public void nextLine() {
+		row++;
+		column = getLeadingColumn();
+	}
+
+	// Appending Cells ******************************************************
+
+	/**
+	 * Plans a component with a column span of 1 and proceeds to the next
+	 * data column.
+	 * 
+	 * @param component
+	 *            creates the component
+	 */
+	public void append(FormTemplate.ControlFactory component) {
+		append(component, 1);
+	}
+
+	/**
+	 * Plans a component with the given column span and proceeds to the next
+	 * data column.
+	 * 
+	 * @param component
+	 *            creates the component
+	 * @param columnSpan
+	 *            the number of columns the component spans
+	 */
+	public void append(FormTemplate.ControlFactory component, int columnSpan) {
+		ensureCursorColumnInGrid();
+		ensureHasGapRow(lineGapSpec);
+		ensureHasComponentLine();
+
+		recorder.add(component, new CellConstraints(FormCursor.firstColumn(
+				leftToRight, column, columnSpan), row, columnSpan, 1));
+		column += (columnSpan + 1)
+				* FormCursor.columnIncrementSign(leftToRight);
+	}
+
+	/**
+	 * Plans a text label and proceeds to the next column.
+	 * 
+	 * @param textWithMnemonic
+	 *            the label's text - may mark a mnemonic
+	 */
+	public void append(String textWithMnemonic) {
+		append(new LabelFactory(componentFactory, textWithMnemonic));
+	}
+
+	/**
+	 * Plans a text label and a component and proceeds to the next data
+	 * column. The label is created right before the component, so that its
+	 * mnemonic moves the focus to the component.
+	 * 
+	 * @param textWithMnemonic
+	 *            the label's text - may mark a mnemonic
+	 * @param component
+	 *            creates the component
+	 */
+	public void append(String textWithMnemonic,
+			FormTemplate.ControlFactory component) {
+		append(textWithMnemonic, component, 1);
+	}
+
+	/**
+	 * Plans a text label and a component that spans the given number of
+	 * columns, and proceeds to the next data column.
+	 * 
+	 * @param textWithMnemonic
+	 *            the label's text - may mark a mnemonic
+	 * @param component
+	 *            creates the component
+	 * @param columnSpan
+	 *            the number of columns the component spans
+	 */
+	public void append(String textWithMnemonic,
+			FormTemplate.ControlFactory component, int columnSpan) {
+		append(textWithMnemonic);
+		append(component, columnSpan);
+	}
+
+	/**
+	 * Plans an internationalized label and a component and proceeds to the
+	 * next data column. The label text is looked up now.
+	 * 
+	 * @param resourceKey
+	 *            the resource key for the label's text
+	 * @param component
+	 *            creates the component
+	 */
+	public void appendI15d(String resourceKey,
+			FormTemplate.ControlFactory component) {
+		append(getI15dString(resourceKey), component);
+	}
+
+	/**
+	 * Plans a separator with the given text that spans all columns.
+	 * 
+	 * @param text
+	 *            the separator title text
+	 */
+	public void appendSeparator(String text) {
+		ensureCursorColumnInGrid();
+		ensureHasGapRow(paragraphGapSpec);
+		ensureHasComponentLine();
+
+		int columnCount = layout.getColumnCount();
+		recorder.add(new SeparatorFactory(componentFactory, text),
+				new CellConstraints(1, row, columnCount, 1));
+		column = FormCursor.leadingColumn(leftToRight, columnCount, 0)
+				+ columnCount * FormCursor.columnIncrementSign(leftToRight);
+	}
+
+	/**
+	 * Plans an internationalized separator that spans all columns. The title
+	 * is looked up now.
+	 * 
+	 * @param resourceKey
+	 *            the resource key for the separator title's text
+	 */
+	public void appendI15dSeparator(String resourceKey) {
+		appendSeparator(getI15dString(resourceKey));
+	}
+
+	// Building *************************************************************
+
+	/**
+	 * Validates the plan and returns it as an immutable template.
+	 * 
+	 * @return the planned form
+	 * @throws IndexOutOfBoundsException
+	 *             if a cell lies outside the grid
+	 */
+	public FormTemplate build() {
+		return recorder.build();
+	}
+
+	// Helper Code **********************************************************
+
+	/**
+	 * Looks up and returns the internationalized string for the given key.
+	 * 
+	 * @param resourceKey
+	 *            the key to look for in the resource bundle
+	 * @return the associated string, or the key in case of a missing resource
+	 * @throws IllegalStateException
+	 *             if no <code>ResourceBundle</code> has been set
+	 * @see I15dPanelBuilder#getI15dString(String)
+	 */
+	private String getI15dString(String resourceKey) {
+		if (bundle == null)
+			throw new IllegalStateException("You must specify a ResourceBundle"
+					+ " before using the internationalization support.");
+		return ResourceStringCache.getInstance(bundle).getString(resourceKey);
+	}
+
+	private int getLeadingColumn() {
+		return FormCursor.leadingColumn(leftToRight, layout.getColumnCount(),
+				leadingColumnOffset);
+	}
+
+	private void ensureCursorColumnInGrid() {
+		if (FormCursor.isBeyondGrid(leftToRight, column, layout
+				.getColumnCount())) {
+			nextLine();
+		}
+	}
+
+	private void ensureHasGapRow(RowSpec gapRowSpec) {
+		if ((row == 1) || (row <= layout.getRowCount()))
+			return;
+		layout.appendRow(gapRowSpec);
+		nextLine();
+	}
+
+	private void ensureHasComponentLine() {
+		if (row <= layout.getRowCount())
+			return;
+		layout.appendRow(FormFactory.PREF_ROWSPEC);
+		if (rowGroupingEnabled) {
+			layout.addGroupedRow(row);
+		}
+	}
+
+	// Helper Classes *******************************************************
+
+	/**
+	 * Creates a label with a text that has been resolved in phase one.
+	 */
+	private static final class LabelFactory implements
+			FormTemplate.ControlFactory {
+
+		private final ComponentFactory factory;
+
+		private final String text;
+
+		private LabelFactory(ComponentFactory factory, String text) {
+			this.factory = factory;
+			this.text = text;
+		}
+
+		public Control createControl(Composite parent) {
+			return factory.createLabel(parent, text);
+		}
+
+	}
+
+	/**
+	 * Creates a titled separator with a text that has been resolved in phase
+	 * one.
+	 */
+	private static final class SeparatorFactory implements
+			FormTemplate.ControlFactory {
+
+		private final ComponentFactory factory;
+
+		private final String text;
+
+		private SeparatorFactory(ComponentFactory factory, String text) {
+			this.factory = factory;
+			this.text = text;
+		}
+
+		public Control createControl(Composite parent) {
+			int alignment = (parent.getStyle() & SWT.LEFT_TO_RIGHT) == SWT.LEFT_TO_RIGHT ? SwingConstants.LEFT
+					: SwingConstants.RIGHT;
+			return factory.createSeparator(parent, text, alignment);
+		}
+
+	}
+
+}
@@ -30,7 +30,6 @@
 
 package net.ffxml.swtforms.builder;
 
-import java.util.MissingResourceException;
 import java.util.ResourceBundle;
 
 import net.ffxml.swtforms.layout.CellConstraints;
@@ -67,6 +66,12 @@ public class I15dPanelBuilder extends PanelBuilder {
 	 */
 	private final ResourceBundle bundle;
 
+	/**
+	 * Caches the strings looked up in the bundle; shared by all builders
+	 * that use the same bundle.
+	 */
+	private ResourceStringCache stringCache;
+
 	// Instance Creation ****************************************************
 
 	/**
@@ -258,7 +263,8 @@ public class I15dPanelBuilder extends PanelBuilder {
 
 	/**
 	 * Looks up and returns the internationalized (i15d) string for the given
-	 * resource key from the <code>ResourceBundle</code>.
+	 * resource key from the <code>ResourceBundle</code>. Strings and missing
+	 * keys are cached per bundle.
 	 * 
 	 * @param resourceKey
 	 *            the key to look for in the resource bundle
@@ -271,11 +277,32 @@ public class I15dPanelBuilder extends PanelBuilder {
 		if (bundle == null)
 			throw new IllegalStateException("You must specify a ResourceBundle"
 					+ " before using the internationalization support.");
-		try {
-			return bundle.getString(resourceKey);
-		} catch (MissingResourceException mre) {
-			return resourceKey;
+		return getStringCache().getString(resourceKey);
+	}
+
+	/**
+	 * Looks up the strings for the given resource keys at once. Later calls
+	 * to the i15d methods of this builder and of all other builders that use
+	 * the same <code>ResourceBundle</code> find them in the shared cache.
+	 * 
+	 * @param resourceKeys
+	 *            the keys to look up
+	 * @throws IllegalStateException
+	 *             if no <code>ResourceBundle</code> has been set
+	 * @see ResourceStringCache#prefetch(String[])
+	 */
+	public final void prefetchI15dStrings(String[] resourceKeys) {
+		if (bundle == null)
+			throw new IllegalStateException("You must specify a ResourceBundle"
+					+ " before using the internationalization support.");
+		getStringCache().prefetch(resourceKeys);
+	}
+
+	private ResourceStringCache getStringCache() {
+		if (stringCache == null) {
+			stringCache = ResourceStringCache.getInstance(bundle);
 		}
+		return stringCache;
 	}
 
 }
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.builder;
+
+import net.ffxml.swtforms.layout.CellConstraints;
+import net.ffxml.swtforms.layout.ConstantSize;
+import net.ffxml.swtforms.layout.FormLayout;
+import net.ffxml.swtforms.layout.FormTemplate;
+import net.ffxml.swtforms.layout.VirtualCell;
+
+import org.eclipse.swt.events.PaintEvent;
+import org.eclipse.swt.events.PaintListener;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+
+/**
+ * Reserves a cell of a {@link FormLayout} for a control that is created the
+ * first time the cell becomes visible. Tabbed and collapsible forms can so
+ * defer the construction of controls that the user may never see, which
+ * saves construction time and native widget handles.
+ * <p>
+ * 
+ * Until then the placeholder is a {@link VirtualCell} with a declared size
+ * that the layout takes into account like the size of a control; the layout
+ * stays stable if the declared size matches the size of the control. The
+ * cell becomes visible when its container paints an area that intersects the
+ * cell's bounds. The control is then created by the factory, replaces the
+ * placeholder in the layout, and the container is laid out again.
+ * <p>
+ * 
+ * Note that a control's tab order follows the order of creation; a lazily
+ * created control comes after its siblings unless it is moved explicitly.
+ * 
+ * @author Florian Fankhauser
+ * @see PanelBuilder#addLazy(FormTemplate.ControlFactory, ConstantSize,
+ *      ConstantSize, CellConstraints)
+ */
+public final class LazyControl implements VirtualCell {
+
+	private final Composite composite;
+
+	private final FormLayout layout;
+
+	private final FormTemplate.ControlFactory factory;
+
+	private final ConstantSize width;
+
+	private final ConstantSize height;
+
+	private final PaintListener paintListener;
+
+	private Rectangle bounds = new Rectangle(0, 0, 0, 0);
+
+	private Control control;
+
+	private boolean scheduled;
+
+	// Instance Creation ****************************************************
+
+	/**
+	 * Constructs a placeholder for a control with the given declared size. The
+	 * placeholder must be added to the layout by the caller, typically a
+	 * builder.
+	 * 
+	 * @param composite
+	 *            the layout container
+	 * @param layout
+	 *            the container's layout
+	 * @param factory
+	 *            creates the control
+	 * @param width
+	 *            the declared width
+	 * @param height
+	 *            the declared height
+	 * @throws NullPointerException
+	 *             if any argument is <code>null</code>
+	 */
+	LazyControl(Composite composite, FormLayout layout,
+			FormTemplate.ControlFactory factory, ConstantSize width,
+			ConstantSize height) {
+		if (factory == null)
+			throw new NullPointerException("The factory must not be null.");
+		if (width == null || height == null)
+			throw new NullPointerException("The size must not be null.");
+		this.composite = composite;
+		this.layout = layout;
+		this.factory = factory;
+		this.width = width;
+		this.height = height;
+		paintListener = new PaintListener() {
+			public void paintControl(PaintEvent e) {
+				if (bounds.intersects(e.x, e.y, e.width, e.height)) {
+					scheduleMaterialize();
+				}
+			}
+		};
+		composite.addPaintListener(paintListener);
+	}
+
+	// Accessors ************************************************************
+
+	/**
+	 * Returns whether the control has been created.
+	 * 
+	 * @return true if the control exists
+	 */
+	public boolean isMaterialized() {
+		return control != null;
+	}
+
+	/**
+	 * Returns the control, or <code>null</code> if it has not been created
+	 * yet.
+	 * 
+	 * @return the control or <code>null</code>
+	 * @see #materialize()
+	 */
+	public Control getControl() {
+		return control;
+	}
+
+	// Materializing ********************************************************
+
+	/**
+	 * Creates the control now, unless it has been created before, and lets it
+	 * replace the placeholder in the layout. Invoked automatically when the
+	 * cell becomes visible; may be invoked directly to create the control
+	 * earlier, for example before it takes the focus.
+	 * 
+	 * @return the control
+	 * @throws NullPointerException
+	 *             if the factory returns <code>null</code>
+	 */
+	public Control materialize() {
+		if (control != null)
+			return control;
+		Control newControl = factory.createControl(composite);
+		if (newControl == null)
+			throw new NullPointerException("The factory returned null.");
+		CellConstraints constraints = layout.getConstraints(this);
+		layout.removeVirtualCell(this);
+		newControl.setLayoutData(constraints);
+		layout.setConstraints(newControl, constraints);
+		composite.removePaintListener(paintListener);
+		control = newControl;
+		composite.layout(true);
+		return control;
+	}
+
+	/**
+	 * Materializes the control after the current paint event, because
+	 * controls must not be created while the container paints or lays out.
+	 */
+	private void scheduleMaterialize() {
+		if (scheduled)
+			return;
+		scheduled = true;
+		composite.getDisplay().asyncExec(new Runnable() {
+			public void run() {
+				if (!composite.isDisposed()) {
+					materialize();
+				}
+			}
+		});
+	}
+
+	// Implementing VirtualCell *********************************************
+
+	/**
+	 * Returns the declared size converted to pixels.
+	 * 
+	 * @param wHint
+	 *            ignored
+	 * @param hHint
+	 *            ignored
+	 * @return the declared size in pixels
+	 */
+	public Point computeSize(int wHint, int hHint) {
+		return new Point(width.getPixelSize(composite), height
+				.getPixelSize(composite));
+	}
+
+	/**
+	 * Stores the bounds that the placeholder reserves.
+	 */
+	public void setBounds(int x, int y, int width, int height) {
+		bounds = new Rectangle(x, y, width, height);
+	}
+
+}
@@ -35,9 +35,13 @@ import javax.swing.SwingConstants;
 import net.ffxml.swtforms.factories.Borders;
 import net.ffxml.swtforms.factories.ComponentFactory;
 import net.ffxml.swtforms.factories.DefaultComponentFactory;
+import net.ffxml.swtforms.factories.PaintedLabels;
 import net.ffxml.swtforms.layout.Border;
 import net.ffxml.swtforms.layout.CellConstraints;
+import net.ffxml.swtforms.layout.ConstantSize;
 import net.ffxml.swtforms.layout.FormLayout;
+import net.ffxml.swtforms.layout.FormTemplate;
+import net.ffxml.swtforms.util.DisplayContext;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Button;
@@ -105,6 +109,12 @@ public class PanelBuilder extends AbstractFormBuilder {
 	 */
 	private ComponentFactory componentFactory;
 
+	/**
+	 * Refers to the factory used by builders that have no factory of their
+	 * own.
+	 */
+	private static volatile ComponentFactory defaultComponentFactory;
+
 	protected Composite composite;
 
 	// Instance Creation ****************************************************
@@ -173,12 +183,14 @@ public class PanelBuilder extends AbstractFormBuilder {
 	}
 
 	/**
-	 * Sets the default dialog border.
+	 * Sets the default dialog border of the layout style used for the
+	 * composite's Display.
 	 * 
-	 * @see Borders
+	 * @see Borders#createDialogBorder(net.ffxml.swtforms.util.LayoutStyle)
 	 */
 	public final void setDefaultDialogBorder() {
-		setBorder(Borders.DIALOG_BORDER);
+		setBorder(Borders.createDialogBorder(DisplayContext.forControl(
+				getComposite()).getLayoutStyle()));
 	}
 
 	// Adding Labels **********************************************************
@@ -259,6 +271,114 @@ public class PanelBuilder extends AbstractFormBuilder {
 				encodedConstraints));
 	}
 
+	/**
+	 * Adds a read-only label that is painted by the panel to the form using
+	 * the default constraints. Unlike {@link #addLabel(String)} no native
+	 * widget is created.
+	 * 
+	 * @param textWithMnemonic
+	 *            the label's text - may contain an ampersand (<tt>&amp;</tt>)
+	 *            to mark a mnemonic
+	 * @return the new painted label
+	 * 
+	 * @see PaintedLabels
+	 */
+	public final PaintedLabels.PaintedLabel addPaintedLabel(
+			String textWithMnemonic) {
+		return addPaintedLabel(textWithMnemonic, cellConstraints());
+	}
+
+	/**
+	 * Adds a read-only label that is painted by the panel to the form using
+	 * the specified constraints. The layout measures the label from its
+	 * cached text extent. Unlike
+	 * {@link #addLabel(String, CellConstraints)} no native widget is created.
+	 * 
+	 * @param textWithMnemonic
+	 *            the label's text - may contain an ampersand (<tt>&amp;</tt>)
+	 *            to mark a mnemonic
+	 * @param constraints
+	 *            the label's cell constraints
+	 * @return the new painted label
+	 * 
+	 * @see PaintedLabels
+	 */
+	public final PaintedLabels.PaintedLabel addPaintedLabel(
+			String textWithMnemonic, CellConstraints constraints) {
+		PaintedLabels.PaintedLabel label = PaintedLabels.getInstance(
+				composite).add(textWithMnemonic);
+		getLayout().setConstraints(label, constraints);
+		return label;
+	}
+
+	/**
+	 * Adds a read-only label that is painted by the panel to the form using
+	 * the specified constraints.
+	 * 
+	 * @param textWithMnemonic
+	 *            the label's text - may contain an ampersand (<tt>&amp;</tt>)
+	 *            to mark a mnemonic
+	 * @param encodedConstraints
+	 *            a string representation for the constraints
+	 * @return the new painted label
+	 * 
+	 * @see PaintedLabels
+	 */
+	public final PaintedLabels.PaintedLabel addPaintedLabel(
+			String textWithMnemonic, String encodedConstraints) {
+		return addPaintedLabel(textWithMnemonic, new CellConstraints(
+				encodedConstraints));
+	}
+
+	// Adding Lazily Created Controls ***************************************
+
+	/**
+	 * Reserves a cell with the given declared size for a control that is
+	 * created by the factory the first time the cell becomes visible. Uses
+	 * the default constraints.
+	 * 
+	 * @param factory
+	 *            creates the control in the panel
+	 * @param width
+	 *            the declared width, e.g. <code>Sizes.dluX(100)</code>
+	 * @param height
+	 *            the declared height, e.g. <code>Sizes.dluY(14)</code>
+	 * @return the placeholder that creates the control
+	 * 
+	 * @see LazyControl
+	 */
+	public final LazyControl addLazy(FormTemplate.ControlFactory factory,
+			ConstantSize width, ConstantSize height) {
+		return addLazy(factory, width, height, cellConstraints());
+	}
+
+	/**
+	 * Reserves a cell with the given declared size for a control that is
+	 * created by the factory the first time the cell becomes visible. The
+	 * layout uses the declared size until the control exists, so the form
+	 * keeps its layout if the size matches the control's size.
+	 * 
+	 * @param factory
+	 *            creates the control in the panel
+	 * @param width
+	 *            the declared width, e.g. <code>Sizes.dluX(100)</code>
+	 * @param height
+	 *            the declared height, e.g. <code>Sizes.dluY(14)</code>
+	 * @param constraints
+	 *            the cell constraints
+	 * @return the placeholder that creates the control
+	 * 
+	 * @see LazyControl
+	 */
+	public final LazyControl addLazy(FormTemplate.ControlFactory factory,
+			ConstantSize width, ConstantSize height,
+			CellConstraints constraints) {
+		LazyControl placeholder = new LazyControl(composite, getLayout(),
+				factory, width, height);
+		getLayout().setConstraints(placeholder, constraints);
+		return placeholder;
+	}
+
 	// Adding Label with related Component ************************************
 
 	/**
@@ -602,20 +722,46 @@ public class PanelBuilder extends AbstractFormBuilder {
 
 	/**
 	 * Returns the builder's component factory. If no factory has been set
-	 * before, it is lazily initialized using with an instance of
-	 * {@link com.jgoodies.forms.factories.DefaultComponentFactory}.
+	 * before, it is lazily initialized using the default component factory.
 	 * 
 	 * @return the component factory
 	 * 
 	 * @see #setComponentFactory(ComponentFactory)
+	 * @see #setDefaultComponentFactory(ComponentFactory)
 	 */
 	public final ComponentFactory getComponentFactory() {
 		if (componentFactory == null) {
-			componentFactory = DefaultComponentFactory.getInstance();
+			componentFactory = getDefaultComponentFactory();
 		}
 		return componentFactory;
 	}
 
+	/**
+	 * Returns the component factory used by builders that have no factory of
+	 * their own. Unless set otherwise it is the
+	 * {@link net.ffxml.swtforms.factories.DefaultComponentFactory}.
+	 * 
+	 * @return the default component factory
+	 */
+	public static ComponentFactory getDefaultComponentFactory() {
+		ComponentFactory factory = defaultComponentFactory;
+		return factory != null ? factory : DefaultComponentFactory
+				.getInstance();
+	}
+
+	/**
+	 * Sets the component factory used by builders that have no factory of
+	 * their own, for example a
+	 * {@link net.ffxml.swtforms.factories.PaintedSeparatorFactory}.
+	 * 
+	 * @param newFactory
+	 *            the default component factory to be set, <code>null</code>
+	 *            for the <code>DefaultComponentFactory</code>
+	 */
+	public static void setDefaultComponentFactory(ComponentFactory newFactory) {
+		defaultComponentFactory = newFactory;
+	}
+
 	/**
 	 * Sets a new component factory.
 	 * 
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.builder;
+
+import java.lang.ref.WeakReference;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.WeakHashMap;
+
+/**
+ * Caches the strings that the i15d builders look up in a
+ * <code>ResourceBundle</code>. All builders that use the same bundle share a
+ * cache, so every key is looked up once, even if the bundle walks a long
+ * chain of parent bundles. Missing keys are cached too, so that repeated
+ * misses do not throw a <code>MissingResourceException</code> each time.
+ * <p>
+ * 
+ * Caches are held weakly per bundle; this class is thread safe.
+ * 
+ * @author Florian Fankhauser
+ * @see I15dPanelBuilder
+ * @see FormPlanBuilder
+ */
+public final class ResourceStringCache {
+
+	/**
+	 * Maps resource bundles to their caches.
+	 */
+	private static final Map CACHES = new WeakHashMap();
+
+	/**
+	 * Marks a key that is missing in the bundle.
+	 */
+	private static final Object MISSING = new Object();
+
+	/**
+	 * Refers to the bundle weakly, because the bundle is the weak key that
+	 * holds this cache.
+	 */
+	private final WeakReference bundleRef;
+
+	/**
+	 * Maps keys to their strings or to <code>MISSING</code>.
+	 */
+	private final Map strings = new HashMap();
+
+	private int missCount;
+
+	// Instance Creation ****************************************************
+
+	private ResourceStringCache(ResourceBundle bundle) {
+		this.bundleRef = new WeakReference(bundle);
+	}
+
+	/**
+	 * Returns the cache for the given bundle; creates it if necessary.
+	 * 
+	 * @param bundle
+	 *            the bundle to cache strings of
+	 * @return the bundle's cache
+	 * @throws NullPointerException
+	 *             if the bundle is <code>null</code>
+	 */
+	public static ResourceStringCache getInstance(ResourceBundle bundle) {
+		if (bundle == null)
+			throw new NullPointerException("The bundle must not be null.");
+		synchronized (CACHES) {
+			ResourceStringCache cache = (ResourceStringCache) CACHES
+					.get(bundle);
+			if (cache == null) {
+				cache = new ResourceStringCache(bundle);
+				CACHES.put(bundle, cache);
+			}
+			return cache;
+		}
+	}
+
+	// Looking up Strings ***************************************************
+
+	/**
+	 * Returns the string for the given key, or the key itself if the bundle
+	 * has no such resource. Looks the key up in the bundle only the first
+	 * time.
+	 * 
+	 * @param key
+	 *            the resource key
+	 * @return the associated string, or the key in case of a missing resource
+	 */
+	public synchronized String getString(String key) {
+		Object value = strings.get(key);
+		if (value == null) {
+			value = lookup(key);
+			strings.put(key, value);
+		}
+		return value == MISSING ? key : (String) value;
+	}
+
+	/**
+	 * Looks up the given keys at once, so that later lookups hit the cache,
+	 * for example before a form with many i15d labels is built.
+	 * 
+	 * @param keys
+	 *            the keys to look up
+	 */
+	public synchronized void prefetch(String[] keys) {
+		for (int i = 0; i < keys.length; i++) {
+			if (!strings.containsKey(keys[i])) {
+				strings.put(keys[i], lookup(keys[i]));
+			}
+		}
+	}
+
+	/**
+	 * Looks up all keys of the bundle and its parents at once.
+	 */
+	public synchronized void prefetchAll() {
+		ResourceBundle bundle = (ResourceBundle) bundleRef.get();
+		if (bundle == null)
+			return;
+		for (Enumeration e = bundle.getKeys(); e.hasMoreElements();) {
+			String key = (String) e.nextElement();
+			if (!strings.containsKey(key)) {
+				strings.put(key, lookup(key));
+			}
+		}
+	}
+
+	/**
+	 * Removes all cached strings, for example after the bundle's content has
+	 * been reloaded.
+	 */
+	public synchronized void clear() {
+		strings.clear();
+	}
+
+	/**
+	 * Returns the number of cached keys, including missing keys.
+	 * 
+	 * @return the number of cached keys
+	 */
+	public synchronized int size() {
+		return strings.size();
+	}
+
+	/**
+	 * Returns how often a key has been found missing in the bundle.
+	 * 
+	 * @return the number of lookups that failed
+	 */
+	public synchronized int getMissCount() {
+		return missCount;
+	}
+
+	private Object lookup(String key) {
+		ResourceBundle bundle = (ResourceBundle) bundleRef.get();
+		if (bundle == null)
+			return MISSING;
+		try {
+			return bundle.getString(key);
+		} catch (MissingResourceException mre) {
+			missCount++;
+			return MISSING;
+		}
+	}
+
+}
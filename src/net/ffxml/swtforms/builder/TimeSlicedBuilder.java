@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.builder;
+
+import net.ffxml.swtforms.layout.FormLayout;
+import net.ffxml.swtforms.layout.FormTemplate;
+
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Instantiates a {@link FormTemplate} in small batches, so that building a
+ * large form doesn't block the event loop. Every batch runs in a
+ * <code>Display#asyncExec</code> runnable and creates controls until the
+ * time budget per batch is used up; between two batches the display
+ * processes pending events, so the shell stays responsive.
+ * <p>
+ * 
+ * The template holds the decoded specifications, the validated constraints
+ * and a factory per cell; resource strings are resolved by the factories.
+ * By default the container is laid out once at the end; in progressive mode
+ * it is laid out after every batch. A {@link ProgressListener} is notified
+ * after every batch in the user interface thread.
+ * 
+ * <pre>
+ * TimeSlicedBuilder builder = new TimeSlicedBuilder(template, composite);
+ * builder.setProgressListener(new TimeSlicedBuilder.ProgressListener() {
+ * 	public void progress(int created, int total) {
+ * 		progressBar.setSelection(created * 100 / total);
+ * 	}
+ * 
+ * 	public void finished(Control[] controls) {
+ * 		progressBar.setVisible(false);
+ * 	}
+ * });
+ * builder.start();
+ * </pre>
+ * 
+ * @author Florian Fankhauser
+ * @see FormTemplate
+ */
+public final class TimeSlicedBuilder {
+
+	/**
+	 * The default time budget per batch in milliseconds.
+	 */
+	public static final int DEFAULT_TIME_BUDGET = 20;
+
+	/**
+	 * Is notified about the progress of a {@link TimeSlicedBuilder}.
+	 */
+	public interface ProgressListener {
+
+		/**
+		 * Invoked after each batch.
+		 * 
+		 * @param created
+		 *            the number of controls created so far
+		 * @param total
+		 *            the total number of controls
+		 */
+		void progress(int created, int total);
+
+		/**
+		 * Invoked once after all controls have been created and the container
+		 * has been laid out.
+		 * 
+		 * @param controls
+		 *            the created controls in the template's cell order
+		 */
+		void finished(Control[] controls);
+
+	}
+
+	private final FormTemplate template;
+
+	private final Composite composite;
+
+	private final Control[] controls;
+
+	private int timeBudget = DEFAULT_TIME_BUDGET;
+
+	private boolean progressiveLayout;
+
+	private ProgressListener progressListener;
+
+	private FormLayout layout;
+
+	private int created;
+
+	private int batchCount;
+
+	private boolean started;
+
+	private boolean cancelled;
+
+	// Instance Creation ****************************************************
+
+	/**
+	 * Constructs a builder that instantiates the given template into the
+	 * given composite.
+	 * 
+	 * @param template
+	 *            the prepared form description
+	 * @param composite
+	 *            the composite to fill
+	 * @throws NullPointerException
+	 *             if the template or composite is <code>null</code>
+	 */
+	public TimeSlicedBuilder(FormTemplate template, Composite composite) {
+		if (template == null)
+			throw new NullPointerException("The template must not be null.");
+		if (composite == null)
+			throw new NullPointerException("The composite must not be null.");
+		this.template = template;
+		this.composite = composite;
+		this.controls = new Control[template.getCellCount()];
+	}
+
+	// Accessors ************************************************************
+
+	/**
+	 * Returns the time budget per batch.
+	 * 
+	 * @return the time budget in milliseconds
+	 */
+	public int getTimeBudget() {
+		return timeBudget;
+	}
+
+	/**
+	 * Sets the time budget per batch. Every batch creates at least one
+	 * control, even if that takes longer.
+	 * 
+	 * @param millis
+	 *            the time budget in milliseconds
+	 * @throws IllegalArgumentException
+	 *             if the budget is not positive
+	 */
+	public void setTimeBudget(int millis) {
+		if (millis <= 0)
+			throw new IllegalArgumentException(
+					"The time budget must be positive.");
+		timeBudget = millis;
+	}
+
+	/**
+	 * Returns whether the container is laid out after every batch.
+	 * 
+	 * @return true for progressive layout, false to lay out once at the end
+	 */
+	public boolean isProgressiveLayout() {
+		return progressiveLayout;
+	}
+
+	/**
+	 * Sets whether the container is laid out after every batch, so that the
+	 * form grows visibly, or only once at the end. The mode must be set
+	 * before the build starts, because a build that lays out once at the end
+	 * defers the layout until it finishes.
+	 * 
+	 * @param progressive
+	 *            true to lay out after every batch
+	 * @throws IllegalStateException
+	 *             if the builder has been started before
+	 */
+	public void setProgressiveLayout(boolean progressive) {
+		if (started)
+			throw new IllegalStateException(
+					"The layout mode must be set before the build starts.");
+		progressiveLayout = progressive;
+	}
+
+	/**
+	 * Sets the listener that is notified about the progress.
+	 * 
+	 * @param listener
+	 *            the listener, or <code>null</code> for none
+	 */
+	public void setProgressListener(ProgressListener listener) {
+		progressListener = listener;
+	}
+
+	/**
+	 * Returns the number of controls created so far.
+	 * 
+	 * @return the number of created controls
+	 */
+	public int getCreatedCount() {
+		return created;
+	}
+
+	/**
+	 * Returns the number of batches run so far.
+	 * 
+	 * @return the number of batches
+	 */
+	public int getBatchCount() {
+		return batchCount;
+	}
+
+	/**
+	 * Returns whether all controls have been created.
+	 * 
+	 * @return true if the construction has finished
+	 */
+	public boolean isFinished() {
+		return created == controls.length && started && !cancelled;
+	}
+
+	// Building *************************************************************
+
+	/**
+	 * Sets the template's layout and schedules the first batch. Must be
+	 * invoked in the user interface thread.
+	 * 
+	 * @throws IllegalStateException
+	 *             if the builder has been started before
+	 */
+	public void start() {
+		if (started)
+			throw new IllegalStateException("The build has already started.");
+		started = true;
+		layout = template.createLayout();
+		composite.setLayout(layout);
+		if (!progressiveLayout) {
+			composite.setLayoutDeferred(true);
+		}
+		composite.getDisplay().asyncExec(new Runnable() {
+			public void run() {
+				runBatch();
+			}
+		});
+	}
+
+	/**
+	 * Stops the construction after the current batch. Controls created so
+	 * far are kept, and the container is laid out.
+	 */
+	public void cancel() {
+		if (!started || cancelled || created == controls.length)
+			return;
+		cancelled = true;
+		if (!composite.isDisposed()) {
+			finishLayout();
+		}
+	}
+
+	/**
+	 * Creates controls until the time budget is used up, and schedules the
+	 * next batch or finishes the construction. If a factory fails or returns
+	 * <code>null</code>, the construction is cancelled, the controls created
+	 * so far are laid out, and the exception is thrown.
+	 */
+	private void runBatch() {
+		if (cancelled)
+			return;
+		if (composite.isDisposed()) {
+			cancelled = true;
+			return;
+		}
+		long deadline = System.currentTimeMillis() + timeBudget;
+		boolean failed = true;
+		try {
+			while (created < controls.length) {
+				controls[created] = template.createControl(created,
+						composite, layout);
+				created++;
+				if (System.currentTimeMillis() >= deadline)
+					break;
+			}
+			failed = false;
+		} finally {
+			batchCount++;
+			if (failed) {
+				cancelled = true;
+				if (!composite.isDisposed()) {
+					finishLayout();
+				}
+			}
+		}
+
+		boolean done = created == controls.length;
+		if (done) {
+			finishLayout();
+		} else if (progressiveLayout) {
+			composite.layout(true);
+		}
+		if (progressListener != null) {
+			progressListener.progress(created, controls.length);
+			if (done) {
+				progressListener.finished((Control[]) controls.clone());
+			}
+		}
+		if (!done) {
+			Display display = composite.getDisplay();
+			display.asyncExec(new Runnable() {
+				public void run() {
+					runBatch();
+				}
+			});
+		}
+	}
+
+	private void finishLayout() {
+		if (!progressiveLayout) {
+			composite.setLayoutDeferred(false);
+		}
+		composite.layout(true);
+	}
+
+}
@@ -30,20 +30,30 @@
 
 package net.ffxml.swtforms.debug;
 
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
 import net.ffxml.swtforms.layout.CellConstraints;
 import net.ffxml.swtforms.layout.ColumnSpec;
 import net.ffxml.swtforms.layout.FormLayout;
+import net.ffxml.swtforms.layout.LayoutProfile;
 import net.ffxml.swtforms.layout.RowSpec;
+import net.ffxml.swtforms.layout.VirtualCell;
 
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.ControlAdapter;
+import org.eclipse.swt.events.ControlEvent;
 import org.eclipse.swt.events.DisposeEvent;
 import org.eclipse.swt.events.DisposeListener;
 import org.eclipse.swt.events.PaintEvent;
 import org.eclipse.swt.events.PaintListener;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
-import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Label;
 
 /**
@@ -309,7 +319,7 @@ public final class FormDebugUtils {
 		FormDebug debug = new FormDebug();
 
 		if (gridColor == null) {
-			gridColor = new Color(Display.getCurrent(), 255, 0, 0);
+			gridColor = new Color(composite.getDisplay(), 255, 0, 0);
 			composite.addDisposeListener(debug);
 		}
 		debug.color = gridColor;
@@ -320,6 +330,70 @@ public final class FormDebugUtils {
 
 	}
 
+	/**
+	 * The key used to store the performance overlay in the composite's data.
+	 */
+	private static final String PERFORMANCE_DEBUG_KEY = FormPerformanceDebug.class
+			.getName();
+
+	/**
+	 * Turns on the performance overlay on the given composite. Enables
+	 * profiling on the composite's <code>FormLayout</code> and paints over the
+	 * form after each layout pass:
+	 * <ul>
+	 * <li>a heatmap that fills each cell the more intensely red the more time
+	 * measuring its control took; the heat is painted on the composite and, with paint listeners, on the child
+	 * controls that cover their cells,
+	 * <li>a yellow outline around each cell that has been measured in the last
+	 * pass because its cached sizes had been invalidated, painted on the
+	 * child control and around the cell on the composite,
+	 * <li>the minimum, preferred and final size of each column and row,
+	 * <li>a box with the number of layout passes, the last and total solve
+	 * time and the number of <code>computeSize</code> calls.
+	 * </ul>
+	 * Does nothing if the overlay is on already.
+	 * 
+	 * @param composite
+	 *            the composite to profile
+	 * @throws IllegalArgumentException
+	 *             if the layout is not FormLayout
+	 * @see #stopDebugPerformance(Composite)
+	 * @see FormLayout#setProfilingEnabled(boolean)
+	 */
+	public static void debugPerformance(Composite composite) {
+		if (!(composite.getLayout() instanceof FormLayout)) {
+			throw new IllegalArgumentException(
+					"The container must use an instance of FormLayout.");
+		}
+		if (composite.getData(PERFORMANCE_DEBUG_KEY) != null)
+			return;
+		((FormLayout) composite.getLayout()).setProfilingEnabled(true);
+		FormPerformanceDebug debug = new FormPerformanceDebug();
+		debug.composite = composite;
+		composite.setData(PERFORMANCE_DEBUG_KEY, debug);
+		composite.addPaintListener(debug);
+		composite.addControlListener(debug.redrawer);
+		composite.layout(true);
+	}
+
+	/**
+	 * Turns off the performance overlay on the given composite: removes the
+	 * listeners that {@link #debugPerformance(Composite)} has added to the
+	 * composite and its children, disables profiling and repaints the form.
+	 * Does nothing if the overlay is off.
+	 * 
+	 * @param composite
+	 *            the composite to stop profiling
+	 */
+	public static void stopDebugPerformance(Composite composite) {
+		FormPerformanceDebug debug = (FormPerformanceDebug) composite
+				.getData(PERFORMANCE_DEBUG_KEY);
+		if (debug == null)
+			return;
+		composite.setData(PERFORMANCE_DEBUG_KEY, null);
+		debug.remove();
+	}
+
 	/**
 	 * Helper class which implements the grid painter.
 	 */
@@ -337,26 +411,45 @@ public final class FormDebugUtils {
 			if (!(composite.getLayout() instanceof FormLayout)) {
 				return;
 			}
-			FormLayout.LayoutInfo layoutInfo = FormDebugUtils
-					.getLayoutInfo(composite);
+			// Read the origins of the last layout instead of solving again.
+			FormLayout.LayoutInfo layoutInfo = ((FormLayout) composite
+					.getLayout()).getLastLayoutInfo();
+			if (layoutInfo == null) {
+				return;
+			}
 			int left = layoutInfo.getX();
 			int top = layoutInfo.getY();
 			int width = layoutInfo.getWidth();
 			int height = layoutInfo.getHeight();
 
+			// Paint the damaged area only.
+			int clipLeft = Math.max(left, paintEvent.x);
+			int clipTop = Math.max(top, paintEvent.y);
+			int clipRight = Math.min(left + width, paintEvent.x
+					+ paintEvent.width);
+			int clipBottom = Math.min(top + height, paintEvent.y
+					+ paintEvent.height);
+			if (clipLeft > clipRight || clipTop > clipBottom) {
+				return;
+			}
+
 			GC gc = paintEvent.gc;
 			gc.setForeground(color);
 
 			// Paint the column bounds.
 			for (int col = 0; col < layoutInfo.columnOrigins.length; col++) {
-				gc.drawLine(layoutInfo.columnOrigins[col], top,
-						layoutInfo.columnOrigins[col], top + height);
+				int x = layoutInfo.columnOrigins[col];
+				if (x >= clipLeft && x <= clipRight) {
+					gc.drawLine(x, clipTop, x, clipBottom);
+				}
 			}
 
 			// Paint the row bounds.
 			for (int row = 0; row < layoutInfo.rowOrigins.length; row++) {
-				gc.drawLine(left, layoutInfo.rowOrigins[row], left + width,
-						layoutInfo.rowOrigins[row]);
+				int y = layoutInfo.rowOrigins[row];
+				if (y >= clipTop && y <= clipBottom) {
+					gc.drawLine(clipLeft, y, clipRight, y);
+				}
 			}
 
 			if (paintDiagonals) {
@@ -377,4 +470,254 @@ public final class FormDebugUtils {
 
 	}
 
+	/**
+	 * Helper class which implements the performance overlay painter.
+	 */
+	static class FormPerformanceDebug implements PaintListener {
+		Composite composite = null;
+
+		/**
+		 * Holds the children that paint their heat with
+		 * <code>childPainter</code>.
+		 */
+		private final Set decoratedChildren = new HashSet();
+
+		/**
+		 * Repaints the overlay, including the children, after the composite
+		 * has been resized and laid out again.
+		 */
+		final ControlAdapter redrawer = new ControlAdapter() {
+			public void controlResized(ControlEvent e) {
+				redrawAll();
+			}
+		};
+
+		/**
+		 * Paints the heat of a child control over the child, which covers
+		 * its cell on the composite.
+		 */
+		final PaintListener childPainter = new PaintListener() {
+			public void paintControl(PaintEvent e) {
+				paintChild((Control) e.widget, e.gc);
+			}
+		};
+
+		/**
+		 * Removes all listeners, disables profiling and repaints the form.
+		 */
+		void remove() {
+			for (Iterator i = decoratedChildren.iterator(); i.hasNext();) {
+				Control child = (Control) i.next();
+				if (!child.isDisposed()) {
+					child.removePaintListener(childPainter);
+				}
+			}
+			decoratedChildren.clear();
+			if (composite.isDisposed())
+				return;
+			composite.removePaintListener(this);
+			composite.removeControlListener(redrawer);
+			if (composite.getLayout() instanceof FormLayout) {
+				((FormLayout) composite.getLayout()).setProfilingEnabled(false);
+			}
+			redrawAll();
+		}
+
+		private void redrawAll() {
+			Rectangle area = composite.getClientArea();
+			composite.redraw(area.x, area.y, area.width, area.height, true);
+		}
+
+		/**
+		 * Adds the child painter to the children that have been added since
+		 * the last paint.
+		 */
+		private void decorateChildren() {
+			Control[] children = composite.getChildren();
+			for (int i = 0; i < children.length; i++) {
+				if (decoratedChildren.add(children[i])) {
+					children[i].addPaintListener(childPainter);
+				}
+			}
+			for (Iterator i = decoratedChildren.iterator(); i.hasNext();) {
+				if (((Control) i.next()).isDisposed()) {
+					i.remove();
+				}
+			}
+		}
+
+		private void paintChild(Control child, GC gc) {
+			if (!(composite.getLayout() instanceof FormLayout)) {
+				return;
+			}
+			LayoutProfile profile = ((FormLayout) composite.getLayout())
+					.getProfile();
+			if (profile == null) {
+				return;
+			}
+			Object[] cells = profile.getCells();
+			long maxCost = getMaximumCost(profile, cells);
+			if (maxCost == 0) {
+				return;
+			}
+			Point size = child.getSize();
+			gc.setAlpha(heatAlpha(profile.getMeasureNanos(child), maxCost));
+			gc.setBackground(composite.getDisplay()
+					.getSystemColor(SWT.COLOR_RED));
+			gc.fillRectangle(0, 0, size.x, size.y);
+			gc.setAlpha(255);
+			if (profile.isMeasuredInLastPass(child)) {
+				gc.setForeground(composite.getDisplay().getSystemColor(
+						SWT.COLOR_YELLOW));
+				gc.drawRectangle(0, 0, size.x - 1, size.y - 1);
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see org.eclipse.swt.events.PaintListener#paintControl(org.eclipse.swt.events.PaintEvent)
+		 */
+		public void paintControl(PaintEvent paintEvent) {
+			if (!(composite.getLayout() instanceof FormLayout)) {
+				return;
+			}
+			FormLayout layout = (FormLayout) composite.getLayout();
+			FormLayout.LayoutInfo layoutInfo = layout.getLastLayoutInfo();
+			LayoutProfile profile = layout.getProfile();
+			if (layoutInfo == null || profile == null) {
+				return;
+			}
+			decorateChildren();
+			GC gc = paintEvent.gc;
+			paintHeatmap(gc, layout, layoutInfo, profile);
+			paintTrackSizes(gc, layoutInfo, profile);
+			paintSummary(gc, profile);
+		}
+
+		private void paintHeatmap(GC gc, FormLayout layout,
+				FormLayout.LayoutInfo layoutInfo, LayoutProfile profile) {
+			Object[] cells = profile.getCells();
+			long maxCost = getMaximumCost(profile, cells);
+			if (maxCost == 0) {
+				return;
+			}
+			Color heat = composite.getDisplay().getSystemColor(SWT.COLOR_RED);
+			Color outline = composite.getDisplay().getSystemColor(
+					SWT.COLOR_YELLOW);
+			for (int i = 0; i < cells.length; i++) {
+				CellConstraints cc = getConstraints(layout, cells[i]);
+				if (cc == null) {
+					continue;
+				}
+				int x = layoutInfo.columnOrigins[cc.gridX - 1];
+				int y = layoutInfo.rowOrigins[cc.gridY - 1];
+				int w = layoutInfo.columnOrigins[cc.gridX + cc.gridWidth - 1]
+						- x;
+				int h = layoutInfo.rowOrigins[cc.gridY + cc.gridHeight - 1]
+						- y;
+				gc.setAlpha(heatAlpha(profile.getMeasureNanos(cells[i]),
+						maxCost));
+				gc.setBackground(heat);
+				gc.fillRectangle(x, y, w, h);
+				gc.setAlpha(255);
+				if (profile.isMeasuredInLastPass(cells[i])) {
+					gc.setForeground(outline);
+					gc.drawRectangle(x, y, w - 1, h - 1);
+				}
+			}
+		}
+
+		private void paintTrackSizes(GC gc, FormLayout.LayoutInfo layoutInfo,
+				LayoutProfile profile) {
+			gc.setForeground(composite.getDisplay().getSystemColor(
+					SWT.COLOR_BLUE));
+			int[] colMin = profile.getColumnMinimumSizes();
+			int[] colPref = profile.getColumnPreferredSizes();
+			int[] colSizes = profile.getColumnSizes();
+			int top = layoutInfo.getY();
+			for (int col = 0; col < colSizes.length
+					&& col + 1 < layoutInfo.columnOrigins.length; col++) {
+				if (colSizes[col] > 0) {
+					gc.drawText(trackText(colMin[col], colPref[col],
+							colSizes[col]), layoutInfo.columnOrigins[col], top,
+							true);
+				}
+			}
+			int[] rowMin = profile.getRowMinimumSizes();
+			int[] rowPref = profile.getRowPreferredSizes();
+			int[] rowSizes = profile.getRowSizes();
+			int left = layoutInfo.getX();
+			for (int row = 0; row < rowSizes.length
+					&& row + 1 < layoutInfo.rowOrigins.length; row++) {
+				if (rowSizes[row] > 0) {
+					gc.drawText(trackText(rowMin[row], rowPref[row],
+							rowSizes[row]), left, layoutInfo.rowOrigins[row],
+							true);
+				}
+			}
+		}
+
+		private void paintSummary(GC gc, LayoutProfile profile) {
+			String summary = "passes: " + profile.getPassCount()
+					+ "\nsolve: " + toMillis(profile.getLastSolveNanos())
+					+ " ms (" + toMillis(profile.getTotalSolveNanos())
+					+ " ms total)"
+					+ "\ncomputeSize: " + profile.getLastPassComputeSizeCount()
+					+ " (" + profile.getComputeSizeCount() + " total)";
+			Point extent = gc.textExtent(summary);
+			int x = composite.getClientArea().width - extent.x - 8;
+			int y = 4;
+			gc.setBackground(composite.getDisplay().getSystemColor(
+					SWT.COLOR_INFO_BACKGROUND));
+			gc.setForeground(composite.getDisplay().getSystemColor(
+					SWT.COLOR_INFO_FOREGROUND));
+			gc.fillRectangle(x, y, extent.x + 4, extent.y + 4);
+			gc.drawRectangle(x, y, extent.x + 4, extent.y + 4);
+			gc.drawText(summary, x + 2, y + 2, true);
+		}
+
+		/**
+		 * Returns the longest time in nanoseconds that measuring a cell took.
+		 */
+		private static long getMaximumCost(LayoutProfile profile,
+				Object[] cells) {
+			long maxCost = 0;
+			for (int i = 0; i < cells.length; i++) {
+				maxCost = Math.max(maxCost, profile.getMeasureNanos(cells[i]));
+			}
+			return maxCost;
+		}
+
+		/**
+		 * Converts nanoseconds to milliseconds, rounded to microseconds.
+		 */
+		private static double toMillis(long nanos) {
+			return (nanos / 1000L) / 1000.0;
+		}
+
+		private static int heatAlpha(long cost, long maxCost) {
+			return (int) (32 + 160 * cost / maxCost);
+		}
+
+		private static String trackText(int min, int pref, int size) {
+			return min + "/" + pref + "/" + size;
+		}
+
+		/**
+		 * Returns the constraints of a profiled control or virtual cell, or
+		 * <code>null</code> if the cell is no longer part of the layout.
+		 */
+		private static CellConstraints getConstraints(FormLayout layout,
+				Object cell) {
+			if (cell instanceof VirtualCell)
+				return layout.getConstraints((VirtualCell) cell);
+			Control control = (Control) cell;
+			if (control.isDisposed())
+				return null;
+			return layout.getConstraints(control);
+		}
+
+	}
+
 }
\ No newline at end of file
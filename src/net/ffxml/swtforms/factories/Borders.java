@@ -125,9 +125,29 @@ public final class Borders {
 
 	// Factory Methods ******************************************************
 
+	/**
+	 * Creates and returns a Border that describes the border around a dialog
+	 * content that has no tabs, using the margins of the given layout style.
+	 * 
+	 * @param style
+	 *            the layout style that provides the dialog margins
+	 * @return a dialog border for the given style
+	 * @throws NullPointerException
+	 *             if the style is <code>null</code>
+	 * @see #DIALOG_BORDER
+	 */
+	public static Border createDialogBorder(LayoutStyle style) {
+		if (style == null)
+			throw new NullPointerException("The layout style must not be null.");
+		return createEmptyBorder(style.getDialogMarginY(), style
+				.getDialogMarginX(), style.getDialogMarginY(), style
+				.getDialogMarginX());
+	}
+
 	/**
 	 * Creates and returns an <code>EmptyBorder</code> with the specified
-	 * gaps.
+	 * gaps. The gaps are converted to pixels for the layout container's font
+	 * and monitor each time it is laid out.
 	 * 
 	 * @param top
 	 *            the top gap
@@ -143,8 +163,7 @@ public final class Borders {
 	 */
 	public static Border createEmptyBorder(ConstantSize top, ConstantSize left,
 			ConstantSize bottom, ConstantSize right) {
-		return new Border(top.getPixelSize(null), left.getPixelSize(null),
-				bottom.getPixelSize(null), right.getPixelSize(null));
+		return new Border(top, left, bottom, right);
 	}
 
 	/**
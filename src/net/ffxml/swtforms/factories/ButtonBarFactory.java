@@ -31,9 +31,12 @@
 package net.ffxml.swtforms.factories;
 
 import net.ffxml.swtforms.builder.ButtonBarBuilder;
+import net.ffxml.swtforms.builder.ButtonBarTemplate;
+import net.ffxml.swtforms.util.DisplayContext;
 
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
 
 /**
  * A factory class that consists only of static methods to build frequently used
@@ -196,10 +199,8 @@ public final class ButtonBarFactory {
 	 */
 	public static Composite buildLeftAlignedBar(Composite composite,
 			Button[] buttons) {
-		ButtonBarBuilder builder = new ButtonBarBuilder(composite);
-		builder.addGriddedButtons(buttons);
-		builder.addGlue();
-		return composite;
+		return buildLeftAlignedBar(composite, buttons,
+				isLeftToRightButtonOrder(composite));
 	}
 
 	/**
@@ -213,11 +214,8 @@ public final class ButtonBarFactory {
 	 */
 	public static Composite buildLeftAlignedBar(Composite composite,
 			Button[] buttons, boolean leftToRightButtonOrder) {
-		ButtonBarBuilder builder = new ButtonBarBuilder(composite);
-		builder.setLeftToRightButtonOrder(leftToRightButtonOrder);
-		builder.addGriddedButtons(buttons);
-		builder.addGlue();
-		return composite;
+		return ButtonBarTemplate.getSequence(buttons.length, false, false,
+				true).build(composite, ordered(buttons, leftToRightButtonOrder));
 	}
 
 	// General Purpose Factory Methods: Centered ****************************
@@ -326,11 +324,9 @@ public final class ButtonBarFactory {
 	 */
 	public static Composite buildCenteredBar(Composite composite,
 			Button[] buttons) {
-		ButtonBarBuilder builder = new ButtonBarBuilder(composite);
-		builder.addGlue();
-		builder.addGriddedButtons(buttons);
-		builder.addGlue();
-		return composite;
+		return ButtonBarTemplate.getSequence(buttons.length, false, true, true)
+				.build(composite, ordered(buttons,
+						isLeftToRightButtonOrder(composite)));
 	}
 
 	/**
@@ -438,9 +434,9 @@ public final class ButtonBarFactory {
 	 */
 	public static Composite buildGrowingBar(Composite composite,
 			Button[] buttons) {
-		ButtonBarBuilder builder = new ButtonBarBuilder(composite);
-		builder.addGriddedGrowingButtons(buttons);
-		return composite;
+		return ButtonBarTemplate.getSequence(buttons.length, true, false, false)
+				.build(composite, ordered(buttons,
+						isLeftToRightButtonOrder(composite)));
 	}
 
 	// General Purpose Factory Methods: Right Aligned ***********************
@@ -551,10 +547,8 @@ public final class ButtonBarFactory {
 	 */
 	public static Composite buildRightAlignedBar(Composite composite,
 			Button[] buttons) {
-		ButtonBarBuilder builder = new ButtonBarBuilder(composite);
-		builder.addGlue();
-		builder.addGriddedButtons(buttons);
-		return composite;
+		return buildRightAlignedBar(composite, buttons,
+				isLeftToRightButtonOrder(composite));
 	}
 
 	/**
@@ -568,11 +562,8 @@ public final class ButtonBarFactory {
 	 */
 	public static Composite buildRightAlignedBar(Composite composite,
 			Button[] buttons, boolean leftToRightButtonOrder) {
-		ButtonBarBuilder builder = new ButtonBarBuilder(composite);
-		builder.setLeftToRightButtonOrder(leftToRightButtonOrder);
-		builder.addGlue();
-		builder.addGriddedButtons(buttons);
-		return composite;
+		return ButtonBarTemplate.getSequence(buttons.length, false, true,
+				false).build(composite, ordered(buttons, leftToRightButtonOrder));
 	}
 
 	// Right Aligned Button Bars with Help in the Left **********************
@@ -668,12 +659,15 @@ public final class ButtonBarFactory {
 	 */
 	public static Composite buildHelpBar(Composite composite, Button help,
 			Button[] buttons) {
-		ButtonBarBuilder builder = new ButtonBarBuilder(composite);
-		builder.addGridded(help);
-		builder.addRelatedGap();
-		builder.addGlue();
-		builder.addGriddedButtons(buttons);
-		return composite;
+		String pattern = "b, rgap, "
+				+ ButtonBarTemplate.getSequence(buttons.length, false, true,
+						false).getPattern();
+		Control[] controls = new Control[buttons.length + 1];
+		controls[0] = help;
+		System.arraycopy(ordered(buttons, isLeftToRightButtonOrder(composite)),
+				0, controls, 1, buttons.length);
+		return ButtonBarTemplate.getInstance(pattern)
+				.build(composite, controls);
 	}
 
 	// Popular Dialog Button Bars: No Help **********************************
@@ -971,13 +965,8 @@ public final class ButtonBarFactory {
 	 */
 	public static Composite buildAddRemovePropertiesBar(Composite composite,
 			Button add, Button remove, Button properties) {
-		ButtonBarBuilder builder = new ButtonBarBuilder(composite);
-		builder.addGriddedGrowing(add);
-		builder.addRelatedGap();
-		builder.addGriddedGrowing(remove);
-		builder.addRelatedGap();
-		builder.addGriddedGrowing(properties);
-		return composite;
+		return ButtonBarTemplate.getSequence(3, true, false, false).build(
+				composite, new Control[] { add, remove, properties });
 	}
 
 	/**
@@ -1140,4 +1129,37 @@ public final class ButtonBarFactory {
 		return composite;
 	}
 
+	// Helper Code **********************************************************
+
+	/**
+	 * Returns whether button sequences in the given bar are ordered from left
+	 * to right, as specified by the layout style of the bar's Display.
+	 * 
+	 * @param composite
+	 *            the button bar
+	 * @return true for a left to right button order
+	 */
+	private static boolean isLeftToRightButtonOrder(Composite composite) {
+		return DisplayContext.forControl(composite).getLayoutStyle()
+				.isLeftToRightButtonOrder();
+	}
+
+	/**
+	 * Returns the buttons in visual order from left to right.
+	 * 
+	 * @param buttons
+	 *            the buttons in logical order
+	 * @param leftToRight
+	 *            true for a left to right button order
+	 * @return the buttons from left to right
+	 */
+	private static Control[] ordered(Button[] buttons, boolean leftToRight) {
+		int length = buttons.length;
+		Control[] controls = new Control[length];
+		for (int i = 0; i < length; i++) {
+			controls[i] = buttons[leftToRight ? i : length - 1 - i];
+		}
+		return controls;
+	}
+
 }
\ No newline at end of file
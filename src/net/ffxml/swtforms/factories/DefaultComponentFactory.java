@@ -32,16 +32,14 @@ package net.ffxml.swtforms.factories;
 
 import javax.swing.SwingConstants;
 
+import net.ffxml.swtforms.util.FontRegistry;
+
 import org.eclipse.swt.SWT;
-import org.eclipse.swt.events.DisposeEvent;
-import org.eclipse.swt.events.DisposeListener;
-import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.FontData;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
-import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Label;
 
 /**
@@ -140,29 +138,15 @@ public final class DefaultComponentFactory implements ComponentFactory {
 	private Label createTitle(Composite parent, String textWithMnemonic, int gap) {
 		Label label = new Label(parent, SWT.NONE);
 		label.setText(textWithMnemonic);
-		label.setForeground(Display.getCurrent().getSystemColor(
+		label.setForeground(label.getDisplay().getSystemColor(
 				SWT.COLOR_TITLE_BACKGROUND));
 
 		try {
-			// use bold font, if not already bold
-			Font currentFont = label.getFont();
-			FontData fd = currentFont.getFontData()[0];
+			// use a shared bold font, if not already bold
+			FontData fd = label.getFont().getFontData()[0];
 			if ((fd.getStyle() & SWT.BOLD) == 0) {
-				Font newFont = new Font(Display.getCurrent(), fd.getName(), fd
-						.getHeight(), SWT.BOLD);
-				label.setFont(newFont);
-
-				label.addDisposeListener(new DisposeListener() {
-					/*
-					 * (non-Javadoc)
-					 * 
-					 * @see org.eclipse.swt.events.DisposeListener#widgetDisposed(org.eclipse.swt.events.DisposeEvent)
-					 */
-					public void widgetDisposed(DisposeEvent arg0) {
-						((Label) arg0.widget).getFont().dispose();
-					}
-
-				});
+				FontRegistry.getInstance(label.getDisplay()).setFont(label,
+						SWT.BOLD);
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.factories;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.ffxml.swtforms.layout.FormLayout;
+import net.ffxml.swtforms.layout.VirtualCell;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.DisposeEvent;
+import org.eclipse.swt.events.DisposeListener;
+import org.eclipse.swt.events.PaintEvent;
+import org.eclipse.swt.events.PaintListener;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Composite;
+
+/**
+ * Paints read-only labels directly on their layout container instead of
+ * creating a native <code>Label</code> per text. Each label is a
+ * {@link VirtualCell} that a {@link FormLayout} measures and positions like a
+ * control; the container paints all labels in a single paint listener. Forms
+ * with many read-only texts save a native widget handle per text.
+ * <p>
+ * 
+ * Text extents are measured with a single GC for all labels that have not
+ * been measured yet, and cached until the text changes or
+ * {@link #invalidate()} is invoked, for example after the container's font
+ * changed.
+ * <p>
+ * 
+ * <strong>Example:</strong>
+ * 
+ * <pre>
+ * PanelBuilder builder = new PanelBuilder(layout, composite);
+ * builder.addPaintedLabel(&quot;Name:&quot;, cc.xy(1, 1));
+ * builder.addPaintedLabel(customer.getName(), cc.xy(3, 1));
+ * </pre>
+ * 
+ * Painted labels cannot take the focus and are not visible to accessibility
+ * tools; use them for read-only summary forms.
+ * 
+ * @author Florian Fankhauser
+ * @see net.ffxml.swtforms.builder.PanelBuilder#addPaintedLabel(String,
+ *      net.ffxml.swtforms.layout.CellConstraints)
+ */
+public final class PaintedLabels {
+
+	/**
+	 * The key used to store the instance in its container's data.
+	 */
+	private static final String DATA_KEY = PaintedLabels.class.getName();
+
+	private static final int TEXT_FLAGS = SWT.DRAW_MNEMONIC
+			| SWT.DRAW_TRANSPARENT | SWT.DRAW_DELIMITER | SWT.DRAW_TAB;
+
+	private final Composite composite;
+
+	/**
+	 * Holds the painted labels in the order they have been added.
+	 */
+	private final List labels = new ArrayList();
+
+	/**
+	 * Indicates whether at least one label has to be measured.
+	 */
+	private boolean unmeasured;
+
+	// Instance Creation ****************************************************
+
+	private PaintedLabels(Composite composite) {
+		this.composite = composite;
+		composite.addPaintListener(new PaintListener() {
+			public void paintControl(PaintEvent e) {
+				paint(e.gc, e.x, e.y, e.width, e.height);
+			}
+		});
+		composite.addDisposeListener(new DisposeListener() {
+			public void widgetDisposed(DisposeEvent e) {
+				labels.clear();
+			}
+		});
+	}
+
+	/**
+	 * Returns the painted labels of the given container; creates them if
+	 * necessary.
+	 * 
+	 * @param composite
+	 *            the container that paints the labels
+	 * @return the container's painted labels
+	 * @throws NullPointerException
+	 *             if the container is <code>null</code>
+	 */
+	public static PaintedLabels getInstance(Composite composite) {
+		if (composite == null)
+			throw new NullPointerException("The composite must not be null.");
+		PaintedLabels instance = (PaintedLabels) composite.getData(DATA_KEY);
+		if (instance == null) {
+			instance = new PaintedLabels(composite);
+			composite.setData(DATA_KEY, instance);
+		}
+		return instance;
+	}
+
+	// Adding and Removing Labels *******************************************
+
+	/**
+	 * Adds a label with the given text. The label is painted as soon as a
+	 * layout has set its bounds.
+	 * 
+	 * @param textWithMnemonic
+	 *            the label's text - may contain an ampersand (<tt>&amp;</tt>)
+	 *            to mark a mnemonic
+	 * @return the new label
+	 */
+	public PaintedLabel add(String textWithMnemonic) {
+		PaintedLabel label = new PaintedLabel(textWithMnemonic);
+		labels.add(label);
+		unmeasured = true;
+		return label;
+	}
+
+	/**
+	 * Returns the number of painted labels.
+	 * 
+	 * @return the number of labels
+	 */
+	public int getLabelCount() {
+		return labels.size();
+	}
+
+	/**
+	 * Discards all cached text extents, for example because the container's
+	 * font has changed. The container must be laid out again afterwards.
+	 */
+	public void invalidate() {
+		for (int i = 0; i < labels.size(); i++) {
+			((PaintedLabel) labels.get(i)).extent = null;
+		}
+		unmeasured = true;
+	}
+
+	// Measuring and Painting ***********************************************
+
+	/**
+	 * Measures all labels without a cached extent using a single GC.
+	 */
+	private void measure() {
+		if (!unmeasured)
+			return;
+		GC gc = new GC(composite);
+		try {
+			gc.setFont(composite.getFont());
+			int lineHeight = gc.getFontMetrics().getHeight();
+			for (int i = 0; i < labels.size(); i++) {
+				PaintedLabel label = (PaintedLabel) labels.get(i);
+				if (label.extent == null) {
+					label.extent = gc.textExtent(label.text, TEXT_FLAGS);
+					label.extent.y = Math.max(label.extent.y, lineHeight);
+				}
+			}
+		} finally {
+			gc.dispose();
+		}
+		unmeasured = false;
+	}
+
+	private void paint(GC gc, int x, int y, int width, int height) {
+		if (labels.isEmpty())
+			return;
+		measure();
+		gc.setFont(composite.getFont());
+		gc.setForeground(composite.getForeground());
+		for (int i = 0; i < labels.size(); i++) {
+			PaintedLabel label = (PaintedLabel) labels.get(i);
+			Rectangle bounds = label.bounds;
+			if (bounds == null || bounds.width <= 0 || bounds.height <= 0
+					|| !bounds.intersects(x, y, width, height))
+				continue;
+			boolean clip = label.extent.x > bounds.width
+					|| label.extent.y > bounds.height;
+			if (clip) {
+				gc.setClipping(bounds);
+			}
+			gc.drawText(label.text, bounds.x, bounds.y, TEXT_FLAGS);
+			if (clip) {
+				gc.setClipping((Rectangle) null);
+			}
+		}
+	}
+
+	private void redraw(Rectangle bounds) {
+		if (bounds != null && !composite.isDisposed()) {
+			composite.redraw(bounds.x, bounds.y, bounds.width, bounds.height,
+					false);
+		}
+	}
+
+	// Helper Classes *******************************************************
+
+	/**
+	 * A label painted by its container.
+	 */
+	public final class PaintedLabel implements VirtualCell {
+
+		private String text;
+
+		/**
+		 * Holds the text extent, <code>null</code> if it has to be measured.
+		 */
+		private Point extent;
+
+		/**
+		 * Holds the bounds set by the layout, <code>null</code> if not laid
+		 * out yet.
+		 */
+		private Rectangle bounds;
+
+		private PaintedLabel(String textWithMnemonic) {
+			this.text = textWithMnemonic == null ? "" : textWithMnemonic;
+		}
+
+		/**
+		 * Returns this label's text.
+		 * 
+		 * @return the text including the mnemonic marker
+		 */
+		public String getText() {
+			return text;
+		}
+
+		/**
+		 * Sets this label's text and repaints it. The container must be laid
+		 * out again if the text's extent changes.
+		 * 
+		 * @param textWithMnemonic
+		 *            the text - may contain a mnemonic marker
+		 */
+		public void setText(String textWithMnemonic) {
+			text = textWithMnemonic == null ? "" : textWithMnemonic;
+			extent = null;
+			unmeasured = true;
+			redraw(bounds);
+		}
+
+		/**
+		 * Removes this label from its container and from the container's
+		 * <code>FormLayout</code>.
+		 */
+		public void remove() {
+			if (!labels.remove(this))
+				return;
+			if (!composite.isDisposed()
+					&& composite.getLayout() instanceof FormLayout) {
+				((FormLayout) composite.getLayout()).removeVirtualCell(this);
+			}
+			redraw(bounds);
+		}
+
+		public Point computeSize(int wHint, int hHint) {
+			measure();
+			// Removed labels are not measured.
+			Point size = extent != null ? extent : new Point(0, 0);
+			return new Point(wHint != SWT.DEFAULT ? wHint : size.x,
+					hHint != SWT.DEFAULT ? hHint : size.y);
+		}
+
+		public void setBounds(int x, int y, int width, int height) {
+			if (bounds != null && bounds.x == x && bounds.y == y
+					&& bounds.width == width && bounds.height == height)
+				return;
+			redraw(bounds);
+			bounds = new Rectangle(x, y, width, height);
+			redraw(bounds);
+		}
+	}
+
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.factories;
+
+import javax.swing.SwingConstants;
+
+import net.ffxml.swtforms.util.FontRegistry;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.PaintEvent;
+import org.eclipse.swt.events.PaintListener;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Canvas;
+import org.eclipse.swt.widgets.Composite;
+
+/**
+ * A titled separator that paints its title and an etched rule on a single
+ * <code>Canvas</code>. Uses one native widget and no nested layout, whereas
+ * {@link DefaultComponentFactory#createSeparator(Composite, String, int)}
+ * creates a composite with a title label and a separator label. The title is
+ * painted in the title color with a bold font shared by the Display's
+ * {@link FontRegistry}; its extent is measured once and cached.
+ * <p>
+ * 
+ * The title may contain a mnemonic marker, see {@link ComponentFactory}.
+ * 
+ * @author Florian Fankhauser
+ * @see PaintedSeparatorFactory
+ */
+public final class PaintedSeparator extends Canvas {
+
+	/**
+	 * The vertical margin; matches the nested <code>GridLayout</code> of the
+	 * default separator.
+	 */
+	private static final int MARGIN_HEIGHT = 5;
+
+	/**
+	 * The gap between title and rule; matches the nested
+	 * <code>GridLayout</code> of the default separator.
+	 */
+	private static final int SPACING = 5;
+
+	/**
+	 * The height of the etched rule.
+	 */
+	private static final int RULE_HEIGHT = 2;
+
+	private static final int TEXT_FLAGS = SWT.DRAW_MNEMONIC
+			| SWT.DRAW_TRANSPARENT;
+
+	private String text;
+
+	private final int alignment;
+
+	/**
+	 * Holds the extent of the title, <code>null</code> if it has to be
+	 * measured.
+	 */
+	private Point textExtent;
+
+	// Instance Creation ****************************************************
+
+	/**
+	 * Constructs a PaintedSeparator with the given title and alignment.
+	 * 
+	 * @param parent
+	 *            the parent composite
+	 * @param textWithMnemonic
+	 *            the title - may contain an ampersand (<tt>&amp;</tt>) to
+	 *            mark a mnemonic
+	 * @param alignment
+	 *            text alignment, one of <code>SwingConstants.LEFT</code>,
+	 *            <code>SwingConstants.CENTER</code>,
+	 *            <code>SwingConstants.RIGHT</code>
+	 * @throws IllegalArgumentException
+	 *             if the alignment is invalid
+	 */
+	public PaintedSeparator(Composite parent, String textWithMnemonic,
+			int alignment) {
+		super(parent, SWT.NO_FOCUS | SWT.DOUBLE_BUFFERED);
+		if (alignment != SwingConstants.LEFT
+				&& alignment != SwingConstants.CENTER
+				&& alignment != SwingConstants.RIGHT)
+			throw new IllegalArgumentException("Invalid alignment "
+					+ alignment + ".");
+		this.text = textWithMnemonic == null ? "" : textWithMnemonic;
+		this.alignment = alignment;
+		FontRegistry.getInstance(getDisplay()).setFont(this, SWT.BOLD);
+		addPaintListener(new PaintListener() {
+			public void paintControl(PaintEvent e) {
+				paint(e.gc);
+			}
+		});
+	}
+
+	// Accessors ************************************************************
+
+	/**
+	 * Returns the title.
+	 * 
+	 * @return the title including the mnemonic marker
+	 */
+	public String getText() {
+		checkWidget();
+		return text;
+	}
+
+	/**
+	 * Sets the title and repaints.
+	 * 
+	 * @param textWithMnemonic
+	 *            the title - may contain a mnemonic marker
+	 */
+	public void setText(String textWithMnemonic) {
+		checkWidget();
+		text = textWithMnemonic == null ? "" : textWithMnemonic;
+		textExtent = null;
+		redraw();
+	}
+
+	/**
+	 * Sets the font and discards the cached title extent.
+	 * 
+	 * @param font
+	 *            the font to be set
+	 */
+	public void setFont(Font font) {
+		super.setFont(font);
+		textExtent = null;
+	}
+
+	// Sizing and Painting **************************************************
+
+	public Point computeSize(int wHint, int hHint, boolean changed) {
+		checkWidget();
+		if (changed)
+			textExtent = null;
+		Point extent = getTextExtent();
+		int width = wHint != SWT.DEFAULT ? wHint : extent.x
+				+ (extent.x > 0 ? SPACING : 0) + RULE_HEIGHT;
+		int height = hHint != SWT.DEFAULT ? hHint : Math.max(extent.y,
+				RULE_HEIGHT)
+				+ 2 * MARGIN_HEIGHT;
+		return new Point(width, height);
+	}
+
+	/**
+	 * Lazily measures and returns the extent of the title.
+	 */
+	private Point getTextExtent() {
+		if (textExtent == null) {
+			GC gc = new GC(this);
+			try {
+				gc.setFont(getFont());
+				textExtent = gc.textExtent(text, TEXT_FLAGS);
+				textExtent.y = Math.max(textExtent.y, gc.getFontMetrics()
+						.getHeight());
+			} finally {
+				gc.dispose();
+			}
+		}
+		return textExtent;
+	}
+
+	private void paint(GC gc) {
+		Rectangle area = getClientArea();
+		Point extent = getTextExtent();
+		int textWidth = Math.min(extent.x, area.width);
+		int textX;
+		if (alignment == SwingConstants.LEFT) {
+			textX = 0;
+		} else if (alignment == SwingConstants.RIGHT) {
+			textX = area.width - textWidth;
+		} else {
+			textX = (area.width - textWidth) / 2;
+		}
+		int textY = (area.height - extent.y) / 2;
+		if (textWidth > 0) {
+			gc.setFont(getFont());
+			gc.setForeground(getDisplay().getSystemColor(
+					SWT.COLOR_TITLE_BACKGROUND));
+			gc.drawText(text, textX, textY, TEXT_FLAGS);
+		}
+		int ruleY = textY + (extent.y - RULE_HEIGHT) / 2;
+		int gap = textWidth > 0 ? SPACING : 0;
+		paintRule(gc, 0, textX - gap, ruleY);
+		paintRule(gc, textX + textWidth + gap, area.width, ruleY);
+	}
+
+	private void paintRule(GC gc, int x1, int x2, int y) {
+		if (x2 <= x1)
+			return;
+		gc.setForeground(getDisplay().getSystemColor(
+				SWT.COLOR_WIDGET_NORMAL_SHADOW));
+		gc.drawLine(x1, y, x2 - 1, y);
+		gc.setForeground(getDisplay().getSystemColor(
+				SWT.COLOR_WIDGET_HIGHLIGHT_SHADOW));
+		gc.drawLine(x1, y + 1, x2 - 1, y + 1);
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.factories;
+
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Label;
+
+/**
+ * A {@link ComponentFactory} that creates lightweight
+ * {@link PaintedSeparator}s and delegates the creation of labels and titles
+ * to the {@link DefaultComponentFactory}. Set it as default factory to make
+ * all builders that have no factory of their own create painted separators:
+ * 
+ * <pre>
+ * PanelBuilder.setDefaultComponentFactory(PaintedSeparatorFactory.getInstance());
+ * </pre>
+ * 
+ * @author Florian Fankhauser
+ * @see net.ffxml.swtforms.builder.PanelBuilder#setComponentFactory(ComponentFactory)
+ */
+public final class PaintedSeparatorFactory implements ComponentFactory {
+
+	/**
+	 * Holds the single instance of this class.
+	 */
+	private static final PaintedSeparatorFactory INSTANCE = new PaintedSeparatorFactory();
+
+	// Instance *************************************************************
+
+	private PaintedSeparatorFactory() {
+		// Suppresses default constructor, ensuring non-instantiability.
+	}
+
+	/**
+	 * Returns the sole instance of this factory class.
+	 * 
+	 * @return the sole instance of this factory class
+	 */
+	public static PaintedSeparatorFactory getInstance() {
+		return INSTANCE;
+	}
+
+	// Component Creation ***************************************************
+
+	public Label createLabel(Composite parent, String textWithMnemonic) {
+		return DefaultComponentFactory.getInstance().createLabel(parent,
+				textWithMnemonic);
+	}
+
+	public Label createTitle(Composite parent, String textWithMnemonic) {
+		return DefaultComponentFactory.getInstance().createTitle(parent,
+				textWithMnemonic);
+	}
+
+	/**
+	 * Creates and returns a {@link PaintedSeparator}.
+	 * 
+	 * @param textWithMnemonic
+	 *            the separator's title - may contain an ampersand (<tt>&amp;</tt>)
+	 *            to mark a mnemonic
+	 * @param alignment
+	 *            text alignment, one of <code>SwingConstants.LEFT</code>,
+	 *            <code>SwingConstants.CENTER</code>,
+	 *            <code>SwingConstants.RIGHT</code>
+	 * @return a painted separator
+	 */
+	public Control createSeparator(Composite parent, String textWithMnemonic,
+			int alignment) {
+		return new PaintedSeparator(parent, textWithMnemonic, alignment);
+	}
+
+}
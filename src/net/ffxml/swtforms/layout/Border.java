@@ -30,8 +30,16 @@
 
 package net.ffxml.swtforms.layout;
 
+import org.eclipse.swt.widgets.Control;
+
 /**
  * Defines the border around the layout area.
+ * <p>
+ * 
+ * A border created from constant sizes keeps the sizes and converts them for
+ * the layout container each time it is laid out, so that dialog units and
+ * physical units honor the container's font and monitor resolution. Its
+ * public pixel fields hold the sizes converted without a control.
  * 
  * @author Florian Fankhauser
  * 
@@ -62,6 +70,76 @@ public class Border {
 		this.right = right;
 	}
 
+	/**
+	 * Class constructor specifying top, left, bottom and right border as
+	 * constant sizes, which are converted for the layout container.
+	 * 
+	 * @param top
+	 *            the top border
+	 * @param left
+	 *            the left border
+	 * @param bottom
+	 *            the bottom border
+	 * @param right
+	 *            the right border
+	 * @throws NullPointerException
+	 *             if a size is <code>null</code>
+	 */
+	public Border(ConstantSize top, ConstantSize left, ConstantSize bottom,
+			ConstantSize right) {
+		this(top.getPixelSize(null), left.getPixelSize(null), bottom
+				.getPixelSize(null), right.getPixelSize(null));
+		this.topSize = top;
+		this.leftSize = left;
+		this.bottomSize = bottom;
+		this.rightSize = right;
+	}
+
+	/**
+	 * Returns a border in pixels for the given layout container. Converts the
+	 * constant sizes, if any, for the container's font and monitor; otherwise
+	 * returns this border.
+	 * <p>
+	 * 
+	 * The constant sizes cache their pixel sizes per conversion epoch, and
+	 * the pixel border is reused as long as they convert to the same pixels,
+	 * so that laying out a container does not allocate a border each time.
+	 * Hence the returned border must not be modified.
+	 * 
+	 * @param control
+	 *            the layout container
+	 * @return a border in pixels for the given container
+	 */
+	public Border toPixels(Control control) {
+		if (topSize == null)
+			return this;
+		int topPixels = topSize.getPixelSize(control);
+		int leftPixels = leftSize.getPixelSize(control);
+		int bottomPixels = bottomSize.getPixelSize(control);
+		int rightPixels = rightSize.getPixelSize(control);
+		Border cached = cachedPixelBorder;
+		if (cached != null && cached.top == topPixels
+				&& cached.left == leftPixels && cached.bottom == bottomPixels
+				&& cached.right == rightPixels)
+			return cached;
+		cached = new Border(topPixels, leftPixels, bottomPixels, rightPixels);
+		cachedPixelBorder = cached;
+		return cached;
+	}
+
+	/**
+	 * The optional constant sizes this border has been created from.
+	 */
+	private ConstantSize topSize;
+	private ConstantSize leftSize;
+	private ConstantSize bottomSize;
+	private ConstantSize rightSize;
+
+	/**
+	 * The most recent border returned by {@link #toPixels(Control)}.
+	 */
+	private volatile Border cachedPixelBorder;
+
 	/**
 	 * The top border in pixel.
 	 */
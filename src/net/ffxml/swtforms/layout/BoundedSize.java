@@ -89,6 +89,35 @@ final class BoundedSize implements Size, Serializable {
 		this.upperBound = upperBound;
 	}
 
+	// Accessors ************************************************************
+
+	/**
+	 * Returns the base size.
+	 * 
+	 * @return the base size
+	 */
+	Size getBasis() {
+		return basis;
+	}
+
+	/**
+	 * Returns the optional lower bound.
+	 * 
+	 * @return the lower bound or <code>null</code>
+	 */
+	Size getLowerBound() {
+		return lowerBound;
+	}
+
+	/**
+	 * Returns the optional upper bound.
+	 * 
+	 * @return the upper bound or <code>null</code>
+	 */
+	Size getUpperBound() {
+		return upperBound;
+	}
+
 	// Implementation of the Size Interface *********************************
 
 	/**
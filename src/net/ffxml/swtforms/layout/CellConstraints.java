@@ -868,7 +868,7 @@ public final class CellConstraints implements Cloneable, Serializable {
 	 * Sets the component's bounds using the given component and cell bounds.
 	 * 
 	 * @param c
-	 *            the component to set bounds
+	 *            the component or {@link VirtualCell} to set bounds
 	 * @param layout
 	 *            the FormLayout instance that computes the bounds
 	 * @param cellBounds
@@ -882,7 +882,7 @@ public final class CellConstraints implements Cloneable, Serializable {
 	 * @param prefHeightMeasure
 	 *            measures the preferred height
 	 */
-	void setBounds(Control c, FormLayout layout, Rectangle cellBounds,
+	void setBounds(Object c, FormLayout layout, Rectangle cellBounds,
 			FormLayout.Measure minWidthMeasure,
 			FormLayout.Measure minHeightMeasure,
 			FormLayout.Measure prefWidthMeasure,
@@ -908,7 +908,11 @@ public final class CellConstraints implements Cloneable, Serializable {
 		int y = origin(concreteVAlign, cellY, cellH, compH);
 		int w = extent(concreteHAlign, cellW, compW);
 		int h = extent(concreteVAlign, cellH, compH);
-		c.setBounds(x, y, w, h);
+		if (c instanceof VirtualCell) {
+			((VirtualCell) c).setBounds(x, y, w, h);
+		} else {
+			((Control) c).setBounds(x, y, w, h);
+		}
 	}
 
 	/**
@@ -987,7 +991,7 @@ public final class CellConstraints implements Cloneable, Serializable {
 	 *            the cell size
 	 * @return the component size as measured or a constant
 	 */
-	private int componentSize(Control component, FormSpec formSpec,
+	private int componentSize(Object component, FormSpec formSpec,
 			int cellSize, FormLayout.Measure minMeasure,
 			FormLayout.Measure prefMeasure) {
 		if (formSpec == null) {
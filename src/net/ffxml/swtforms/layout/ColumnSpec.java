@@ -30,8 +30,6 @@
 
 package net.ffxml.swtforms.layout;
 
-import java.util.StringTokenizer;
-
 /**
  * Specifies columns in FormLayout by their default orientation, start size and
  * resizing behavior.
@@ -160,7 +158,9 @@ public final class ColumnSpec extends FormSpec {
 
 	/**
 	 * Parses and splits encoded column specifications and returns an array of
-	 * ColumnSpec objects.
+	 * ColumnSpec objects. The specifications may refer to the variables of the
+	 * root {@link LayoutMap} and may repeat specs, for example
+	 * <code>"3*(p, $rgap), p"</code>. Decoded specifications are cached.
 	 * 
 	 * @param encodedColumnSpecs
 	 *            comma separated encoded column specifications
@@ -170,20 +170,33 @@ public final class ColumnSpec extends FormSpec {
 	 *             <code>null</code>
 	 * 
 	 * @see ColumnSpec#ColumnSpec(String)
+	 * @see LayoutMap#getRoot()
 	 */
 	public static ColumnSpec[] decodeSpecs(String encodedColumnSpecs) {
-		if (encodedColumnSpecs == null)
-			throw new NullPointerException(
-					"The column specification must not be null.");
-
-		StringTokenizer tokenizer = new StringTokenizer(encodedColumnSpecs,
-				", ");
-		int columnCount = tokenizer.countTokens();
-		ColumnSpec[] columnSpecs = new ColumnSpec[columnCount];
-		for (int i = 0; i < columnCount; i++) {
-			columnSpecs[i] = new ColumnSpec(tokenizer.nextToken());
-		}
-		return columnSpecs;
+		return decodeSpecs(encodedColumnSpecs, LayoutMap.getRoot());
+	}
+
+	/**
+	 * Parses and splits encoded column specifications using the given
+	 * {@link LayoutMap} to expand variables, and returns an array of ColumnSpec
+	 * objects.
+	 * 
+	 * @param encodedColumnSpecs
+	 *            comma separated encoded column specifications
+	 * @param layoutMap
+	 *            expands variables and caches the decoded specifications
+	 * @return an array of decoded column specifications
+	 * @throws NullPointerException
+	 *             if the encoded column specifications string or the layout
+	 *             map is <code>null</code>
+	 * 
+	 * @see ColumnSpec#ColumnSpec(String)
+	 */
+	public static ColumnSpec[] decodeSpecs(String encodedColumnSpecs,
+			LayoutMap layoutMap) {
+		if (layoutMap == null)
+			throw new NullPointerException("The layout map must not be null.");
+		return layoutMap.decodeColumnSpecs(encodedColumnSpecs);
 	}
 
 }
@@ -34,6 +34,9 @@ import java.io.Serializable;
 import java.util.List;
 import java.util.Locale;
 
+import net.ffxml.swtforms.util.DisplayContext;
+import net.ffxml.swtforms.util.UnitConverter;
+
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 
@@ -127,11 +130,26 @@ public final class ConstantSize implements Size, Serializable {
 	private static final Unit[] VALUES = { PIXEL, POINT, DIALOG_UNITS_X,
 			DIALOG_UNITS_Y, MILLIMETER, CENTIMETER, INCH };
 
+	/**
+	 * The number of pixel sizes an instance remembers. Shared constants, for
+	 * example the ones of the layout style, are converted for a few fonts or
+	 * monitors at a time.
+	 */
+	private static final int MAX_CACHED_PIXEL_SIZES = 4;
+
 	// Fields ***************************************************************
 
 	private final double value;
 	private final Unit unit;
 
+	/**
+	 * Holds the most recently computed pixel sizes, the most recent first,
+	 * together with the conversion epoch, unit converter and dialog base
+	 * units or resolution they have been computed for. Replaced as a whole,
+	 * never modified.
+	 */
+	private transient volatile PixelSize[] cachedPixelSizes;
+
 	// Instance Creation ****************************************************
 
 	/**
@@ -214,24 +232,112 @@ public final class ConstantSize implements Size, Serializable {
 
 	// Accessing the Value **************************************************
 
+	/**
+	 * Returns this size's value interpreted in this size's unit.
+	 * 
+	 * @return this size's value
+	 */
+	public double getValue() {
+		return value;
+	}
+
+	/**
+	 * Returns this size's unit.
+	 * 
+	 * @return this size's unit
+	 */
+	public Unit getUnit() {
+		return unit;
+	}
+
 	/**
 	 * Converts the size if necessary and returns the value in pixels.
+	 * <p>
+	 * 
+	 * The result is cached per conversion epoch and unit converter and, for
+	 * dialog units, per dialog base units, for other units per resolution of
+	 * the control's monitor. Up to four such results are kept, so a constant
+	 * that is shared by containers with a few different fonts or monitors
+	 * is converted once for each of them. Beyond that the least recently
+	 * computed result is dropped. Sizes converted by a converter that is not
+	 * an <code>AbstractUnitConverter</code> are not cached.
 	 * 
 	 * @param control
 	 *            the associated control
 	 * @return the size in pixels
+	 * @see Sizes#invalidateConversions()
 	 */
 	public int getPixelSize(Control component) {
 		if (unit == PIXEL)
 			return intValue();
-		else if (unit == POINT)
-			return Sizes.pointAsPixel(intValue());
+		DisplayContext.ConversionKey conversion = Sizes
+				.getConversionKey(component);
+		boolean dialogUnits = unit == DIALOG_UNITS_X
+				|| unit == DIALOG_UNITS_Y;
+		Object key = dialogUnits ? conversion.getDialogBaseUnitsKey() : null;
+		int resolution = dialogUnits ? 0 : conversion.getResolution();
+		boolean cacheable = dialogUnits ? key != null : resolution != -1;
+		if (!cacheable)
+			return convertToPixels(component);
+		PixelSize[] cached = cachedPixelSizes;
+		if (cached != null) {
+			for (int i = 0; i < cached.length; i++) {
+				if (cached[i].matches(conversion, key, resolution))
+					return cached[i].pixels;
+			}
+		}
+
+		int pixels = convertToPixels(component);
+		cachePixelSize(cached, new PixelSize(conversion, key, resolution,
+				pixels));
+		return pixels;
+	}
+
+	/**
+	 * Replaces the cached pixel sizes with the given size followed by the
+	 * cached sizes of the same epoch, at most
+	 * {@link #MAX_CACHED_PIXEL_SIZES} in total.
+	 * 
+	 * @param cached
+	 *            the cached sizes, may be <code>null</code>
+	 * @param pixelSize
+	 *            the computed size
+	 */
+	private void cachePixelSize(PixelSize[] cached, PixelSize pixelSize) {
+		PixelSize[] sizes = new PixelSize[MAX_CACHED_PIXEL_SIZES];
+		int count = 0;
+		sizes[count++] = pixelSize;
+		if (cached != null) {
+			for (int i = 0; i < cached.length
+					&& count < MAX_CACHED_PIXEL_SIZES; i++) {
+				if (cached[i].epoch == pixelSize.epoch)
+					sizes[count++] = cached[i];
+			}
+		}
+		if (count < MAX_CACHED_PIXEL_SIZES) {
+			PixelSize[] trimmed = new PixelSize[count];
+			System.arraycopy(sizes, 0, trimmed, 0, count);
+			sizes = trimmed;
+		}
+		cachedPixelSizes = sizes;
+	}
+
+	/**
+	 * Converts this size to pixels using the current unit converter.
+	 * 
+	 * @param component
+	 *            the associated control
+	 * @return the size in pixels
+	 */
+	private int convertToPixels(Control component) {
+		if (unit == POINT)
+			return Sizes.pointAsPixel(intValue(), component);
 		else if (unit == INCH)
-			return Sizes.inchAsPixel(value);
+			return Sizes.inchAsPixel(value, component);
 		else if (unit == MILLIMETER)
-			return Sizes.millimeterAsPixel(value);
+			return Sizes.millimeterAsPixel(value, component);
 		else if (unit == CENTIMETER)
-			return Sizes.centimeterAsPixel(value);
+			return Sizes.centimeterAsPixel(value, component);
 		else if (unit == DIALOG_UNITS_X)
 			return Sizes.dialogUnitXAsPixel(intValue(), component);
 		else if (unit == DIALOG_UNITS_Y)
@@ -344,7 +450,37 @@ public final class ConstantSize implements Size, Serializable {
 		return result;
 	}
 
-	// Helper Class *********************************************************
+	// Helper Classes *******************************************************
+
+	/**
+	 * An immutable pixel size computed in a conversion epoch by a unit
+	 * converter for a dialog base units key or resolution. Immutable so that
+	 * it can be replaced atomically.
+	 */
+	private static final class PixelSize {
+
+		final int epoch;
+		final UnitConverter converter;
+		final Object key;
+		final int resolution;
+		final int pixels;
+
+		PixelSize(DisplayContext.ConversionKey conversion, Object key,
+				int resolution, int pixels) {
+			this.epoch = conversion.getEpoch();
+			this.converter = conversion.getUnitConverter();
+			this.key = key;
+			this.resolution = resolution;
+			this.pixels = pixels;
+		}
+
+		boolean matches(DisplayContext.ConversionKey conversion, Object key,
+				int resolution) {
+			return epoch == conversion.getEpoch()
+					&& converter == conversion.getUnitConverter()
+					&& this.key == key && this.resolution == resolution;
+		}
+	}
 
 	/**
 	 * An ordinal-based serializable typesafe enumeration for units as used in
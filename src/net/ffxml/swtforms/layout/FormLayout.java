@@ -41,6 +41,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
+import net.ffxml.swtforms.util.NanoClock;
+
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
@@ -205,14 +207,77 @@ public final class FormLayout extends Layout implements Serializable {
 	private int[][] rowGroupIndices;
 
 	/**
-	 * Maps components to their associated <code>CellConstraints</code>.
+	 * Maps components and virtual cells to their associated
+	 * <code>CellConstraints</code>.
 	 * 
 	 * @see CellConstraints
+	 * @see VirtualCell
 	 * @see #getConstraints(Control)
 	 * @see #setConstraints(Control, CellConstraints)
 	 */
 	private final Map constraintMap;
 
+	/**
+	 * Indicates whether the validation of constraints and groups is deferred
+	 * until {@link #setValidationDeferred(boolean)} turns it off.
+	 */
+	private boolean validationDeferred;
+
+	/**
+	 * Refers to the model that solves the column widths of this layout
+	 * together with other layouts, or <code>null</code> if this layout
+	 * solves its columns on its own.
+	 * 
+	 * @see #setSharedColumnModel(SharedColumnModel)
+	 */
+	private transient SharedColumnModel sharedColumnModel;
+
+	/**
+	 * Holds the grid origins computed by the most recent layout, or
+	 * <code>null</code> if the container has not been laid out yet.
+	 * 
+	 * @see #getLastLayoutInfo()
+	 */
+	private transient LayoutInfo lastLayoutInfo;
+
+	/**
+	 * Counts the layouts performed; changes whenever the last layout info
+	 * changes.
+	 * 
+	 * @see #getLayoutStamp()
+	 */
+	private transient int layoutStamp;
+
+	/**
+	 * Holds the performance data collected while profiling is enabled, or
+	 * <code>null</code> if profiling is disabled.
+	 * 
+	 * @see #setProfilingEnabled(boolean)
+	 */
+	private transient LayoutProfile profile;
+
+	/**
+	 * Refers to the instrumentation this layout reports its passes to, or
+	 * <code>null</code> to report to the default instrumentation.
+	 * 
+	 * @see #setInstrumentation(LayoutInstrumentation)
+	 */
+	private transient LayoutInstrumentation instrumentation;
+
+	/**
+	 * Holds the metrics of the current pass, or <code>null</code> if no pass
+	 * is running or the pass is not instrumented.
+	 */
+	private transient LayoutPassMetrics metrics;
+
+	/**
+	 * Refers to the instrumentation used by all layouts that have no
+	 * instrumentation of their own.
+	 * 
+	 * @see #setDefaultInstrumentation(LayoutInstrumentation)
+	 */
+	private static LayoutInstrumentation defaultInstrumentation = LayoutInstrumentation.NONE;
+
 	// Fields used by the Layout Algorithm **********************************
 
 	/**
@@ -335,6 +400,36 @@ public final class FormLayout extends Layout implements Serializable {
 				.decodeSpecs(encodedRowSpecs));
 	}
 
+	/**
+	 * Constructs a FormLayout using the given encoded column and row
+	 * specifications and the given {@link LayoutMap} to expand layout
+	 * variables.
+	 * <p>
+	 * 
+	 * <strong>Examples:</strong>
+	 * 
+	 * <pre>
+	 * FormLayout layout = new FormLayout(&quot;$dm, r:p, $lcgap, 50dlu, $dm&quot;,
+	 * 		&quot;$dm, 3*(p, $lgap), p, $dm&quot;, layoutMap);
+	 * </pre>
+	 * 
+	 * @param encodedColumnSpecs
+	 *            comma separated encoded column specifications
+	 * @param encodedRowSpecs
+	 *            comma separated encoded row specifications
+	 * @param layoutMap
+	 *            expands layout variables and caches the decoded specs
+	 * @throws NullPointerException
+	 *             if encodedColumnSpecs, encodedRowSpecs or layoutMap is
+	 *             <code>null</code>
+	 * @see LayoutMap
+	 */
+	public FormLayout(String encodedColumnSpecs, String encodedRowSpecs,
+			LayoutMap layoutMap) {
+		this(ColumnSpec.decodeSpecs(encodedColumnSpecs, layoutMap), RowSpec
+				.decodeSpecs(encodedRowSpecs, layoutMap));
+	}
+
 	/**
 	 * Constructs a FormLayout using the given column and row specifications.
 	 * 
@@ -565,6 +660,25 @@ public final class FormLayout extends Layout implements Serializable {
 		rowSpecs.add(rowSpec);
 	}
 
+	/**
+	 * Appends the given row specifications to the bottom of all rows in one
+	 * operation.
+	 * 
+	 * @param newRowSpecs
+	 *            the row specifications to be added to the form layout
+	 * @throws NullPointerException
+	 *             if the array or one of its row specs is null
+	 */
+	public void appendRows(RowSpec[] newRowSpecs) {
+		for (int i = 0; i < newRowSpecs.length; i++) {
+			if (newRowSpecs[i] == null)
+				throw new NullPointerException("The row spec must not be null.");
+		}
+		((ArrayList) rowSpecs).ensureCapacity(rowSpecs.size()
+				+ newRowSpecs.length);
+		rowSpecs.addAll(Arrays.asList(newRowSpecs));
+	}
+
 	/**
 	 * Inserts the specified column at the specified position. Shifts components
 	 * that intersect the new column to the right and readjusts column groups.
@@ -739,6 +853,16 @@ public final class FormLayout extends Layout implements Serializable {
 
 	// Accessing Constraints ************************************************
 
+	/**
+	 * Returns the number of components and virtual cells that have
+	 * constraints in this layout.
+	 * 
+	 * @return the number of constrained components and cells
+	 */
+	public int getConstraintCount() {
+		return constraintMap.size();
+	}
+
 	/**
 	 * Looks up and returns the constraints for the specified component. A copy
 	 * of the actual <code>CellConstraints</code> object is returned.
@@ -754,6 +878,28 @@ public final class FormLayout extends Layout implements Serializable {
 		if (component == null)
 			throw new NullPointerException("The component must not be null.");
 
+		return lookupConstraints(component);
+	}
+
+	/**
+	 * Looks up and returns the constraints for the specified virtual cell. A
+	 * copy of the actual <code>CellConstraints</code> object is returned.
+	 * 
+	 * @param cell
+	 *            the virtual cell to be queried
+	 * @return the <code>CellConstraints</code> for the specified cell
+	 * @throws NullPointerException
+	 *             if cell is <code>null</code> or has not been added to the
+	 *             layout
+	 */
+	public CellConstraints getConstraints(VirtualCell cell) {
+		if (cell == null)
+			throw new NullPointerException("The cell must not be null.");
+
+		return lookupConstraints(cell);
+	}
+
+	private CellConstraints lookupConstraints(Object component) {
 		CellConstraints constraints = (CellConstraints) constraintMap
 				.get(component);
 		if (constraints == null)
@@ -774,24 +920,319 @@ public final class FormLayout extends Layout implements Serializable {
 	 *             if the component or constraints object is <code>null</code>
 	 */
 	public void setConstraints(Control component, CellConstraints constraints) {
+		putConstraints(component, constraints);
+	}
+
+	/**
+	 * Sets the constraints for the specified virtual cell in this layout and
+	 * adds the cell to the layout, if it has not been added before.
+	 * 
+	 * @param cell
+	 *            the virtual cell to be modified
+	 * @param constraints
+	 *            the constraints to be applied
+	 * @throws NullPointerException
+	 *             if the cell or constraints object is <code>null</code>
+	 */
+	public void setConstraints(VirtualCell cell, CellConstraints constraints) {
+		putConstraints(cell, constraints);
+	}
+
+	/**
+	 * Removes the specified virtual cell from this layout.
+	 * 
+	 * @param cell
+	 *            the virtual cell to be removed
+	 */
+	public void removeVirtualCell(VirtualCell cell) {
+		removeConstraints(cell);
+	}
+
+	private void putConstraints(Object component, CellConstraints constraints) {
 		if (component == null)
 			throw new NullPointerException("The component must not be null.");
 		if (constraints == null)
 			throw new NullPointerException("The constraints must not be null.");
 
-		constraints.ensureValidGridBounds(getColumnCount(), getRowCount());
+		if (!validationDeferred) {
+			constraints.ensureValidGridBounds(getColumnCount(), getRowCount());
+		}
 		constraintMap.put(component, constraints.clone());
 	}
 
+	/**
+	 * Adds a component with constraints that have been validated against this
+	 * layout's grid before, for example by a {@link FormTemplate}. Skips the
+	 * grid bounds check but still clones the constraints, because insertions
+	 * and removals of columns and rows shift them.
+	 * 
+	 * @param component
+	 *            the component or virtual cell to be added
+	 * @param constraints
+	 *            the pre-validated constraints
+	 * @return the clone that has been stored for the component
+	 */
+	CellConstraints putValidatedConstraints(Object component,
+			CellConstraints constraints) {
+		CellConstraints clone = (CellConstraints) constraints.clone();
+		constraintMap.put(component, clone);
+		return clone;
+	}
+
+	/**
+	 * Sets column and row groups that have been validated against this
+	 * layout's grid before, for example by a {@link FormTemplate}.
+	 * 
+	 * @param colGroups
+	 *            the pre-validated column groups
+	 * @param rowGroups
+	 *            the pre-validated row groups
+	 */
+	void setValidatedGroups(int[][] colGroups, int[][] rowGroups) {
+		colGroupIndices = deepClone(colGroups);
+		rowGroupIndices = deepClone(rowGroups);
+	}
+
+	// Sharing Column Widths ************************************************
+
+	/**
+	 * Returns the model that solves the column widths of this layout together
+	 * with other layouts.
+	 * 
+	 * @return the shared column model, or <code>null</code> if none
+	 */
+	public SharedColumnModel getSharedColumnModel() {
+		return sharedColumnModel;
+	}
+
+	/**
+	 * Attaches this layout to the given shared column model, so that its
+	 * columns line up with the columns of all other members of the model.
+	 * Detaches this layout from its previous model, if any. All members of a
+	 * model must have the same column specifications and column groups.
+	 * 
+	 * @param model
+	 *            the model to attach to, or <code>null</code> to solve the
+	 *            columns independently again
+	 * @throws IllegalArgumentException
+	 *             if this layout's column count differs from the model's
+	 */
+	public void setSharedColumnModel(SharedColumnModel model) {
+		if (sharedColumnModel == model)
+			return;
+		if (model != null) {
+			model.attach(this);
+		}
+		if (sharedColumnModel != null) {
+			sharedColumnModel.detach(this);
+		}
+		sharedColumnModel = model;
+	}
+
+	// Profiling the Layout *************************************************
+
+	/**
+	 * Returns whether this layout collects performance data.
+	 * 
+	 * @return true if profiling is enabled
+	 * @see #getProfile()
+	 */
+	public boolean isProfilingEnabled() {
+		return profile != null;
+	}
+
+	/**
+	 * Enables or disables the collection of performance data. Enabling
+	 * invalidates the size cache, so that the next layout pass measures all
+	 * components and the profile starts complete. Disabling drops the
+	 * collected data.
+	 * 
+	 * @param b
+	 *            true to enable profiling, false to disable it
+	 * @see #getProfile()
+	 * @see net.ffxml.swtforms.debug.FormDebugUtils#debugPerformance(Composite)
+	 */
+	public void setProfilingEnabled(boolean b) {
+		if (b == isProfilingEnabled())
+			return;
+		profile = b ? new LayoutProfile() : null;
+		componentSizeCache.setProfile(profile);
+		if (b) {
+			invalidateCaches();
+		}
+	}
+
+	/**
+	 * Returns the performance data collected since profiling has been enabled.
+	 * 
+	 * @return the layout profile, or <code>null</code> if profiling is
+	 *         disabled
+	 * @see #setProfilingEnabled(boolean)
+	 */
+	public LayoutProfile getProfile() {
+		return profile;
+	}
+
+	// Instrumenting the Layout *********************************************
+
+	/**
+	 * Returns the instrumentation used by all layouts that have no
+	 * instrumentation of their own.
+	 * 
+	 * @return the default instrumentation, <code>NONE</code> by default
+	 */
+	public static LayoutInstrumentation getDefaultInstrumentation() {
+		return defaultInstrumentation;
+	}
+
+	/**
+	 * Sets the instrumentation used by all layouts that have no
+	 * instrumentation of their own.
+	 * 
+	 * @param newInstrumentation
+	 *            the new default instrumentation
+	 * @throws NullPointerException
+	 *             if the instrumentation is <code>null</code>
+	 */
+	public static void setDefaultInstrumentation(
+			LayoutInstrumentation newInstrumentation) {
+		if (newInstrumentation == null)
+			throw new NullPointerException(
+					"The instrumentation must not be null.");
+		defaultInstrumentation = newInstrumentation;
+	}
+
+	/**
+	 * Returns the instrumentation this layout reports its passes to.
+	 * 
+	 * @return this layout's own instrumentation, or the default
+	 *         instrumentation if it has none
+	 */
+	public LayoutInstrumentation getInstrumentation() {
+		return instrumentation == null ? defaultInstrumentation
+				: instrumentation;
+	}
+
+	/**
+	 * Sets the instrumentation this layout reports its passes to.
+	 * 
+	 * @param newInstrumentation
+	 *            the instrumentation to use, or <code>null</code> to use the
+	 *            default instrumentation
+	 */
+	public void setInstrumentation(LayoutInstrumentation newInstrumentation) {
+		instrumentation = newInstrumentation;
+	}
+
+	/**
+	 * Starts collecting the metrics of a pass, unless this layout uses the
+	 * <code>NONE</code> instrumentation. Returns the metrics of an
+	 * enclosing pass, if any, which must be handed to
+	 * {@link #finishPass(LayoutPassMetrics)}.
+	 */
+	private LayoutPassMetrics startPass(Composite container,
+			LayoutPassMetrics.PassType passType) {
+		LayoutPassMetrics outerMetrics = metrics;
+		if (getInstrumentation() == LayoutInstrumentation.NONE) {
+			setPassMetrics(null);
+		} else {
+			setPassMetrics(new LayoutPassMetrics(this, container, passType));
+		}
+		return outerMetrics;
+	}
+
+	/**
+	 * Reports the metrics of the current pass, if any, and restores the
+	 * metrics of the enclosing pass.
+	 */
+	private void finishPass(LayoutPassMetrics outerMetrics) {
+		LayoutPassMetrics finishedMetrics = metrics;
+		setPassMetrics(outerMetrics);
+		if (finishedMetrics != null) {
+			finishedMetrics.finish();
+			getInstrumentation().passFinished(finishedMetrics);
+		}
+	}
+
+	private void setPassMetrics(LayoutPassMetrics newMetrics) {
+		metrics = newMetrics;
+		componentSizeCache.setMetrics(newMetrics);
+	}
+
+	/**
+	 * Returns the current clock value if the pass is instrumented, 0
+	 * otherwise.
+	 */
+	private long phaseStarted() {
+		return metrics == null ? 0 : NanoClock.nanoTime();
+	}
+
+	/**
+	 * Adds the time since the given start to the given phase if the pass is
+	 * instrumented.
+	 */
+	private void phaseFinished(LayoutPassMetrics.Phase phase, long start) {
+		if (metrics != null) {
+			metrics.addPhaseNanos(phase, NanoClock.nanoTime() - start);
+		}
+	}
+
+	// Deferring Validation *************************************************
+
+	/**
+	 * Returns whether the validation of constraints and groups is deferred.
+	 * 
+	 * @return true if validation is deferred
+	 * @see #setValidationDeferred(boolean)
+	 */
+	public boolean isValidationDeferred() {
+		return validationDeferred;
+	}
+
+	/**
+	 * Defers or performs the validation of constraints and groups. While
+	 * validation is deferred, constraints and groups are accepted without
+	 * checking them against the grid, which may still grow. Turning the
+	 * deferral off validates all constraints and groups at once. Used by
+	 * builders during a build session.
+	 * 
+	 * @param deferred
+	 *            true to defer validation, false to validate now
+	 * @throws IndexOutOfBoundsException
+	 *             if turned off and a constraint or group index is outside
+	 *             the grid
+	 * @throws IllegalArgumentException
+	 *             if turned off and an index is used in multiple groups
+	 * @see net.ffxml.swtforms.builder.AbstractFormBuilder#beginBuild()
+	 */
+	public void setValidationDeferred(boolean deferred) {
+		if (validationDeferred == deferred)
+			return;
+		validationDeferred = deferred;
+		if (deferred)
+			return;
+		int colCount = getColumnCount();
+		int rowCount = getRowCount();
+		for (Iterator i = constraintMap.values().iterator(); i.hasNext();) {
+			((CellConstraints) i.next()).ensureValidGridBounds(colCount,
+					rowCount);
+		}
+		checkGroupIndices(colGroupIndices, colCount, "column", "Column");
+		checkGroupIndices(rowGroupIndices, rowCount, "row", "Row");
+	}
+
 	/**
 	 * Removes the constraints for the specified component in this layout.
 	 * 
 	 * @param component
 	 *            the component to be modified
 	 */
-	private void removeConstraints(Control component) {
+	private void removeConstraints(Object component) {
 		constraintMap.remove(component);
 		componentSizeCache.removeEntry(component);
+		if (profile != null) {
+			profile.removed(component);
+		}
 	}
 
 	// Accessing Column and Row Groups **************************************
@@ -830,23 +1271,9 @@ public final class FormLayout extends Layout implements Serializable {
 	 *             if a column index is used twice
 	 */
 	public void setColumnGroups(int[][] colGroupIndices) {
-		int maxColumn = getColumnCount();
-		boolean[] usedIndices = new boolean[maxColumn + 1];
-		for (int group = 0; group < colGroupIndices.length; group++) {
-			for (int j = 0; j < colGroupIndices[group].length; j++) {
-				int colIndex = colGroupIndices[group][j];
-				if (colIndex < 1 || colIndex > maxColumn) {
-					throw new IndexOutOfBoundsException(
-							"Invalid column group index " + colIndex
-									+ " in group " + (group + 1));
-				}
-				if (usedIndices[colIndex]) {
-					throw new IllegalArgumentException("Column index "
-							+ colIndex
-							+ " must not be used in multiple column groups.");
-				}
-				usedIndices[colIndex] = true;
-			}
+		if (!validationDeferred) {
+			checkGroupIndices(colGroupIndices, getColumnCount(), "column",
+					"Column");
 		}
 		this.colGroupIndices = deepClone(colGroupIndices);
 	}
@@ -859,22 +1286,64 @@ public final class FormLayout extends Layout implements Serializable {
 	 *            the column index to be set grouped
 	 */
 	public void addGroupedColumn(int columnIndex) {
+		addGroupedColumns(new int[] { columnIndex });
+	}
+
+	/**
+	 * Adds the specified column indices to the last column group in one
+	 * operation. In case there are no groups, a new group will be created.
+	 * Unlike repeated calls to {@link #addGroupedColumn(int)} this copies and
+	 * checks the groups only once.
+	 * 
+	 * @param columnIndices
+	 *            the indices of the columns that should be grouped
+	 * @see #addGroupedColumn(int)
+	 */
+	public void addGroupedColumns(int[] columnIndices) {
+		if (columnIndices.length == 0)
+			return;
 		int[][] newColGroups = getColumnGroups();
-		// Create a group if none exists.
 		if (newColGroups.length == 0) {
-			newColGroups = new int[][] { { columnIndex } };
+			newColGroups = new int[][] { (int[]) columnIndices.clone() };
 		} else {
 			int lastGroupIndex = newColGroups.length - 1;
 			int[] lastGroup = newColGroups[lastGroupIndex];
-			int groupSize = lastGroup.length;
-			int[] newLastGroup = new int[groupSize + 1];
-			System.arraycopy(lastGroup, 0, newLastGroup, 0, groupSize);
-			newLastGroup[groupSize] = columnIndex;
+			int[] newLastGroup = new int[lastGroup.length
+					+ columnIndices.length];
+			System.arraycopy(lastGroup, 0, newLastGroup, 0, lastGroup.length);
+			System.arraycopy(columnIndices, 0, newLastGroup, lastGroup.length,
+					columnIndices.length);
 			newColGroups[lastGroupIndex] = newLastGroup;
 		}
 		setColumnGroups(newColGroups);
 	}
 
+	/**
+	 * Adds the specified row indices to the last row group in one operation.
+	 * In case there are no groups, a new group will be created.
+	 * 
+	 * @param rowIndices
+	 *            the indices of the rows that should be grouped
+	 * @see #addGroupedRow(int)
+	 */
+	public void addGroupedRows(int[] rowIndices) {
+		if (rowIndices.length == 0)
+			return;
+		int[][] newRowGroups = getRowGroups();
+		if (newRowGroups.length == 0) {
+			newRowGroups = new int[][] { (int[]) rowIndices.clone() };
+		} else {
+			int lastGroupIndex = newRowGroups.length - 1;
+			int[] lastGroup = newRowGroups[lastGroupIndex];
+			int[] newLastGroup = new int[lastGroup.length + rowIndices.length];
+			System.arraycopy(lastGroup, 0, newLastGroup, 0, lastGroup.length);
+			System.arraycopy(rowIndices, 0, newLastGroup, lastGroup.length,
+					rowIndices.length);
+			newRowGroups[lastGroupIndex] = newLastGroup;
+		}
+		setRowGroups(newRowGroups);
+	}
+
 	/**
 	 * Returns a deep copy of the row groups.
 	 * 
@@ -907,24 +1376,48 @@ public final class FormLayout extends Layout implements Serializable {
 	 *             if an index is outside the grid
 	 */
 	public void setRowGroups(int[][] rowGroupIndices) {
-		int rowCount = getRowCount();
-		boolean[] usedIndices = new boolean[rowCount + 1];
-		for (int i = 0; i < rowGroupIndices.length; i++) {
-			for (int j = 0; j < rowGroupIndices[i].length; j++) {
-				int rowIndex = rowGroupIndices[i][j];
-				if (rowIndex < 1 || rowIndex > rowCount) {
-					throw new IndexOutOfBoundsException(
-							"Invalid row group index " + rowIndex
-									+ " in group " + (i + 1));
+		if (!validationDeferred) {
+			checkGroupIndices(rowGroupIndices, getRowCount(), "row", "Row");
+		}
+		this.rowGroupIndices = deepClone(rowGroupIndices);
+	}
+
+	/**
+	 * Checks that the group indices are inside the grid and that no index is
+	 * used in multiple groups.
+	 * 
+	 * @param groupIndices
+	 *            the column or row groups
+	 * @param count
+	 *            the number of columns or rows
+	 * @param kind
+	 *            "column" or "row"
+	 * @param capitalizedKind
+	 *            "Column" or "Row"
+	 * @throws IndexOutOfBoundsException
+	 *             if an index is outside the grid
+	 * @throws IllegalArgumentException
+	 *             if an index is used in multiple groups
+	 */
+	private static void checkGroupIndices(int[][] groupIndices, int count,
+			String kind, String capitalizedKind) {
+		boolean[] usedIndices = new boolean[count + 1];
+		for (int group = 0; group < groupIndices.length; group++) {
+			for (int j = 0; j < groupIndices[group].length; j++) {
+				int index = groupIndices[group][j];
+				if (index < 1 || index > count) {
+					throw new IndexOutOfBoundsException("Invalid " + kind
+							+ " group index " + index + " in group "
+							+ (group + 1));
 				}
-				if (usedIndices[rowIndex]) {
-					throw new IllegalArgumentException("Row index " + rowIndex
-							+ " must not be used in multiple row groups.");
+				if (usedIndices[index]) {
+					throw new IllegalArgumentException(capitalizedKind
+							+ " index " + index + " must not be used in multiple "
+							+ kind + " groups.");
 				}
-				usedIndices[rowIndex] = true;
+				usedIndices[index] = true;
 			}
 		}
-		this.rowGroupIndices = deepClone(rowGroupIndices);
 	}
 
 	/**
@@ -1105,6 +1598,7 @@ public final class FormLayout extends Layout implements Serializable {
 	 */
 	public void invalidateLayout(Composite target) {
 		invalidateCaches();
+		Sizes.flushConversionKey(target);
 	}
 
 	/**
@@ -1134,20 +1628,35 @@ public final class FormLayout extends Layout implements Serializable {
 	 * @see java.awt.Container#doLayout
 	 */
 	public void layoutContainer(Composite parent) {
-		initializeColAndRowComponentLists();
-		Rectangle size = parent.getClientArea();
-
-		int totalWidth = size.width - getBorder().left - getBorder().right;
-		int totalHeight = size.height - getBorder().top - getBorder().bottom;
-
-		int[] x = computeGridOrigins(parent, totalWidth, getBorder().left
-				+ size.x, colSpecs, colComponents, colGroupIndices,
-				minimumWidthMeasure, preferredWidthMeasure);
-		int[] y = computeGridOrigins(parent, totalHeight, getBorder().top
-				+ size.y, rowSpecs, rowComponents, rowGroupIndices,
-				minimumHeightMeasure, preferredHeightMeasure);
+		LayoutPassMetrics outerMetrics = startPass(parent,
+				LayoutPassMetrics.LAYOUT);
+		try {
+			LayoutProfile currentProfile = profile;
+			long start = currentProfile == null ? 0 : NanoClock.nanoTime();
+			initializeColAndRowComponentLists();
+			Rectangle size = parent.getClientArea();
+			Border pixelBorder = getBorder().toPixels(parent);
+
+			int totalWidth = size.width - pixelBorder.left - pixelBorder.right;
+			int totalHeight = size.height - pixelBorder.top
+					- pixelBorder.bottom;
+
+			int[] x = computeColumnOrigins(parent, totalWidth,
+					pixelBorder.left + size.x);
+			int[] y = computeGridOrigins(parent, totalHeight, pixelBorder.top
+					+ size.y, rowSpecs, rowComponents, rowGroupIndices,
+					minimumHeightMeasure, preferredHeightMeasure);
+
+			if (currentProfile != null) {
+				currentProfile.passFinished(NanoClock.nanoTime() - start);
+			}
 
-		layoutComponents(x, y);
+			layoutComponents(x, y);
+			lastLayoutInfo = new LayoutInfo(x, y);
+			layoutStamp++;
+		} finally {
+			finishPass(outerMetrics);
+		}
 	}
 
 	// Layout Algorithm *****************************************************
@@ -1179,7 +1688,7 @@ public final class FormLayout extends Layout implements Serializable {
 
 		for (Iterator i = constraintMap.entrySet().iterator(); i.hasNext();) {
 			Map.Entry entry = (Map.Entry) i.next();
-			Control component = (Control) entry.getKey();
+			Object component = entry.getKey();
 			// if (!component.isVisible())
 			// continue;
 
@@ -1194,7 +1703,8 @@ public final class FormLayout extends Layout implements Serializable {
 
 	/**
 	 * Computes and returns the layout size of the given <code>parent</code>
-	 * container using the specified measures.
+	 * container using the specified measures, and reports the pass to the
+	 * instrumentation.
 	 * 
 	 * @param parent
 	 *            the container in which to do the layout
@@ -1206,16 +1716,54 @@ public final class FormLayout extends Layout implements Serializable {
 	 */
 	private Point computeLayoutSize(Composite parent,
 			Measure defaultWidthMeasure, Measure defaultHeightMeasure) {
+		LayoutPassMetrics outerMetrics = startPass(parent,
+				LayoutPassMetrics.COMPUTE_SIZE);
+		try {
+			return measureLayoutSize(parent, defaultWidthMeasure,
+					defaultHeightMeasure);
+		} finally {
+			finishPass(outerMetrics);
+		}
+	}
+
+	/**
+	 * Computes and returns the layout size of the given <code>parent</code>
+	 * container using the specified measures.
+	 * 
+	 * @param parent
+	 *            the container in which to do the layout
+	 * @param defaultWidthMeasure
+	 *            the measure used to compute the default width
+	 * @param defaultHeightMeasure
+	 *            the measure used to compute the default height
+	 * @return the layout size of the <code>parent</code> container
+	 */
+	private Point measureLayoutSize(Composite parent,
+			Measure defaultWidthMeasure, Measure defaultHeightMeasure) {
 		// synchronized (parent.getTreeLock())
 		// {
+		if (profile != null) {
+			profile.sizeRequested();
+		}
 		initializeColAndRowComponentLists();
-		int[] colWidths = maximumSizes(parent, colSpecs, colComponents,
-				minimumWidthMeasure, preferredWidthMeasure, defaultWidthMeasure);
+		int[] colWidths;
+		if (sharedColumnModel == null) {
+			colWidths = maximumSizes(parent, colSpecs, colComponents,
+					minimumWidthMeasure, preferredWidthMeasure,
+					defaultWidthMeasure);
+		} else {
+			updateSharedColumnModel(parent);
+			colWidths = defaultWidthMeasure == minimumWidthMeasure ? sharedColumnModel
+					.getMinimumSizes()
+					: sharedColumnModel.getPreferredSizes();
+		}
 		int[] rowHeights = maximumSizes(parent, rowSpecs, rowComponents,
 				minimumHeightMeasure, preferredHeightMeasure,
 				defaultHeightMeasure);
+		long start = phaseStarted();
 		int[] groupedWidths = groupedSizes(colGroupIndices, colWidths);
 		int[] groupedHeights = groupedSizes(rowGroupIndices, rowHeights);
+		phaseFinished(LayoutPassMetrics.GROUP, start);
 
 		// Convert sizes to origins.
 		int[] xOrigins = computeOrigins(groupedWidths, 0);
@@ -1238,7 +1786,7 @@ public final class FormLayout extends Layout implements Serializable {
 
 		for (Iterator i = constraintMap.entrySet().iterator(); i.hasNext();) {
 			Map.Entry entry = (Map.Entry) i.next();
-			Control component = (Control) entry.getKey();
+			Object component = entry.getKey();
 			// if (!component.isVisible())
 			// continue;
 
@@ -1274,8 +1822,9 @@ public final class FormLayout extends Layout implements Serializable {
 			}
 		}
 
-		int width = maxWidth + getBorder().left + getBorder().right;
-		int height = maxHeight + getBorder().top + getBorder().bottom;
+		Border pixelBorder = getBorder().toPixels(parent);
+		int width = maxWidth + pixelBorder.left + pixelBorder.right;
+		int height = maxHeight + pixelBorder.top + pixelBorder.bottom;
 		return new Point(width, height);
 		// }
 	}
@@ -1313,17 +1862,114 @@ public final class FormLayout extends Layout implements Serializable {
 		int[] prefSizes = maximumSizes(container, formSpecs, componentLists,
 				minMeasure, prefMeasure, prefMeasure);
 
+		int[] sizes = solveSizes(totalSize, formSpecs, groupIndices, minSizes,
+				prefSizes);
+		if (profile != null) {
+			profile.tracksSolved(formSpecs == colSpecs, minSizes, prefSizes,
+					sizes);
+		}
+		return computeOrigins(sizes, offset);
+	}
+
+	/**
+	 * Computes and returns the column origins. Uses the column widths solved
+	 * by the shared column model, if any.
+	 * 
+	 * @param container
+	 *            the layout container
+	 * @param totalWidth
+	 *            the total width to assign
+	 * @param offset
+	 *            the offset from the left margin
+	 * @return an int array with the column origins
+	 */
+	private int[] computeColumnOrigins(Composite container, int totalWidth,
+			int offset) {
+		if (sharedColumnModel == null) {
+			return computeGridOrigins(container, totalWidth, offset, colSpecs,
+					colComponents, colGroupIndices, minimumWidthMeasure,
+					preferredWidthMeasure);
+		}
+		updateSharedColumnModel(container);
+		int[] sizes = sharedColumnModel.solve(this, totalWidth);
+		if (profile != null) {
+			profile.tracksSolved(true, sharedColumnModel.getMinimumSizes(),
+					sharedColumnModel.getPreferredSizes(), sizes);
+		}
+		return computeOrigins(sizes, offset);
+	}
+
+	/**
+	 * Hands this layout's column minimum and preferred widths over to the
+	 * shared column model.
+	 * 
+	 * @param container
+	 *            the layout container
+	 */
+	private void updateSharedColumnModel(Composite container) {
+		int[] minSizes = maximumSizes(container, colSpecs, colComponents,
+				minimumWidthMeasure, preferredWidthMeasure, minimumWidthMeasure);
+		int[] prefSizes = maximumSizes(container, colSpecs, colComponents,
+				minimumWidthMeasure, preferredWidthMeasure,
+				preferredWidthMeasure);
+		sharedColumnModel.update(this, container, minSizes, prefSizes);
+	}
+
+	/**
+	 * Solves the column widths for the given total width and the given
+	 * minimum and preferred widths. Used by the shared column model to solve
+	 * the aggregated widths of all its members once.
+	 * 
+	 * @param totalWidth
+	 *            the total width to assign
+	 * @param minSizes
+	 *            the column minimum widths
+	 * @param prefSizes
+	 *            the column preferred widths
+	 * @return the column widths
+	 */
+	int[] solveColumnSizes(int totalWidth, int[] minSizes, int[] prefSizes) {
+		return solveSizes(totalWidth, colSpecs, colGroupIndices, minSizes,
+				prefSizes);
+	}
+
+	/**
+	 * Groups, compresses and distributes the given minimum and preferred
+	 * sizes and returns the column widths or row heights, resp.
+	 * 
+	 * @param totalSize
+	 *            the total size to assign
+	 * @param formSpecs
+	 *            the column or row specs, resp.
+	 * @param groupIndices
+	 *            the group specification
+	 * @param minSizes
+	 *            the column or row minimum sizes
+	 * @param prefSizes
+	 *            the column or row preferred sizes
+	 * @return the column or row sizes
+	 */
+	private int[] solveSizes(int totalSize, List formSpecs,
+			int[][] groupIndices, int[] minSizes, int[] prefSizes) {
+		long start = phaseStarted();
 		int[] groupedMinSizes = groupedSizes(groupIndices, minSizes);
 		int[] groupedPrefSizes = groupedSizes(groupIndices, prefSizes);
+		phaseFinished(LayoutPassMetrics.GROUP, start);
 		int totalMinSize = sum(groupedMinSizes);
 		int totalPrefSize = sum(groupedPrefSizes);
+		start = phaseStarted();
 		int[] compressedSizes = compressedSizes(formSpecs, totalSize,
 				totalMinSize, totalPrefSize, groupedMinSizes, prefSizes);
+		phaseFinished(LayoutPassMetrics.COMPRESS, start);
+		start = phaseStarted();
 		int[] groupedSizes = groupedSizes(groupIndices, compressedSizes);
+		phaseFinished(LayoutPassMetrics.GROUP, start);
 		int totalGroupedSize = sum(groupedSizes);
-		int[] sizes = distributedSizes(formSpecs, totalSize, totalGroupedSize,
-				groupedSizes);
-		return computeOrigins(sizes, offset);
+		start = phaseStarted();
+		int[] sizes = distributedSizes(formSpecs, totalSize,
+				totalGroupedSize, groupedSizes);
+		phaseFinished(LayoutPassMetrics.DISTRIBUTE, start);
+		return sizes;
 	}
 
 	/**
@@ -1364,10 +2010,11 @@ public final class FormLayout extends Layout implements Serializable {
 	 *            an int array of the vertical origins
 	 */
 	private void layoutComponents(int[] x, int[] y) {
+		long start = phaseStarted();
 		Rectangle cellBounds = new Rectangle(0, 0, 0, 0);
 		for (Iterator i = constraintMap.entrySet().iterator(); i.hasNext();) {
 			Map.Entry entry = (Map.Entry) i.next();
-			Control component = (Control) entry.getKey();
+			Object component = entry.getKey();
 			CellConstraints constraints = (CellConstraints) entry.getValue();
 
 			int gridX = constraints.gridX - 1;
@@ -1382,7 +2029,11 @@ public final class FormLayout extends Layout implements Serializable {
 			constraints.setBounds(component, this, cellBounds,
 					minimumWidthMeasure, minimumHeightMeasure,
 					preferredWidthMeasure, preferredHeightMeasure);
+			if (metrics != null && !(component instanceof VirtualCell)) {
+				metrics.setBoundsCalled();
+			}
 		}
+		phaseFinished(LayoutPassMetrics.SET_BOUNDS, start);
 	}
 
 	/**
@@ -1413,6 +2064,7 @@ public final class FormLayout extends Layout implements Serializable {
 	private int[] maximumSizes(Composite container, List formSpecs,
 			List[] componentLists, Measure minMeasure, Measure prefMeasure,
 			Measure defaultMeasure) {
+		long start = phaseStarted();
 		FormSpec formSpec;
 		int size = formSpecs.size();
 		int[] result = new int[size];
@@ -1421,6 +2073,7 @@ public final class FormLayout extends Layout implements Serializable {
 			result[i] = formSpec.maximumSize(container, componentLists[i],
 					minMeasure, prefMeasure, defaultMeasure);
 		}
+		phaseFinished(LayoutPassMetrics.MEASURE, start);
 		return result;
 	}
 
@@ -1651,7 +2304,7 @@ public final class FormLayout extends Layout implements Serializable {
 		 *            the component to measure
 		 * @return the component's size
 		 */
-		int sizeOf(Control component);
+		int sizeOf(Object component);
 	}
 
 	/**
@@ -1683,7 +2336,7 @@ public final class FormLayout extends Layout implements Serializable {
 			super(cache);
 		}
 
-		public int sizeOf(Control c) {
+		public int sizeOf(Object c) {
 			return cache.getMinimumSize(c).x;
 		}
 	}
@@ -1698,7 +2351,7 @@ public final class FormLayout extends Layout implements Serializable {
 			super(cache);
 		}
 
-		public int sizeOf(Control c) {
+		public int sizeOf(Object c) {
 			return cache.getMinimumSize(c).y;
 		}
 	}
@@ -1713,7 +2366,7 @@ public final class FormLayout extends Layout implements Serializable {
 			super(cache);
 		}
 
-		public int sizeOf(Control c) {
+		public int sizeOf(Object c) {
 			return cache.getPreferredSize(c).x;
 		}
 	}
@@ -1728,7 +2381,7 @@ public final class FormLayout extends Layout implements Serializable {
 			super(cache);
 		}
 
-		public int sizeOf(Control c) {
+		public int sizeOf(Object c) {
 			return cache.getPreferredSize(c).y;
 		}
 	}
@@ -1748,6 +2401,12 @@ public final class FormLayout extends Layout implements Serializable {
 		/** Maps components to their preferred sizes. */
 		private final Map preferredSizes;
 
+		/** Records the size computations, if profiling is enabled. */
+		private transient LayoutProfile profile;
+
+		/** Counts cache hits and misses, if the pass is instrumented. */
+		private transient LayoutPassMetrics metrics;
+
 		/**
 		 * Constructs a <code>ComponentSizeCache</code>.
 		 * 
@@ -1776,12 +2435,14 @@ public final class FormLayout extends Layout implements Serializable {
 		 *            the component to compute the minimum size
 		 * @return the component's minimum size
 		 */
-		Point getMinimumSize(Control component) {
+		Point getMinimumSize(Object component) {
 			Point size = (Point) minimumSizes.get(component);
 			if (size == null) {
-				size = component.computeSize(0, 0, true);
+				size = computeSize(component, 0, 0);
 				// getMinimumSize();
 				minimumSizes.put(component, size);
+			} else if (metrics != null) {
+				metrics.cacheHit();
 			}
 			return size;
 		}
@@ -1795,19 +2456,55 @@ public final class FormLayout extends Layout implements Serializable {
 		 *            the component to compute the preferred size
 		 * @return the component's preferred size
 		 */
-		Point getPreferredSize(Control component) {
+		Point getPreferredSize(Object component) {
 			Point size = (Point) preferredSizes.get(component);
 			if (size == null) {
-				size = component.computeSize(SWT.DEFAULT, SWT.DEFAULT, true);
+				size = computeSize(component, SWT.DEFAULT, SWT.DEFAULT);
 				preferredSizes.put(component, size);
+			} else if (metrics != null) {
+				metrics.cacheHit();
 			}
 			return size;
 		}
 
-		void removeEntry(Control component) {
+		void removeEntry(Object component) {
 			minimumSizes.remove(component);
 			preferredSizes.remove(component);
 		}
+
+		void setProfile(LayoutProfile profile) {
+			this.profile = profile;
+		}
+
+		void setMetrics(LayoutPassMetrics metrics) {
+			this.metrics = metrics;
+		}
+
+		/**
+		 * Computes the size of a control or virtual cell and records the
+		 * computation in the profile and pass metrics, if any.
+		 */
+		private Point computeSize(Object component, int wHint, int hHint) {
+			if (metrics != null) {
+				metrics.cacheMissed();
+				if (!(component instanceof VirtualCell)) {
+					metrics.computeSizeCalled();
+				}
+			}
+			if (profile == null)
+				return doComputeSize(component, wHint, hHint);
+			long start = NanoClock.nanoTime();
+			Point size = doComputeSize(component, wHint, hHint);
+			profile.measured(component, NanoClock.nanoTime() - start);
+			return size;
+		}
+
+		private static Point doComputeSize(Object component, int wHint,
+				int hHint) {
+			if (component instanceof VirtualCell)
+				return ((VirtualCell) component).computeSize(wHint, hHint);
+			return ((Control) component).computeSize(wHint, hHint, true);
+		}
 	}
 
 	// Exposing the Layout Information **************************************
@@ -1827,19 +2524,53 @@ public final class FormLayout extends Layout implements Serializable {
 	 * @return an object that comprises the grid x and y origins
 	 */
 	public LayoutInfo getLayoutInfo(Composite parent) {
-		initializeColAndRowComponentLists();
-		Rectangle size = parent.getClientArea();
-
-		int totalWidth = size.width - getBorder().left - getBorder().right;
-		int totalHeight = size.height - getBorder().top - getBorder().bottom;
-
-		int[] x = computeGridOrigins(parent, totalWidth, getBorder().left
-				+ size.x, colSpecs, colComponents, colGroupIndices,
-				minimumWidthMeasure, preferredWidthMeasure);
-		int[] y = computeGridOrigins(parent, totalHeight, getBorder().top
-				+ size.y, rowSpecs, rowComponents, rowGroupIndices,
-				minimumHeightMeasure, preferredHeightMeasure);
-		return new LayoutInfo(x, y);
+		LayoutPassMetrics outerMetrics = startPass(parent,
+				LayoutPassMetrics.LAYOUT_INFO);
+		try {
+			initializeColAndRowComponentLists();
+			Rectangle size = parent.getClientArea();
+			Border pixelBorder = getBorder().toPixels(parent);
+
+			int totalWidth = size.width - pixelBorder.left - pixelBorder.right;
+			int totalHeight = size.height - pixelBorder.top
+					- pixelBorder.bottom;
+
+			int[] x = computeColumnOrigins(parent, totalWidth,
+					pixelBorder.left + size.x);
+			int[] y = computeGridOrigins(parent, totalHeight, pixelBorder.top
+					+ size.y, rowSpecs, rowComponents, rowGroupIndices,
+					minimumHeightMeasure, preferredHeightMeasure);
+			return new LayoutInfo(x, y);
+		} finally {
+			finishPass(outerMetrics);
+		}
+	}
+
+	/**
+	 * Returns the grid origins that the most recent layout of the container
+	 * has computed and used to position the components. Unlike
+	 * {@link #getLayoutInfo(Composite)} this method does not solve the layout
+	 * again, so it is cheap enough to be called in a paint listener. The
+	 * returned object must not be modified.
+	 * 
+	 * @return the origins of the most recent layout, or <code>null</code> if
+	 *         the container has not been laid out yet
+	 * @see #getLayoutStamp()
+	 */
+	public LayoutInfo getLastLayoutInfo() {
+		return lastLayoutInfo;
+	}
+
+	/**
+	 * Returns a stamp that changes whenever the container is laid out, and so
+	 * whenever {@link #getLastLayoutInfo()} may return new origins. Clients
+	 * that derive data from the origins can compare stamps to detect that
+	 * their data is outdated.
+	 * 
+	 * @return the current layout stamp
+	 */
+	public int getLayoutStamp() {
+		return layoutStamp;
 	}
 
 	/**
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.layout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses comma separated lists of encoded column or row specifications that
+ * may contain layout variables and repetitions. Used by the {@link LayoutMap}
+ * that caches the results.
+ * <p>
+ * 
+ * <strong>Syntax:</strong>
+ * 
+ * <pre>
+ * specs      ::= element { (',' | whitespace) element }
+ * element    ::= spec | variable | repetition
+ * variable   ::= '$' name
+ * repetition ::= integer '*' ( '(' specs ')' | element )
+ * </pre>
+ * 
+ * Examples: <code>"p, $lcgap, 50dlu"</code>,
+ * <code>"$dm, 3*(p, $rgap), p, $dm"</code>.
+ * 
+ * @author Florian Fankhauser
+ * @see LayoutMap
+ */
+final class FormSpecParser {
+
+	private FormSpecParser() {
+		// Suppresses default constructor, ensuring non-instantiability.
+	}
+
+	/**
+	 * Parses the encoded specifications and returns the list of decoded
+	 * column or row specs.
+	 * 
+	 * @param encodedSpecs
+	 *            the comma separated encoded specifications
+	 * @param layoutMap
+	 *            resolves layout variables
+	 * @param horizontal
+	 *            true to decode column specs, false for row specs
+	 * @param expansion
+	 *            the state of the current decoding, used to detect circular
+	 *            references and to bind the default variables
+	 * @return the list of decoded column or row specs
+	 * @throws IllegalArgumentException
+	 *             if the encoding is invalid, refers to an unknown variable, or
+	 *             contains a circular variable reference
+	 */
+	static List parse(String encodedSpecs, LayoutMap layoutMap,
+			boolean horizontal, LayoutMap.Expansion expansion) {
+		List specs = new ArrayList();
+		List elements = split(encodedSpecs);
+		for (int i = 0; i < elements.size(); i++) {
+			parseElement((String) elements.get(i), layoutMap, horizontal,
+					expansion, specs);
+		}
+		return specs;
+	}
+
+	// Helper Code **********************************************************
+
+	private static void parseElement(String element, LayoutMap layoutMap,
+			boolean horizontal, LayoutMap.Expansion expansion, List specs) {
+		int starIndex = element.indexOf('*');
+		if (starIndex > 0 && isInteger(element.substring(0, starIndex))) {
+			parseRepetition(element, starIndex, layoutMap, horizontal,
+					expansion, specs);
+		} else if (element.charAt(0) == '$') {
+			String name = element.substring(1).toLowerCase(Locale.ENGLISH);
+			if (expansion.expanding.contains(name))
+				throw new IllegalArgumentException(
+						"Circular reference to the layout variable '$" + name
+								+ "'.");
+			expansion.expanding.add(name);
+			try {
+				layoutMap.expand(name, horizontal, expansion, specs);
+			} finally {
+				expansion.expanding.remove(name);
+			}
+		} else {
+			specs.add(horizontal ? (FormSpec) new ColumnSpec(element)
+					: (FormSpec) new RowSpec(element));
+		}
+	}
+
+	private static void parseRepetition(String element, int starIndex,
+			LayoutMap layoutMap, boolean horizontal,
+			LayoutMap.Expansion expansion, List specs) {
+		int count = Integer.parseInt(element.substring(0, starIndex));
+		if (count <= 0)
+			throw new IllegalArgumentException("The repetition count in '"
+					+ element + "' must be positive.");
+		String repeated = element.substring(starIndex + 1);
+		if (repeated.length() == 0)
+			throw new IllegalArgumentException("The repetition '" + element
+					+ "' lacks the repeated specs.");
+		if (repeated.charAt(0) == '(') {
+			if (repeated.charAt(repeated.length() - 1) != ')')
+				throw new IllegalArgumentException("The repetition '"
+						+ element + "' must end with ')'.");
+			repeated = repeated.substring(1, repeated.length() - 1);
+		}
+		List group = parse(repeated, layoutMap, horizontal, expansion);
+		for (int i = 0; i < count; i++) {
+			specs.addAll(group);
+		}
+	}
+
+	/**
+	 * Splits the encoded specs at top-level commas and whitespace. Commas and
+	 * whitespace inside parentheses are kept, and whitespace around a
+	 * repetition's <code>'*'</code> is ignored.
+	 */
+	private static List split(String encodedSpecs) {
+		List elements = new ArrayList();
+		StringBuffer element = new StringBuffer();
+		int depth = 0;
+		int length = encodedSpecs.length();
+		for (int i = 0; i < length; i++) {
+			char c = encodedSpecs.charAt(i);
+			if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				depth--;
+				if (depth < 0)
+					throw new IllegalArgumentException(
+							"Unbalanced ')' in the specs '" + encodedSpecs
+									+ "'.");
+			}
+			if (depth > 0 || (c != ',' && !Character.isWhitespace(c))) {
+				element.append(c);
+			} else if (c == ',' || !isRepetitionSpace(encodedSpecs, i, element)) {
+				addElement(elements, element);
+			}
+		}
+		if (depth != 0)
+			throw new IllegalArgumentException("Unbalanced '(' in the specs '"
+					+ encodedSpecs + "'.");
+		addElement(elements, element);
+		return elements;
+	}
+
+	private static boolean isRepetitionSpace(String encodedSpecs, int index,
+			StringBuffer element) {
+		if (element.length() > 0 && element.charAt(element.length() - 1) == '*')
+			return true;
+		for (int i = index + 1; i < encodedSpecs.length(); i++) {
+			char c = encodedSpecs.charAt(i);
+			if (!Character.isWhitespace(c))
+				return c == '*';
+		}
+		return false;
+	}
+
+	private static void addElement(List elements, StringBuffer element) {
+		if (element.length() > 0) {
+			elements.add(element.toString());
+			element.setLength(0);
+		}
+	}
+
+	private static boolean isInteger(String str) {
+		for (int i = 0; i < str.length(); i++) {
+			if (!Character.isDigit(str.charAt(i)))
+				return false;
+		}
+		return str.length() > 0;
+	}
+
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.layout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+
+/**
+ * A recorded form that stamps out identical panels. A template holds the
+ * decoded column and row specifications, the column and row groups, the
+ * border and, for every cell, a {@link ControlFactory} together with the
+ * cell's constraints. All of them are parsed and validated once when the
+ * template is recorded.
+ * <p>
+ * 
+ * Instantiating the template into a composite creates a new
+ * <code>FormLayout</code> that shares the immutable specifications with the
+ * template and adds the created controls without parsing or validating
+ * anything again. This is useful for forms that appear many times, for
+ * example in list cells, wizard pages or tab folders.
+ * <p>
+ * 
+ * The builders create their controls right away and hence cannot record a
+ * template; plan a template with the
+ * {@link net.ffxml.swtforms.builder.FormPlanBuilder}, which follows
+ * the <code>DefaultFormBuilder</code> API but records control factories.
+ * <p>
+ * 
+ * <strong>Example:</strong>
+ * 
+ * <pre>
+ * FormLayout layout = new FormLayout(&quot;right:pref, 3dlu, pref:grow&quot;,
+ * 		&quot;p, 3dlu, p&quot;);
+ * CellConstraints cc = new CellConstraints();
+ * FormTemplate.Recorder recorder = new FormTemplate.Recorder(layout);
+ * recorder.add(nameLabelFactory, cc.xy(1, 1));
+ * recorder.add(nameFieldFactory, cc.xy(3, 1));
+ * recorder.add(cityLabelFactory, cc.xy(1, 3));
+ * recorder.add(cityFieldFactory, cc.xy(3, 3));
+ * FormTemplate template = recorder.build();
+ * 
+ * for (int i = 0; i &lt; addresses.length; i++) {
+ * 	Composite panel = new Composite(parent, SWT.NONE);
+ * 	Control[] controls = template.instantiate(panel);
+ * 	...
+ * }
+ * </pre>
+ * 
+ * @author Florian Fankhauser
+ * @see FormLayout
+ */
+public final class FormTemplate {
+
+	/**
+	 * Creates the control of a template cell for each instance.
+	 */
+	public interface ControlFactory {
+
+		/**
+		 * Creates a new control in the given parent.
+		 * 
+		 * @param parent
+		 *            the composite that the template is instantiated into
+		 * @return the new control, a child of <code>parent</code>
+		 */
+		Control createControl(Composite parent);
+
+	}
+
+	private final ColumnSpec[] colSpecs;
+
+	private final RowSpec[] rowSpecs;
+
+	private final int[][] colGroups;
+
+	private final int[][] rowGroups;
+
+	private final Border border;
+
+	private final ControlFactory[] factories;
+
+	private final CellConstraints[] constraints;
+
+	// Instance Creation ****************************************************
+
+	private FormTemplate(FormLayout layout, List factoryList,
+			List constraintList) {
+		int colCount = layout.getColumnCount();
+		int rowCount = layout.getRowCount();
+		colSpecs = new ColumnSpec[colCount];
+		for (int i = 0; i < colCount; i++) {
+			colSpecs[i] = layout.getColumnSpec(i + 1);
+		}
+		rowSpecs = new RowSpec[rowCount];
+		for (int i = 0; i < rowCount; i++) {
+			rowSpecs[i] = layout.getRowSpec(i + 1);
+		}
+		// The layout has checked its groups when they have been set.
+		colGroups = layout.getColumnGroups();
+		rowGroups = layout.getRowGroups();
+		border = layout.getBorder();
+		factories = (ControlFactory[]) factoryList
+				.toArray(new ControlFactory[factoryList.size()]);
+		constraints = (CellConstraints[]) constraintList
+				.toArray(new CellConstraints[constraintList.size()]);
+		for (int i = 0; i < constraints.length; i++) {
+			constraints[i].ensureValidGridBounds(colCount, rowCount);
+		}
+	}
+
+	// Accessors ************************************************************
+
+	/**
+	 * Returns the number of recorded cells.
+	 * 
+	 * @return the number of cells
+	 */
+	public int getCellCount() {
+		return factories.length;
+	}
+
+	/**
+	 * Returns the number of columns of the recorded layout.
+	 * 
+	 * @return the number of columns
+	 */
+	public int getColumnCount() {
+		return colSpecs.length;
+	}
+
+	/**
+	 * Returns the number of rows of the recorded layout.
+	 * 
+	 * @return the number of rows
+	 */
+	public int getRowCount() {
+		return rowSpecs.length;
+	}
+
+	// Instantiation ********************************************************
+
+	/**
+	 * Creates a new <code>FormLayout</code> that has the recorded
+	 * specifications, groups and border. The specifications are shared with
+	 * this template.
+	 * 
+	 * @return a new layout for one instance of this template
+	 */
+	public FormLayout createLayout() {
+		FormLayout layout = new FormLayout(colSpecs, rowSpecs);
+		layout.setValidatedGroups(colGroups, rowGroups);
+		layout.setBorder(border);
+		return layout;
+	}
+
+	/**
+	 * Instantiates this template into the given composite: sets a new layout
+	 * created by {@link #createLayout()}, creates the controls of all cells
+	 * in recording order, and adds them with the recorded constraints.
+	 * 
+	 * @param composite
+	 *            the composite to fill, typically empty
+	 * @return the created controls in recording order
+	 * @throws NullPointerException
+	 *             if the composite is <code>null</code> or a factory returns
+	 *             <code>null</code>
+	 */
+	public Control[] instantiate(Composite composite) {
+		if (composite == null)
+			throw new NullPointerException("The composite must not be null.");
+		FormLayout layout = createLayout();
+		Control[] controls = new Control[factories.length];
+		for (int i = 0; i < factories.length; i++) {
+			controls[i] = createControl(i, composite, layout);
+		}
+		composite.setLayout(layout);
+		return controls;
+	}
+
+	/**
+	 * Creates the control of a single cell and adds it to the given layout
+	 * with the recorded constraints. Allows to instantiate a template in
+	 * several steps, for example spread over several event loop iterations.
+	 * 
+	 * @param index
+	 *            the cell index, from 0 to <code>getCellCount() - 1</code>
+	 * @param composite
+	 *            the composite to create the control in
+	 * @param layout
+	 *            a layout created by {@link #createLayout()}
+	 * @return the new control
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is out of range
+	 * @throws NullPointerException
+	 *             if the factory returns <code>null</code>
+	 */
+	public Control createControl(int index, Composite composite,
+			FormLayout layout) {
+		Control control = factories[index].createControl(composite);
+		if (control == null)
+			throw new NullPointerException("The factory for cell "
+					+ (index + 1) + " returned null.");
+		// Each control gets the constraints the layout stores for it; the
+		// template's constraints are shared by all instances.
+		control.setLayoutData(layout.putValidatedConstraints(control,
+				constraints[index]));
+		return control;
+	}
+
+	// Recording ************************************************************
+
+	/**
+	 * Records the cells of a {@link FormTemplate}. The recorder reads the
+	 * column and row specifications, groups and border from a layout when
+	 * the template is built, so the layout may still change while recording.
+	 */
+	public static final class Recorder {
+
+		private final FormLayout layout;
+
+		private final List factoryList = new ArrayList();
+
+		private final List constraintList = new ArrayList();
+
+		/**
+		 * Constructs a recorder that takes the grid from the given layout.
+		 * 
+		 * @param layout
+		 *            provides specifications, groups and border
+		 * @throws NullPointerException
+		 *             if the layout is <code>null</code>
+		 */
+		public Recorder(FormLayout layout) {
+			if (layout == null)
+				throw new NullPointerException("The layout must not be null.");
+			this.layout = layout;
+		}
+
+		/**
+		 * Records a cell. The constraints are copied, so the caller may reuse
+		 * the <code>CellConstraints</code> object.
+		 * 
+		 * @param factory
+		 *            creates the cell's control for each instance
+		 * @param cellConstraints
+		 *            the cell's constraints
+		 * @throws NullPointerException
+		 *             if the factory or constraints are <code>null</code>
+		 */
+		public void add(ControlFactory factory, CellConstraints cellConstraints) {
+			if (factory == null)
+				throw new NullPointerException("The factory must not be null.");
+			if (cellConstraints == null)
+				throw new NullPointerException(
+						"The constraints must not be null.");
+			factoryList.add(factory);
+			constraintList.add(cellConstraints.clone());
+		}
+
+		/**
+		 * Records a cell using encoded constraints.
+		 * 
+		 * @param factory
+		 *            creates the cell's control for each instance
+		 * @param encodedCellConstraints
+		 *            the cell's encoded constraints
+		 * @throws NullPointerException
+		 *             if the factory or constraints are <code>null</code>
+		 */
+		public void add(ControlFactory factory, String encodedCellConstraints) {
+			add(factory, new CellConstraints(encodedCellConstraints));
+		}
+
+		/**
+		 * Validates the recorded cells against the layout's grid and returns
+		 * the template.
+		 * 
+		 * @return the recorded template
+		 * @throws IndexOutOfBoundsException
+		 *             if a cell lies outside the grid
+		 */
+		public FormTemplate build() {
+			return new FormTemplate(layout, factoryList, constraintList);
+		}
+
+	}
+
+}
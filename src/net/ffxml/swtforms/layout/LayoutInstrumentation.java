@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.layout;
+
+/**
+ * Receives the metrics of each pass that a {@link FormLayout} performs: the
+ * pass type, the time spent in each phase, and the number of
+ * <code>computeSize</code> calls, size cache hits and misses and
+ * <code>setBounds</code> calls.
+ * <p>
+ * 
+ * A layout reports to its own instrumentation, if set, or otherwise to the
+ * default instrumentation. The default is {@link #NONE}; as long as a layout
+ * uses <code>NONE</code> it neither collects metrics nor reads the clock, so
+ * instrumentation can stay in place in production code. Implementations are
+ * invoked on the UI thread after each pass and should return quickly.
+ * 
+ * @author Florian Fankhauser
+ * @see FormLayout#setInstrumentation(LayoutInstrumentation)
+ * @see FormLayout#setDefaultInstrumentation(LayoutInstrumentation)
+ */
+public interface LayoutInstrumentation {
+
+	/**
+	 * Ignores all passes. Layouts that use this instrumentation do not collect
+	 * metrics at all.
+	 */
+	LayoutInstrumentation NONE = new LayoutInstrumentation() {
+		public void passFinished(LayoutPassMetrics metrics) {
+			// Does nothing; FormLayout does not even call it.
+		}
+	};
+
+	/**
+	 * Receives the metrics of a finished layout pass. The metrics object is
+	 * not reused by the layout and may be retained.
+	 * 
+	 * @param metrics
+	 *            the metrics of the finished pass
+	 */
+	void passFinished(LayoutPassMetrics metrics);
+
+}
@@ -0,0 +1,694 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.layout;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import net.ffxml.swtforms.util.LayoutStyle;
+
+/**
+ * Maps names to encoded column and row spec fragments that can be referenced
+ * as variables in encoded specs, for example <code>"p, $lcgap, 50dlu"</code>.
+ * Also decodes and caches encoded specs, so that a frequently used
+ * specification is parsed and expanded only once.
+ * <p>
+ * 
+ * Encoded specs may repeat a spec or a group of specs:
+ * <code>"$dm, 5*(p, $lgap), p, $dm"</code>. A variable's value may be an
+ * encoded fragment that again uses variables and repetitions.
+ * <p>
+ * 
+ * Maps are organized in a hierarchy. Variables not found in a map are looked
+ * up in its parent. The root map provides the following variables, which are
+ * bound to the current {@link LayoutStyle} at the time of expansion, or to
+ * the style given to {@link #decodeColumnSpecs(String, LayoutStyle)} and
+ * {@link #decodeRowSpecs(String, LayoutStyle)}:
+ * <table>
+ * <tr>
+ * <td><b>Variable</b></td>
+ * <td><b>Columns</b></td>
+ * <td><b>Rows</b></td>
+ * </tr>
+ * <tr>
+ * <td>$lcgap, $label-component-gap</td>
+ * <td>label component pad</td>
+ * <td>-</td>
+ * </tr>
+ * <tr>
+ * <td>$rgap, $related-gap</td>
+ * <td>related components pad X</td>
+ * <td>related components pad Y</td>
+ * </tr>
+ * <tr>
+ * <td>$ugap, $unrelated-gap</td>
+ * <td>unrelated components pad X</td>
+ * <td>unrelated components pad Y</td>
+ * </tr>
+ * <tr>
+ * <td>$nlgap, $narrow-line-gap</td>
+ * <td>-</td>
+ * <td>narrow line pad</td>
+ * </tr>
+ * <tr>
+ * <td>$lgap, $line-gap</td>
+ * <td>-</td>
+ * <td>line pad</td>
+ * </tr>
+ * <tr>
+ * <td>$pgap, $paragraph-gap</td>
+ * <td>-</td>
+ * <td>paragraph pad</td>
+ * </tr>
+ * <tr>
+ * <td>$dm, $dialog-margin</td>
+ * <td>dialog margin X</td>
+ * <td>dialog margin Y</td>
+ * </tr>
+ * <tr>
+ * <td>$tdm, $tabbed-dialog-margin</td>
+ * <td>tabbed dialog margin X</td>
+ * <td>tabbed dialog margin Y</td>
+ * </tr>
+ * <tr>
+ * <td>$b, $button</td>
+ * <td>default button width</td>
+ * <td>-</td>
+ * </tr>
+ * <tr>
+ * <td>$gb, $growing-button</td>
+ * <td>growing button width</td>
+ * <td>-</td>
+ * </tr>
+ * <tr>
+ * <td>$glue</td>
+ * <td>growing zero width</td>
+ * <td>growing zero height</td>
+ * </tr>
+ * </table>
+ * <p>
+ * 
+ * <strong>Examples:</strong>
+ * 
+ * <pre>
+ * LayoutMap.getRoot().columnPut(&quot;label&quot;, &quot;r:max(50dlu;p), $lcgap&quot;);
+ * new FormLayout(&quot;$label, 100dlu, $ugap, $label, 100dlu&quot;,
+ * 		&quot;3*(p, $lgap), p&quot;);
+ * 
+ * LayoutMap dialogMap = new LayoutMap();
+ * dialogMap.rowPut(&quot;lgap&quot;, &quot;5px&quot;);
+ * new FormLayout(&quot;p, $lcgap, p&quot;, &quot;3*(p, $lgap), p&quot;, dialogMap);
+ * </pre>
+ * 
+ * Variable names are case insensitive. This class is thread safe.
+ * 
+ * @author Florian Fankhauser
+ * @see ColumnSpec#decodeSpecs(String, LayoutMap)
+ * @see RowSpec#decodeSpecs(String, LayoutMap)
+ */
+public final class LayoutMap {
+
+	/**
+	 * The maximum number of decoded specs a map caches per orientation.
+	 */
+	private static final int CACHE_CAPACITY = 256;
+
+	/**
+	 * Holds the lazily created root map.
+	 */
+	private static LayoutMap root;
+
+	// Fields ***************************************************************
+
+	/**
+	 * Holds the parent map, <code>null</code> for the root.
+	 */
+	private final LayoutMap parent;
+
+	/**
+	 * Maps lower case column variable names to encoded fragments or specs.
+	 */
+	private final Map columnMap = new HashMap();
+
+	/**
+	 * Maps lower case row variable names to encoded fragments or specs.
+	 */
+	private final Map rowMap = new HashMap();
+
+	/**
+	 * Maps encoded column specs to <code>CachedSpecs</code> that hold the
+	 * decoded <code>ColumnSpec</code> arrays.
+	 */
+	private final Map columnCache = new BoundedCache();
+
+	/**
+	 * Maps encoded row specs to <code>CachedSpecs</code> that hold the
+	 * decoded <code>RowSpec</code> arrays.
+	 */
+	private final Map rowCache = new BoundedCache();
+
+	/**
+	 * Counts the modifications of this map's variables.
+	 */
+	private int modificationCount;
+
+	/**
+	 * Holds the sum of the modification counts of this map and its ancestors
+	 * at the time the caches were filled. The layout style is not part of the
+	 * stamp; each cache entry records the style it has been decoded with.
+	 */
+	private int cachedStamp;
+
+	// Instance Creation ****************************************************
+
+	/**
+	 * Constructs a <code>LayoutMap</code> that uses the root map as parent.
+	 */
+	public LayoutMap() {
+		this(getRoot());
+	}
+
+	/**
+	 * Constructs a <code>LayoutMap</code> with the given parent.
+	 * 
+	 * @param parent
+	 *            the map used to look up variables not found in this map
+	 * @throws NullPointerException
+	 *             if the parent is <code>null</code>
+	 */
+	public LayoutMap(LayoutMap parent) {
+		if (parent == null)
+			throw new NullPointerException("The parent map must not be null.");
+		this.parent = parent;
+	}
+
+	private LayoutMap(boolean isRoot) {
+		this.parent = null;
+	}
+
+	/**
+	 * Returns the shared root map. It is used by
+	 * {@link ColumnSpec#decodeSpecs(String)} and
+	 * {@link RowSpec#decodeSpecs(String)} and provides variables for the
+	 * current layout style.
+	 * 
+	 * @return the shared root map
+	 */
+	public static synchronized LayoutMap getRoot() {
+		if (root == null) {
+			root = new LayoutMap(true);
+		}
+		return root;
+	}
+
+	// Accessing Variables **************************************************
+
+	/**
+	 * Binds the given column variable to an encoded fragment of column specs,
+	 * which may refer to other variables.
+	 * 
+	 * @param key
+	 *            the variable name without the leading <code>'$'</code>
+	 * @param encodedSpecs
+	 *            the encoded column specs the variable expands to
+	 * @throws NullPointerException
+	 *             if the key or the encoded specs are <code>null</code>
+	 */
+	public synchronized void columnPut(String key, String encodedSpecs) {
+		put(columnMap, key, encodedSpecs);
+	}
+
+	/**
+	 * Binds the given column variable to a column spec.
+	 * 
+	 * @param key
+	 *            the variable name without the leading <code>'$'</code>
+	 * @param spec
+	 *            the column spec the variable expands to
+	 * @throws NullPointerException
+	 *             if the key or the spec is <code>null</code>
+	 */
+	public synchronized void columnPut(String key, ColumnSpec spec) {
+		put(columnMap, key, spec);
+	}
+
+	/**
+	 * Removes the given column variable from this map.
+	 * 
+	 * @param key
+	 *            the variable name without the leading <code>'$'</code>
+	 */
+	public synchronized void columnRemove(String key) {
+		remove(columnMap, key);
+	}
+
+	/**
+	 * Binds the given row variable to an encoded fragment of row specs, which
+	 * may refer to other variables.
+	 * 
+	 * @param key
+	 *            the variable name without the leading <code>'$'</code>
+	 * @param encodedSpecs
+	 *            the encoded row specs the variable expands to
+	 * @throws NullPointerException
+	 *             if the key or the encoded specs are <code>null</code>
+	 */
+	public synchronized void rowPut(String key, String encodedSpecs) {
+		put(rowMap, key, encodedSpecs);
+	}
+
+	/**
+	 * Binds the given row variable to a row spec.
+	 * 
+	 * @param key
+	 *            the variable name without the leading <code>'$'</code>
+	 * @param spec
+	 *            the row spec the variable expands to
+	 * @throws NullPointerException
+	 *             if the key or the spec is <code>null</code>
+	 */
+	public synchronized void rowPut(String key, RowSpec spec) {
+		put(rowMap, key, spec);
+	}
+
+	/**
+	 * Removes the given row variable from this map.
+	 * 
+	 * @param key
+	 *            the variable name without the leading <code>'$'</code>
+	 */
+	public synchronized void rowRemove(String key) {
+		remove(rowMap, key);
+	}
+
+	// Decoding *************************************************************
+
+	/**
+	 * Decodes the given encoded column specs, expanding variables and
+	 * repetitions. The result is cached; subsequent calls with the same
+	 * string return a copy of the cached array.
+	 * 
+	 * @param encodedColumnSpecs
+	 *            comma separated encoded column specifications
+	 * @return an array of decoded column specifications
+	 * @throws NullPointerException
+	 *             if the encoded column specifications string is
+	 *             <code>null</code>
+	 * @throws IllegalArgumentException
+	 *             if the encoding is invalid or refers to an unknown variable
+	 */
+	public ColumnSpec[] decodeColumnSpecs(String encodedColumnSpecs) {
+		if (encodedColumnSpecs == null)
+			throw new NullPointerException(
+					"The column specification must not be null.");
+		return (ColumnSpec[]) decode(encodedColumnSpecs, true,
+				new Expansion(null));
+	}
+
+	/**
+	 * Decodes the given encoded column specs, binding the default variables
+	 * to the given layout style instead of the current one. Useful to decode
+	 * specs for a Display outside its user interface thread.
+	 * 
+	 * @param encodedColumnSpecs
+	 *            comma separated encoded column specifications
+	 * @param layoutStyle
+	 *            the style the default variables are bound to
+	 * @return an array of decoded column specifications
+	 * @throws NullPointerException
+	 *             if the encoded column specifications string or the layout
+	 *             style is <code>null</code>
+	 * @throws IllegalArgumentException
+	 *             if the encoding is invalid or refers to an unknown variable
+	 * @see net.ffxml.swtforms.util.DisplayContext#getLayoutStyle()
+	 */
+	public ColumnSpec[] decodeColumnSpecs(String encodedColumnSpecs,
+			LayoutStyle layoutStyle) {
+		if (encodedColumnSpecs == null)
+			throw new NullPointerException(
+					"The column specification must not be null.");
+		if (layoutStyle == null)
+			throw new NullPointerException("The layout style must not be null.");
+		return (ColumnSpec[]) decode(encodedColumnSpecs, true,
+				new Expansion(layoutStyle));
+	}
+
+	/**
+	 * Decodes the given encoded row specs, expanding variables and
+	 * repetitions. The result is cached; subsequent calls with the same
+	 * string return a copy of the cached array.
+	 * 
+	 * @param encodedRowSpecs
+	 *            comma separated encoded row specifications
+	 * @return an array of decoded row specifications
+	 * @throws NullPointerException
+	 *             if the encoded row specifications string is
+	 *             <code>null</code>
+	 * @throws IllegalArgumentException
+	 *             if the encoding is invalid or refers to an unknown variable
+	 */
+	public RowSpec[] decodeRowSpecs(String encodedRowSpecs) {
+		if (encodedRowSpecs == null)
+			throw new NullPointerException(
+					"The row specification must not be null.");
+		return (RowSpec[]) decode(encodedRowSpecs, false, new Expansion(null));
+	}
+
+	/**
+	 * Decodes the given encoded row specs, binding the default variables to
+	 * the given layout style instead of the current one. Useful to decode
+	 * specs for a Display outside its user interface thread.
+	 * 
+	 * @param encodedRowSpecs
+	 *            comma separated encoded row specifications
+	 * @param layoutStyle
+	 *            the style the default variables are bound to
+	 * @return an array of decoded row specifications
+	 * @throws NullPointerException
+	 *             if the encoded row specifications string or the layout
+	 *             style is <code>null</code>
+	 * @throws IllegalArgumentException
+	 *             if the encoding is invalid or refers to an unknown variable
+	 * @see net.ffxml.swtforms.util.DisplayContext#getLayoutStyle()
+	 */
+	public RowSpec[] decodeRowSpecs(String encodedRowSpecs,
+			LayoutStyle layoutStyle) {
+		if (encodedRowSpecs == null)
+			throw new NullPointerException(
+					"The row specification must not be null.");
+		if (layoutStyle == null)
+			throw new NullPointerException("The layout style must not be null.");
+		return (RowSpec[]) decode(encodedRowSpecs, false, new Expansion(
+				layoutStyle));
+	}
+
+	/**
+	 * Expands the given variable into the list of specs. Invoked by the
+	 * <code>FormSpecParser</code>.
+	 * 
+	 * @param name
+	 *            the lower case variable name
+	 * @param horizontal
+	 *            true for a column variable, false for a row variable
+	 * @param expansion
+	 *            the state of the current decoding
+	 * @param specs
+	 *            the list the expanded specs are added to
+	 * @throws IllegalArgumentException
+	 *             if the variable is unknown
+	 */
+	void expand(String name, boolean horizontal, Expansion expansion,
+			List specs) {
+		Object value = lookup(name, horizontal, expansion);
+		if (value == null)
+			throw new IllegalArgumentException("Unknown "
+					+ (horizontal ? "column" : "row") + " layout variable '$"
+					+ name + "'.");
+		if (value instanceof FormSpec) {
+			specs.add(value);
+		} else {
+			specs.addAll(FormSpecParser.parse((String) value, this,
+					horizontal, expansion));
+		}
+	}
+
+	// Helper Code **********************************************************
+
+	/**
+	 * Returns a copy of the cached specs for the given encoding if they do
+	 * not depend on the layout style or have been decoded with the
+	 * expansion's style; decodes and caches the specs otherwise. An entry is stored only
+	 * if no variable has been modified while decoding; as the entry carries
+	 * its own layout style, a concurrent decoding with another style cannot
+	 * mislabel it.
+	 * <p>
+	 * 
+	 * The layout style, and with it the Display, is looked up only if a
+	 * default variable is expanded, so that specs without such variables
+	 * can be decoded without SWT natives, for example at build time.
+	 */
+	private FormSpec[] decode(String encodedSpecs, boolean horizontal,
+			Expansion expansion) {
+		Map cache = horizontal ? columnCache : rowCache;
+		CachedSpecs cached;
+		int stamp;
+		synchronized (this) {
+			stamp = validateCaches();
+			cached = (CachedSpecs) cache.get(encodedSpecs);
+		}
+		if (cached != null
+				&& (cached.layoutStyle == null || cached.layoutStyle == expansion
+						.getLayoutStyle()))
+			return (FormSpec[]) cached.specs.clone();
+
+		List list = FormSpecParser.parse(encodedSpecs, this, horizontal,
+				expansion);
+		FormSpec[] specs = horizontal ? (FormSpec[]) list
+				.toArray(new ColumnSpec[list.size()]) : (FormSpec[]) list
+				.toArray(new RowSpec[list.size()]);
+		synchronized (this) {
+			if (stamp == cachedStamp && stamp == stamp())
+				cache.put(encodedSpecs, new CachedSpecs(specs, expansion
+						.getUsedLayoutStyle()));
+		}
+		return (FormSpec[]) specs.clone();
+	}
+
+	private Object lookup(String name, boolean horizontal,
+			Expansion expansion) {
+		for (LayoutMap map = this; map != null; map = map.parent) {
+			Object value;
+			synchronized (map) {
+				value = (horizontal ? map.columnMap : map.rowMap).get(name);
+			}
+			if (value != null)
+				return value;
+		}
+		return horizontal ? defaultColumnSpec(name, expansion)
+				: defaultRowSpec(name, expansion);
+	}
+
+	private void put(Map map, String key, Object value) {
+		if (key == null)
+			throw new NullPointerException("The key must not be null.");
+		if (value == null)
+			throw new NullPointerException("The value must not be null.");
+		map.put(key.toLowerCase(Locale.ENGLISH), value);
+		modificationCount++;
+	}
+
+	private void remove(Map map, String key) {
+		if (map.remove(key.toLowerCase(Locale.ENGLISH)) != null)
+			modificationCount++;
+	}
+
+	/**
+	 * Clears the caches if a variable of this map or an ancestor has been
+	 * modified since the caches were filled. The sum of the modification
+	 * counts changes whenever a single count changes, since the counts only
+	 * grow.
+	 * 
+	 * @return the current modification stamp
+	 */
+	private int validateCaches() {
+		int stamp = stamp();
+		if (stamp != cachedStamp) {
+			columnCache.clear();
+			rowCache.clear();
+			cachedStamp = stamp;
+		}
+		return stamp;
+	}
+
+	private synchronized int stamp() {
+		return parent == null ? modificationCount : modificationCount
+				+ parent.stamp();
+	}
+
+	/**
+	 * Returns the column spec of the given default variable, or
+	 * <code>null</code> if there is no such variable. Resolves the layout
+	 * style only for the variables that depend on it.
+	 */
+	private static ColumnSpec defaultColumnSpec(String name,
+			Expansion expansion) {
+		if (name.equals("glue"))
+			return new ColumnSpec(ColumnSpec.DEFAULT, Sizes.ZERO,
+					ColumnSpec.DEFAULT_GROW);
+		if (name.equals("lcgap") || name.equals("label-component-gap"))
+			return columnGap(expansion.getLayoutStyle()
+					.getLabelComponentPadX());
+		if (name.equals("rgap") || name.equals("related-gap"))
+			return columnGap(expansion.getLayoutStyle()
+					.getRelatedComponentsPadX());
+		if (name.equals("ugap") || name.equals("unrelated-gap"))
+			return columnGap(expansion.getLayoutStyle()
+					.getUnrelatedComponentsPadX());
+		if (name.equals("dm") || name.equals("dialog-margin"))
+			return columnGap(expansion.getLayoutStyle().getDialogMarginX());
+		if (name.equals("tdm") || name.equals("tabbed-dialog-margin"))
+			return columnGap(expansion.getLayoutStyle()
+					.getTabbedDialogMarginX());
+		if (name.equals("b") || name.equals("button"))
+			return new ColumnSpec(Sizes.bounded(Sizes.PREFERRED, expansion
+					.getLayoutStyle().getDefaultButtonWidth(), null));
+		if (name.equals("gb") || name.equals("growing-button"))
+			return new ColumnSpec(ColumnSpec.DEFAULT, Sizes.bounded(
+					Sizes.PREFERRED, expansion.getLayoutStyle()
+							.getDefaultButtonWidth(), null),
+					ColumnSpec.DEFAULT_GROW);
+		return null;
+	}
+
+	/**
+	 * Returns the row spec of the given default variable, or
+	 * <code>null</code> if there is no such variable. Resolves the layout
+	 * style only for the variables that depend on it.
+	 */
+	private static RowSpec defaultRowSpec(String name, Expansion expansion) {
+		if (name.equals("glue"))
+			return new RowSpec(RowSpec.DEFAULT, Sizes.ZERO,
+					RowSpec.DEFAULT_GROW);
+		if (name.equals("rgap") || name.equals("related-gap"))
+			return rowGap(expansion.getLayoutStyle()
+					.getRelatedComponentsPadY());
+		if (name.equals("ugap") || name.equals("unrelated-gap"))
+			return rowGap(expansion.getLayoutStyle()
+					.getUnrelatedComponentsPadY());
+		if (name.equals("nlgap") || name.equals("narrow-line-gap"))
+			return rowGap(expansion.getLayoutStyle().getNarrowLinePad());
+		if (name.equals("lgap") || name.equals("line-gap"))
+			return rowGap(expansion.getLayoutStyle().getLinePad());
+		if (name.equals("pgap") || name.equals("paragraph-gap"))
+			return rowGap(expansion.getLayoutStyle().getParagraphPad());
+		if (name.equals("dm") || name.equals("dialog-margin"))
+			return rowGap(expansion.getLayoutStyle().getDialogMarginY());
+		if (name.equals("tdm") || name.equals("tabbed-dialog-margin"))
+			return rowGap(expansion.getLayoutStyle()
+					.getTabbedDialogMarginY());
+		return null;
+	}
+
+	private static ColumnSpec columnGap(ConstantSize size) {
+		return new ColumnSpec(ColumnSpec.LEFT, size, ColumnSpec.NO_GROW);
+	}
+
+	private static RowSpec rowGap(ConstantSize size) {
+		return new RowSpec(RowSpec.TOP, size, RowSpec.NO_GROW);
+	}
+
+	// Helper Classes *******************************************************
+
+	/**
+	 * Holds the state of a single decoding: the names of the variables
+	 * currently expanded, used to detect circular references, and the lazily
+	 * resolved layout style the default variables are bound to.
+	 */
+	static final class Expansion {
+
+		final Set expanding = new HashSet();
+
+		private LayoutStyle layoutStyle;
+
+		private boolean layoutStyleUsed;
+
+		/**
+		 * Constructs the state for a decoding with the given style.
+		 * 
+		 * @param layoutStyle
+		 *            the style to bind the default variables to, or
+		 *            <code>null</code> for the current style
+		 */
+		Expansion(LayoutStyle layoutStyle) {
+			this.layoutStyle = layoutStyle;
+		}
+
+		/**
+		 * Returns the layout style; looks up the current style on first use
+		 * if no style has been given.
+		 */
+		LayoutStyle getLayoutStyle() {
+			if (layoutStyle == null) {
+				layoutStyle = LayoutStyle.getCurrent();
+			}
+			layoutStyleUsed = true;
+			return layoutStyle;
+		}
+
+		/**
+		 * Returns the layout style if it has been used, <code>null</code> if
+		 * the decoded specs do not depend on it.
+		 */
+		LayoutStyle getUsedLayoutStyle() {
+			return layoutStyleUsed ? layoutStyle : null;
+		}
+	}
+
+	/**
+	 * Holds decoded specs together with the layout style they have been
+	 * decoded with, or <code>null</code> if they do not depend on it.
+	 */
+	private static final class CachedSpecs {
+
+		final FormSpec[] specs;
+
+		final LayoutStyle layoutStyle;
+
+		CachedSpecs(FormSpec[] specs, LayoutStyle layoutStyle) {
+			this.specs = specs;
+			this.layoutStyle = layoutStyle;
+		}
+	}
+
+	/**
+	 * A least recently used map that holds at most
+	 * <code>CACHE_CAPACITY</code> entries, so that dynamically built specs
+	 * cannot exhaust the memory.
+	 */
+	private static final class BoundedCache extends LinkedHashMap {
+
+		private static final long serialVersionUID = 1L;
+
+		BoundedCache() {
+			super(16, 0.75f, true);
+		}
+
+		protected boolean removeEldestEntry(Map.Entry eldest) {
+			return size() > CACHE_CAPACITY;
+		}
+	}
+
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.layout;
+
+import net.ffxml.swtforms.util.NanoClock;
+
+import org.eclipse.swt.widgets.Composite;
+
+/**
+ * Describes a single pass of a {@link FormLayout}: its type, the wall time of
+ * the pass and of its phases, and the number of native
+ * <code>computeSize</code> calls, size cache hits and misses and
+ * <code>setBounds</code> calls.
+ * <p>
+ * 
+ * Times are measured with the {@link NanoClock}, that is with
+ * <code>System.nanoTime()</code> on Java 5 and later. On older runtimes the
+ * clock falls back to <code>System.currentTimeMillis()</code>, whose
+ * resolution is 10 to 16 milliseconds on Windows, so that most passes and
+ * phases report 0. A phase that has been entered several times in a pass,
+ * for example the measure phase for columns and rows, reports the sum of its
+ * times.
+ * 
+ * @author Florian Fankhauser
+ * @see LayoutInstrumentation
+ */
+public final class LayoutPassMetrics {
+
+	// Pass Types ***********************************************************
+
+	/**
+	 * Computes the container's minimum or preferred size.
+	 */
+	public static final PassType COMPUTE_SIZE = new PassType("computeSize");
+
+	/**
+	 * Lays out the container and sets the component bounds.
+	 */
+	public static final PassType LAYOUT = new PassType("layout");
+
+	/**
+	 * Computes the grid origins for debugging without setting bounds.
+	 */
+	public static final PassType LAYOUT_INFO = new PassType("getLayoutInfo");
+
+	// Phases ***************************************************************
+
+	/**
+	 * Measures the components and computes the column and row minimum and
+	 * preferred sizes.
+	 */
+	public static final Phase MEASURE = new Phase("measure", 0);
+
+	/**
+	 * Compresses the column and row sizes to the available space.
+	 */
+	public static final Phase COMPRESS = new Phase("compress", 1);
+
+	/**
+	 * Gives the columns and rows of a group the same size.
+	 */
+	public static final Phase GROUP = new Phase("group", 2);
+
+	/**
+	 * Distributes the free space over the growing columns and rows.
+	 */
+	public static final Phase DISTRIBUTE = new Phase("distribute", 3);
+
+	/**
+	 * Sets the bounds of the components.
+	 */
+	public static final Phase SET_BOUNDS = new Phase("setBounds", 4);
+
+	private static final int PHASE_COUNT = 5;
+
+	// Instance Fields ******************************************************
+
+	private final FormLayout layout;
+
+	private final Composite container;
+
+	private final PassType passType;
+
+	private final long startNanos;
+
+	private long nanos;
+
+	private final long[] phaseNanos = new long[PHASE_COUNT];
+
+	private int computeSizeCount;
+
+	private int cacheHitCount;
+
+	private int cacheMissCount;
+
+	private int setBoundsCount;
+
+	// Instance Creation ****************************************************
+
+	/**
+	 * Constructs metrics for a pass that starts now; used by the
+	 * <code>FormLayout</code>.
+	 * 
+	 * @param layout
+	 *            the layout that performs the pass
+	 * @param container
+	 *            the container being laid out or measured
+	 * @param passType
+	 *            the type of the pass
+	 */
+	LayoutPassMetrics(FormLayout layout, Composite container,
+			PassType passType) {
+		this.layout = layout;
+		this.container = container;
+		this.passType = passType;
+		this.startNanos = NanoClock.nanoTime();
+	}
+
+	// Accessors ************************************************************
+
+	/**
+	 * Returns the layout that has performed the pass.
+	 * 
+	 * @return the layout
+	 */
+	public FormLayout getLayout() {
+		return layout;
+	}
+
+	/**
+	 * Returns the container that has been laid out or measured.
+	 * 
+	 * @return the container
+	 */
+	public Composite getContainer() {
+		return container;
+	}
+
+	/**
+	 * Returns the type of the pass.
+	 * 
+	 * @return one of <code>COMPUTE_SIZE</code>, <code>LAYOUT</code> and
+	 *         <code>LAYOUT_INFO</code>
+	 */
+	public PassType getPassType() {
+		return passType;
+	}
+
+	/**
+	 * Returns the wall time of the whole pass.
+	 * 
+	 * @return the pass time in milliseconds, rounded down
+	 */
+	public long getMillis() {
+		return nanos / 1000000L;
+	}
+
+	/**
+	 * Returns the wall time of the whole pass in nanoseconds. The precision
+	 * depends on the {@link NanoClock}.
+	 * 
+	 * @return the pass time in nanoseconds
+	 */
+	public long getNanos() {
+		return nanos;
+	}
+
+	/**
+	 * Returns the wall time spent in the given phase.
+	 * 
+	 * @param phase
+	 *            the phase
+	 * @return the phase time in milliseconds, rounded down
+	 */
+	public long getPhaseMillis(Phase phase) {
+		return phaseNanos[phase.index] / 1000000L;
+	}
+
+	/**
+	 * Returns the wall time spent in the given phase in nanoseconds.
+	 * 
+	 * @param phase
+	 *            the phase
+	 * @return the phase time in nanoseconds
+	 */
+	public long getPhaseNanos(Phase phase) {
+		return phaseNanos[phase.index];
+	}
+
+	/**
+	 * Returns the number of native <code>Control#computeSize</code> calls;
+	 * virtual cells are not counted.
+	 * 
+	 * @return the number of native <code>computeSize</code> calls
+	 */
+	public int getComputeSizeCount() {
+		return computeSizeCount;
+	}
+
+	/**
+	 * Returns the number of component sizes found in the size cache.
+	 * 
+	 * @return the number of size cache hits
+	 */
+	public int getCacheHitCount() {
+		return cacheHitCount;
+	}
+
+	/**
+	 * Returns the number of component sizes that had to be computed because
+	 * the size cache had no entry.
+	 * 
+	 * @return the number of size cache misses
+	 */
+	public int getCacheMissCount() {
+		return cacheMissCount;
+	}
+
+	/**
+	 * Returns the number of native <code>Control#setBounds</code> calls;
+	 * virtual cells are not counted.
+	 * 
+	 * @return the number of native <code>setBounds</code> calls
+	 */
+	public int getSetBoundsCount() {
+		return setBoundsCount;
+	}
+
+	public String toString() {
+		StringBuffer buffer = new StringBuffer();
+		buffer.append(passType);
+		buffer.append(": ");
+		buffer.append(nanos / 1000L);
+		buffer.append(" us [");
+		Phase[] phases = { MEASURE, COMPRESS, GROUP, DISTRIBUTE, SET_BOUNDS };
+		for (int i = 0; i < phases.length; i++) {
+			if (i > 0) {
+				buffer.append(", ");
+			}
+			buffer.append(phases[i]);
+			buffer.append('=');
+			buffer.append(phaseNanos[phases[i].index] / 1000L);
+		}
+		buffer.append("], computeSize=");
+		buffer.append(computeSizeCount);
+		buffer.append(", cache hits/misses=");
+		buffer.append(cacheHitCount);
+		buffer.append('/');
+		buffer.append(cacheMissCount);
+		buffer.append(", setBounds=");
+		buffer.append(setBoundsCount);
+		return buffer.toString();
+	}
+
+	// Recording ************************************************************
+
+	void addPhaseNanos(Phase phase, long phaseTime) {
+		phaseNanos[phase.index] += phaseTime;
+	}
+
+	void computeSizeCalled() {
+		computeSizeCount++;
+	}
+
+	void cacheHit() {
+		cacheHitCount++;
+	}
+
+	void cacheMissed() {
+		cacheMissCount++;
+	}
+
+	void setBoundsCalled() {
+		setBoundsCount++;
+	}
+
+	void finish() {
+		nanos = NanoClock.nanoTime() - startNanos;
+	}
+
+	// Helper Classes *******************************************************
+
+	/**
+	 * A typesafe enumeration for the layout pass types.
+	 */
+	public static final class PassType {
+
+		private final String name;
+
+		private PassType(String name) {
+			this.name = name;
+		}
+
+		public String toString() {
+			return name;
+		}
+
+	}
+
+	/**
+	 * A typesafe enumeration for the phases of a layout pass.
+	 */
+	public static final class Phase {
+
+		private final String name;
+
+		private final int index;
+
+		private Phase(String name, int index) {
+			this.name = name;
+			this.index = index;
+		}
+
+		public String toString() {
+			return name;
+		}
+
+	}
+
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.layout;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects performance data about the layouts of one {@link FormLayout}: how
+ * often and how long the layout has been solved, how often and how long each
+ * control or virtual cell has been measured, which cells have been measured
+ * again in the last pass because their cached sizes were invalid, and the
+ * minimum, preferred and final sizes of all columns and rows.
+ * <p>
+ * 
+ * Profiling is turned on with {@link FormLayout#setProfilingEnabled(boolean)}
+ * and costs nothing while turned off. Times are measured in nanoseconds with
+ * the {@link net.ffxml.swtforms.util.NanoClock}.
+ * 
+ * @author Florian Fankhauser
+ * @see net.ffxml.swtforms.debug.FormDebugUtils#debugPerformance(org.eclipse.swt.widgets.Composite)
+ */
+public final class LayoutProfile {
+
+	private int passCount;
+
+	private int sizeRequestCount;
+
+	private long lastSolveNanos;
+
+	private long totalSolveNanos;
+
+	private int computeSizeCount;
+
+	private int lastPassComputeSizeCount;
+
+	private int passComputeSizeCount;
+
+	/**
+	 * Maps cells to their <code>CellStatistics</code>.
+	 */
+	private final Map cells = new HashMap();
+
+	/**
+	 * Holds the cells measured since the last pass has finished, including
+	 * the cells measured by size requests.
+	 */
+	private Set measuredInPass = new HashSet();
+
+	/**
+	 * Holds the cells measured in the last completed pass.
+	 */
+	private Set measuredInLastPass = new HashSet();
+
+	private int[][] columnSizes = new int[3][0];
+
+	private int[][] rowSizes = new int[3][0];
+
+	/**
+	 * Constructs an empty profile; used by the <code>FormLayout</code>.
+	 */
+	LayoutProfile() {
+		// Only FormLayout creates profiles.
+	}
+
+	// Accessing the Layout Statistics **************************************
+
+	/**
+	 * Returns the number of layout passes.
+	 * 
+	 * @return the number of times the container has been laid out
+	 */
+	public int getPassCount() {
+		return passCount;
+	}
+
+	/**
+	 * Returns the number of size requests, that is, the number of times the
+	 * container's minimum or preferred size has been computed.
+	 * 
+	 * @return the number of size requests
+	 */
+	public int getSizeRequestCount() {
+		return sizeRequestCount;
+	}
+
+	/**
+	 * Returns the time taken by the last layout pass.
+	 * 
+	 * @return the last solve time in milliseconds, rounded down
+	 */
+	public long getLastSolveMillis() {
+		return lastSolveNanos / 1000000L;
+	}
+
+	/**
+	 * Returns the time taken by the last layout pass in nanoseconds.
+	 * 
+	 * @return the last solve time in nanoseconds
+	 */
+	public long getLastSolveNanos() {
+		return lastSolveNanos;
+	}
+
+	/**
+	 * Returns the time taken by all layout passes.
+	 * 
+	 * @return the total solve time in milliseconds, rounded down
+	 */
+	public long getTotalSolveMillis() {
+		return totalSolveNanos / 1000000L;
+	}
+
+	/**
+	 * Returns the time taken by all layout passes in nanoseconds.
+	 * 
+	 * @return the total solve time in nanoseconds
+	 */
+	public long getTotalSolveNanos() {
+		return totalSolveNanos;
+	}
+
+	/**
+	 * Returns how often a control or cell has been asked to compute its size.
+	 * 
+	 * @return the total number of <code>computeSize</code> calls
+	 */
+	public int getComputeSizeCount() {
+		return computeSizeCount;
+	}
+
+	/**
+	 * Returns the number of <code>computeSize</code> calls in the last pass,
+	 * including the calls made by the size requests preceding it.
+	 * 
+	 * @return the number of calls in the last layout pass
+	 */
+	public int getLastPassComputeSizeCount() {
+		return lastPassComputeSizeCount;
+	}
+
+	// Accessing the Cell Statistics ****************************************
+
+	/**
+	 * Returns all controls and virtual cells that have been measured.
+	 * 
+	 * @return the measured cells
+	 */
+	public Object[] getCells() {
+		return cells.keySet().toArray();
+	}
+
+	/**
+	 * Returns how often the given cell has been measured.
+	 * 
+	 * @param cell
+	 *            a control or virtual cell
+	 * @return the number of <code>computeSize</code> calls for the cell
+	 */
+	public int getMeasureCount(Object cell) {
+		CellStatistics statistics = (CellStatistics) cells.get(cell);
+		return statistics == null ? 0 : statistics.count;
+	}
+
+	/**
+	 * Returns the total time spent measuring the given cell.
+	 * 
+	 * @param cell
+	 *            a control or virtual cell
+	 * @return the measuring time in milliseconds, rounded down
+	 */
+	public long getMeasureMillis(Object cell) {
+		return getMeasureNanos(cell) / 1000000L;
+	}
+
+	/**
+	 * Returns the total time spent measuring the given cell in nanoseconds.
+	 * 
+	 * @param cell
+	 *            a control or virtual cell
+	 * @return the measuring time in nanoseconds
+	 */
+	public long getMeasureNanos(Object cell) {
+		CellStatistics statistics = (CellStatistics) cells.get(cell);
+		return statistics == null ? 0 : statistics.nanos;
+	}
+
+	/**
+	 * Returns whether the given cell has been measured in the last layout
+	 * pass or the size requests preceding it, because its cached sizes had
+	 * been invalidated or it was new.
+	 * 
+	 * @param cell
+	 *            a control or virtual cell
+	 * @return true if the cell has been measured in the last pass
+	 */
+	public boolean isMeasuredInLastPass(Object cell) {
+		return measuredInLastPass.contains(cell);
+	}
+
+	// Accessing the Track Sizes ********************************************
+
+	/**
+	 * Returns the column minimum widths of the last layout pass.
+	 * 
+	 * @return the column minimum widths in pixels
+	 */
+	public int[] getColumnMinimumSizes() {
+		return (int[]) columnSizes[0].clone();
+	}
+
+	/**
+	 * Returns the column preferred widths of the last layout pass.
+	 * 
+	 * @return the column preferred widths in pixels
+	 */
+	public int[] getColumnPreferredSizes() {
+		return (int[]) columnSizes[1].clone();
+	}
+
+	/**
+	 * Returns the final column widths of the last layout pass.
+	 * 
+	 * @return the column widths in pixels
+	 */
+	public int[] getColumnSizes() {
+		return (int[]) columnSizes[2].clone();
+	}
+
+	/**
+	 * Returns the row minimum heights of the last layout pass.
+	 * 
+	 * @return the row minimum heights in pixels
+	 */
+	public int[] getRowMinimumSizes() {
+		return (int[]) rowSizes[0].clone();
+	}
+
+	/**
+	 * Returns the row preferred heights of the last layout pass.
+	 * 
+	 * @return the row preferred heights in pixels
+	 */
+	public int[] getRowPreferredSizes() {
+		return (int[]) rowSizes[1].clone();
+	}
+
+	/**
+	 * Returns the final row heights of the last layout pass.
+	 * 
+	 * @return the row heights in pixels
+	 */
+	public int[] getRowSizes() {
+		return (int[]) rowSizes[2].clone();
+	}
+
+	/**
+	 * Clears all statistics.
+	 */
+	public void reset() {
+		passCount = 0;
+		sizeRequestCount = 0;
+		lastSolveNanos = 0;
+		totalSolveNanos = 0;
+		computeSizeCount = 0;
+		lastPassComputeSizeCount = 0;
+		passComputeSizeCount = 0;
+		cells.clear();
+		measuredInPass.clear();
+		measuredInLastPass.clear();
+	}
+
+	// Recording ************************************************************
+
+	void sizeRequested() {
+		sizeRequestCount++;
+	}
+
+	void passFinished(long nanos) {
+		passCount++;
+		lastSolveNanos = nanos;
+		totalSolveNanos += nanos;
+		lastPassComputeSizeCount = passComputeSizeCount;
+		passComputeSizeCount = 0;
+		Set swap = measuredInLastPass;
+		measuredInLastPass = measuredInPass;
+		measuredInPass = swap;
+		measuredInPass.clear();
+	}
+
+	void measured(Object cell, long nanos) {
+		CellStatistics statistics = (CellStatistics) cells.get(cell);
+		if (statistics == null) {
+			statistics = new CellStatistics();
+			cells.put(cell, statistics);
+		}
+		statistics.count++;
+		statistics.nanos += nanos;
+		computeSizeCount++;
+		passComputeSizeCount++;
+		measuredInPass.add(cell);
+	}
+
+	void removed(Object cell) {
+		cells.remove(cell);
+		measuredInPass.remove(cell);
+		measuredInLastPass.remove(cell);
+	}
+
+	void tracksSolved(boolean horizontal, int[] minSizes, int[] prefSizes,
+			int[] sizes) {
+		int[][] target = horizontal ? columnSizes : rowSizes;
+		target[0] = minSizes;
+		target[1] = prefSizes;
+		target[2] = sizes;
+	}
+
+	// Helper Class *********************************************************
+
+	private static final class CellStatistics {
+
+		private int count;
+
+		private long nanos;
+
+	}
+
+}
@@ -30,8 +30,6 @@
 
 package net.ffxml.swtforms.layout;
 
-import java.util.StringTokenizer;
-
 /**
  * Specifies rows in FormLayout by their default orientation, start size and
  * resizing behavior.
@@ -154,28 +152,45 @@ public final class RowSpec extends FormSpec {
 
 	/**
 	 * Parses and splits encoded row specifications and returns an array of
-	 * RowSpec objects.
+	 * RowSpec objects. The specifications may refer to the variables of the
+	 * root {@link LayoutMap} and may repeat specs, for example
+	 * <code>"3*(p, $rgap), p"</code>. Decoded specifications are cached.
 	 * 
 	 * @param encodedRowSpecs
 	 *            comma separated encoded row specifications
 	 * @return an array of decoded row specifications
 	 * @throws NullPointerException
-	 *             if the encoded row specifications string is <code>null</code>
+	 *             if the encoded row specifications string is
+	 *             <code>null</code>
 	 * 
 	 * @see RowSpec#RowSpec(String)
+	 * @see LayoutMap#getRoot()
 	 */
 	public static RowSpec[] decodeSpecs(String encodedRowSpecs) {
-		if (encodedRowSpecs == null)
-			throw new NullPointerException(
-					"The row specification must not be null.");
-
-		StringTokenizer tokenizer = new StringTokenizer(encodedRowSpecs, ", ");
-		int rowCount = tokenizer.countTokens();
-		RowSpec[] rowSpecs = new RowSpec[rowCount];
-		for (int i = 0; i < rowCount; i++) {
-			rowSpecs[i] = new RowSpec(tokenizer.nextToken());
-		}
-		return rowSpecs;
+		return decodeSpecs(encodedRowSpecs, LayoutMap.getRoot());
+	}
+
+	/**
+	 * Parses and splits encoded row specifications using the given
+	 * {@link LayoutMap} to expand variables, and returns an array of RowSpec
+	 * objects.
+	 * 
+	 * @param encodedRowSpecs
+	 *            comma separated encoded row specifications
+	 * @param layoutMap
+	 *            expands variables and caches the decoded specifications
+	 * @return an array of decoded row specifications
+	 * @throws NullPointerException
+	 *             if the encoded row specifications string or the layout
+	 *             map is <code>null</code>
+	 * 
+	 * @see RowSpec#RowSpec(String)
+	 */
+	public static RowSpec[] decodeSpecs(String encodedRowSpecs,
+			LayoutMap layoutMap) {
+		if (layoutMap == null)
+			throw new NullPointerException("The layout map must not be null.");
+		return layoutMap.decodeRowSpecs(encodedRowSpecs);
 	}
 
 }
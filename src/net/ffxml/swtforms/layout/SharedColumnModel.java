@@ -0,0 +1,445 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.layout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.swt.events.DisposeEvent;
+import org.eclipse.swt.events.DisposeListener;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Solves the column widths of several {@link FormLayout}s at once, so that the
+ * columns of many sibling composites line up like the columns of a table. For
+ * example, a list editor that stacks a composite per item attaches the layouts
+ * of all items to one shared model.
+ * <p>
+ * 
+ * The model aggregates the minimum and preferred width of each column over all
+ * attached layouts, solves the column widths once per total width and hands
+ * the same widths to every member. It solves again only if the column
+ * measurements of a member change; in this case it lays out the other
+ * members' composites, so that they take over the new column origins. The
+ * layouts run asynchronously, and changes reported before they run are
+ * coalesced into a single layout of each member.
+ * <p>
+ * 
+ * A member whose composite is disposed is detached, so that the model does
+ * not retain the composite.
+ * <p>
+ * 
+ * All members must have the same column specifications and column groups. A
+ * shared column model is used in the user interface thread only.
+ * 
+ * <pre>
+ * SharedColumnModel columns = new SharedColumnModel();
+ * for (int i = 0; i &lt; items.length; i++) {
+ * 	FormLayout layout = new FormLayout(&quot;right:pref, 3dlu, pref:grow&quot;,
+ * 			&quot;p&quot;);
+ * 	layout.setSharedColumnModel(columns);
+ * 	...
+ * }
+ * </pre>
+ * 
+ * @author Florian Fankhauser
+ * @see FormLayout#setSharedColumnModel(SharedColumnModel)
+ */
+public final class SharedColumnModel {
+
+	/**
+	 * Holds the attached layouts in the order of attachment.
+	 */
+	private final List members = new ArrayList();
+
+	/**
+	 * Maps each member to its last reported {@link Measurement}.
+	 */
+	private final Map measurements = new HashMap();
+
+	private int columnCount = -1;
+
+	/**
+	 * The column minimum widths aggregated over all members.
+	 */
+	private int[] minimumSizes = new int[0];
+
+	/**
+	 * The column preferred widths aggregated over all members.
+	 */
+	private int[] preferredSizes = new int[0];
+
+	/**
+	 * The total width that the solved sizes have been solved for.
+	 */
+	private int solvedWidth;
+
+	/**
+	 * The column widths solved for <code>solvedWidth</code>, or
+	 * <code>null</code> if the aggregated widths have changed since.
+	 */
+	private int[] solvedSizes;
+
+	private int solveCount;
+
+	/**
+	 * Indicates that the layout of the members has been scheduled and has not
+	 * run yet.
+	 */
+	private boolean relayoutScheduled;
+
+	/**
+	 * The member that has caused the most recent change, which need not be
+	 * laid out again, or <code>null</code> if all members must be laid out.
+	 */
+	private FormLayout relayoutOrigin;
+
+	/**
+	 * Lays out the members' containers; scheduled by
+	 * {@link #layoutMembers(FormLayout)}.
+	 */
+	private final Runnable relayout = new Runnable() {
+		public void run() {
+			relayoutMembers();
+		}
+	};
+
+	// Accessors ************************************************************
+
+	/**
+	 * Returns the number of attached layouts.
+	 * 
+	 * @return the number of members
+	 */
+	public int getMemberCount() {
+		return members.size();
+	}
+
+	/**
+	 * Returns the number of columns shared by all members, or -1 if no layout
+	 * has been attached yet.
+	 * 
+	 * @return the number of columns
+	 */
+	public int getColumnCount() {
+		return columnCount;
+	}
+
+	/**
+	 * Returns how often the column widths have been solved. Useful to check
+	 * that the members share a solution.
+	 * 
+	 * @return the number of solutions
+	 */
+	public int getSolveCount() {
+		return solveCount;
+	}
+
+	/**
+	 * Returns the column minimum widths aggregated over all members. The
+	 * returned array must not be modified.
+	 * 
+	 * @return the aggregated column minimum widths in pixels
+	 */
+	int[] getMinimumSizes() {
+		return minimumSizes;
+	}
+
+	/**
+	 * Returns the column preferred widths aggregated over all members. The
+	 * returned array must not be modified.
+	 * 
+	 * @return the aggregated column preferred widths in pixels
+	 */
+	int[] getPreferredSizes() {
+		return preferredSizes;
+	}
+
+	// Attaching Layouts ****************************************************
+
+	/**
+	 * Attaches the given layout. Invoked by
+	 * {@link FormLayout#setSharedColumnModel(SharedColumnModel)}.
+	 * 
+	 * @param layout
+	 *            the layout to attach
+	 * @throws IllegalArgumentException
+	 *             if the layout's column count differs from the model's
+	 */
+	void attach(FormLayout layout) {
+		int count = layout.getColumnCount();
+		if (members.isEmpty()) {
+			columnCount = count;
+		} else if (count != columnCount) {
+			throw new IllegalArgumentException("The layout has " + count
+					+ " columns, but the shared column model has "
+					+ columnCount + ".");
+		}
+		members.add(layout);
+	}
+
+	/**
+	 * Detaches the given layout and lays out the remaining members if the
+	 * aggregated widths change. Invoked by
+	 * {@link FormLayout#setSharedColumnModel(SharedColumnModel)}.
+	 * 
+	 * @param layout
+	 *            the layout to detach
+	 */
+	void detach(FormLayout layout) {
+		members.remove(layout);
+		if (members.isEmpty()) {
+			columnCount = -1;
+		}
+		if (relayoutOrigin == layout) {
+			relayoutOrigin = null;
+		}
+		Measurement measurement = (Measurement) measurements.remove(layout);
+		if (measurement == null)
+			return;
+		measurement.removeDisposeListener();
+		if (aggregate()) {
+			layoutMembers(null);
+		}
+	}
+
+	// Solving **************************************************************
+
+	/**
+	 * Takes over a member's column minimum and preferred widths. If they
+	 * differ from the widths reported before and change the aggregated widths,
+	 * the solution is discarded and the other members are laid out again.
+	 * 
+	 * @param layout
+	 *            the reporting member
+	 * @param container
+	 *            the member's layout container
+	 * @param minSizes
+	 *            the member's column minimum widths
+	 * @param prefSizes
+	 *            the member's column preferred widths
+	 * @throws IllegalStateException
+	 *             if the member's column count has changed since it has been
+	 *             attached
+	 */
+	void update(FormLayout layout, Composite container, int[] minSizes,
+			int[] prefSizes) {
+		if (minSizes.length != columnCount)
+			throw new IllegalStateException("The layout has "
+					+ minSizes.length
+					+ " columns, but the shared column model has "
+					+ columnCount + ".");
+		Measurement old = (Measurement) measurements.get(layout);
+		if (old != null && old.container == container
+				&& Arrays.equals(old.minSizes, minSizes)
+				&& Arrays.equals(old.prefSizes, prefSizes))
+			return;
+		DisposeListener disposeListener;
+		if (old != null && old.container == container) {
+			disposeListener = old.disposeListener;
+		} else {
+			if (old != null) {
+				old.removeDisposeListener();
+			}
+			disposeListener = new MemberDisposal(layout);
+			container.addDisposeListener(disposeListener);
+		}
+		measurements.put(layout, new Measurement(container, minSizes,
+				prefSizes, disposeListener));
+		if (aggregate()) {
+			layoutMembers(layout);
+		}
+	}
+
+	/**
+	 * Returns the column widths for the given total width. Solves them with
+	 * the aggregated minimum and preferred widths, unless they have been
+	 * solved for this width before. The returned array must not be modified.
+	 * 
+	 * @param layout
+	 *            the member that asks for the widths
+	 * @param totalWidth
+	 *            the total width to assign
+	 * @return the shared column widths in pixels
+	 */
+	int[] solve(FormLayout layout, int totalWidth) {
+		if (solvedSizes == null || solvedWidth != totalWidth) {
+			solvedSizes = layout.solveColumnSizes(totalWidth, minimumSizes,
+					preferredSizes);
+			solvedWidth = totalWidth;
+			solveCount++;
+		}
+		return solvedSizes;
+	}
+
+	/**
+	 * Aggregates the widths of all members and discards the solution if the
+	 * aggregated widths have changed.
+	 * 
+	 * @return true if the aggregated widths have changed
+	 */
+	private boolean aggregate() {
+		int[] newMinSizes = new int[Math.max(columnCount, 0)];
+		int[] newPrefSizes = new int[newMinSizes.length];
+		for (int i = 0; i < members.size(); i++) {
+			Measurement measurement = (Measurement) measurements.get(members
+					.get(i));
+			if (measurement == null)
+				continue;
+			for (int col = 0; col < newMinSizes.length; col++) {
+				newMinSizes[col] = Math.max(newMinSizes[col],
+						measurement.minSizes[col]);
+				newPrefSizes[col] = Math.max(newPrefSizes[col],
+						measurement.prefSizes[col]);
+			}
+		}
+		if (Arrays.equals(minimumSizes, newMinSizes)
+				&& Arrays.equals(preferredSizes, newPrefSizes))
+			return false;
+		minimumSizes = newMinSizes;
+		preferredSizes = newPrefSizes;
+		solvedSizes = null;
+		return true;
+	}
+
+	/**
+	 * Schedules a layout of the containers of all members except the given
+	 * one, so that they take over the new column widths. Changes reported
+	 * before the layout runs are coalesced; only the member that caused the
+	 * most recent change is skipped.
+	 * 
+	 * @param origin
+	 *            the member that caused the change, or <code>null</code>
+	 */
+	private void layoutMembers(FormLayout origin) {
+		relayoutOrigin = origin;
+		if (relayoutScheduled)
+			return;
+		Display display = getDisplay();
+		if (display == null)
+			return;
+		relayoutScheduled = true;
+		display.asyncExec(relayout);
+	}
+
+	/**
+	 * Lays out the containers of all members except the origin of the most
+	 * recent change. If the widths change again while the members are laid
+	 * out, another layout is scheduled.
+	 */
+	private void relayoutMembers() {
+		relayoutScheduled = false;
+		FormLayout origin = relayoutOrigin;
+		relayoutOrigin = null;
+		Object[] layouts = members.toArray();
+		for (int i = 0; i < layouts.length; i++) {
+			if (layouts[i] == origin)
+				continue;
+			Measurement measurement = (Measurement) measurements
+					.get(layouts[i]);
+			if (measurement == null || measurement.container.isDisposed())
+				continue;
+			measurement.container.layout(false);
+		}
+	}
+
+	/**
+	 * Returns the Display of the members' containers, or <code>null</code>
+	 * if no member with a live container has reported its widths.
+	 */
+	private Display getDisplay() {
+		for (Iterator i = measurements.values().iterator(); i.hasNext();) {
+			Composite container = ((Measurement) i.next()).container;
+			if (!container.isDisposed())
+				return container.getDisplay();
+		}
+		return null;
+	}
+
+	// Helper Classes *******************************************************
+
+	/**
+	 * Holds the column widths last reported by a member.
+	 */
+	private static final class Measurement {
+
+		private final Composite container;
+
+		private final int[] minSizes;
+
+		private final int[] prefSizes;
+
+		/**
+		 * Detaches the member when its container is disposed.
+		 */
+		private final DisposeListener disposeListener;
+
+		private Measurement(Composite container, int[] minSizes,
+				int[] prefSizes, DisposeListener disposeListener) {
+			this.container = container;
+			this.minSizes = minSizes;
+			this.prefSizes = prefSizes;
+			this.disposeListener = disposeListener;
+		}
+
+		private void removeDisposeListener() {
+			if (!container.isDisposed()) {
+				container.removeDisposeListener(disposeListener);
+			}
+		}
+
+	}
+
+	/**
+	 * Detaches a member from this model when its container is disposed.
+	 */
+	private final class MemberDisposal implements DisposeListener {
+
+		private final FormLayout layout;
+
+		private MemberDisposal(FormLayout layout) {
+			this.layout = layout;
+		}
+
+		public void widgetDisposed(DisposeEvent e) {
+			if (layout.getSharedColumnModel() == SharedColumnModel.this) {
+				layout.setSharedColumnModel(null);
+			}
+		}
+
+	}
+
+}
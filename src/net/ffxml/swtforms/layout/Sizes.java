@@ -34,7 +34,9 @@ import java.io.Serializable;
 import java.util.Iterator;
 import java.util.List;
 
+import net.ffxml.swtforms.util.AbstractUnitConverter;
 import net.ffxml.swtforms.util.DefaultUnitConverter;
+import net.ffxml.swtforms.util.DisplayContext;
 import net.ffxml.swtforms.util.UnitConverter;
 
 import org.eclipse.swt.widgets.Composite;
@@ -112,9 +114,10 @@ public final class Sizes {
 	// Singleton State *******************************************************
 
 	/**
-	 * Holds the current converter that maps non-pixel sizes to pixels.
+	 * Counts the changes that invalidate pixel sizes computed before, for
+	 * example a new unit converter, dialog font or screen resolution.
 	 */
-	private static UnitConverter unitConverter;
+	private static volatile int conversionEpoch = 0;
 
 	// Instance Creation ******************************************************
 
@@ -139,6 +142,31 @@ public final class Sizes {
 		return ConstantSize.valueOf(encodedValueAndUnit, horizontal);
 	}
 
+	/**
+	 * Creates and returns an instance of <code>ConstantSize</code> for the
+	 * given value and unit. Unlike {@link #constant(String, boolean)} this
+	 * method does not parse; it is used by precompiled layout specifications.
+	 * 
+	 * @param value
+	 *            the size value interpreted in the given unit
+	 * @param unit
+	 *            the size's unit
+	 * @return a <code>ConstantSize</code> for the given value and unit
+	 * @throws NullPointerException
+	 *             if the unit is <code>null</code>
+	 * @throws IllegalArgumentException
+	 *             if the unit requires integers but the value is not an
+	 *             integer
+	 */
+	public static ConstantSize constant(double value, ConstantSize.Unit unit) {
+		if (unit == null)
+			throw new NullPointerException("The unit must not be null.");
+		if (unit.requiresIntegers && value != (int) value)
+			throw new IllegalArgumentException(unit.toString() + " value "
+					+ value + " must be an integer.");
+		return new ConstantSize(value, unit);
+	}
+
 	/**
 	 * Creates and returns a ConstantSize for the specified value in horizontal
 	 * dialog units.
@@ -238,6 +266,82 @@ public final class Sizes {
 		return pt == 0 ? 0 : getUnitConverter().pointAsPixel(pt);
 	}
 
+	/**
+	 * Converts Inches and returns pixels using the resolution of the monitor
+	 * that shows the given control.
+	 * 
+	 * @param in
+	 *            the Inches
+	 * @param control
+	 *            the control, may be <code>null</code>
+	 * @return the given Inches as pixels
+	 */
+	public static int inchAsPixel(double in, Control control) {
+		if (in == 0d)
+			return 0;
+		UnitConverter converter = getUnitConverter(control);
+		return converter instanceof AbstractUnitConverter ? ((AbstractUnitConverter) converter)
+				.inchAsPixel(in, control)
+				: converter.inchAsPixel(in);
+	}
+
+	/**
+	 * Converts Millimeters and returns pixels using the resolution of the
+	 * monitor that shows the given control.
+	 * 
+	 * @param mm
+	 *            Millimeters
+	 * @param control
+	 *            the control, may be <code>null</code>
+	 * @return the given Millimeters as pixels
+	 */
+	public static int millimeterAsPixel(double mm, Control control) {
+		if (mm == 0d)
+			return 0;
+		UnitConverter converter = getUnitConverter(control);
+		return converter instanceof AbstractUnitConverter ? ((AbstractUnitConverter) converter)
+				.millimeterAsPixel(mm, control)
+				: converter.millimeterAsPixel(mm);
+	}
+
+	/**
+	 * Converts Centimeters and returns pixels using the resolution of the
+	 * monitor that shows the given control.
+	 * 
+	 * @param cm
+	 *            Centimeters
+	 * @param control
+	 *            the control, may be <code>null</code>
+	 * @return the given Centimeters as pixels
+	 */
+	public static int centimeterAsPixel(double cm, Control control) {
+		if (cm == 0d)
+			return 0;
+		UnitConverter converter = getUnitConverter(control);
+		return converter instanceof AbstractUnitConverter ? ((AbstractUnitConverter) converter)
+				.centimeterAsPixel(cm, control)
+				: converter.centimeterAsPixel(cm);
+	}
+
+	/**
+	 * Converts DTP Points and returns pixels using the resolution of the
+	 * monitor that shows the given control.
+	 * 
+	 * @param pt
+	 *            DTP Points
+	 * @param control
+	 *            the control, may be <code>null</code>
+	 * @return the given Points as pixels
+	 */
+	public static int pointAsPixel(int pt, Control control) {
+		if (pt == 0)
+			return 0;
+		UnitConverter converter = getUnitConverter(control);
+		return converter instanceof AbstractUnitConverter ? ((AbstractUnitConverter) converter)
+				.pointAsPixel(pt, control)
+				: converter.pointAsPixel(pt);
+	}
+
 	/**
 	 * Converts horizontal dialog units and returns pixels. Honors the
 	 * resolution, dialog font size, platform, and l&amp;f.
@@ -249,8 +353,8 @@ public final class Sizes {
 	 * @return the given horizontal dialog units as pixels
 	 */
 	public static int dialogUnitXAsPixel(int dluX, Control component) {
-		return dluX == 0 ? 0 : getUnitConverter().dialogUnitXAsPixel(dluX,
-				component);
+		return dluX == 0 ? 0 : getUnitConverter(component).dialogUnitXAsPixel(
+				dluX, component);
 	}
 
 	/**
@@ -264,38 +368,101 @@ public final class Sizes {
 	 * @return the given vertical dialog units as pixels
 	 */
 	public static int dialogUnitYAsPixel(int dluY, Control component) {
-		return dluY == 0 ? 0 : getUnitConverter().dialogUnitYAsPixel(dluY,
-				component);
+		return dluY == 0 ? 0 : getUnitConverter(component).dialogUnitYAsPixel(
+				dluY, component);
 	}
 
 	// Accessing the Unit Converter *******************************************
 
 	/**
-	 * Returns the current {@link UnitConverter}. If it has not been
-	 * initialized before it will get an instance of
-	 * {@link DefaultUnitConverter}.
+	 * Returns the current {@link UnitConverter}, that is the converter used
+	 * for the calling thread's Display. Unless a converter has been set it
+	 * is the Display's {@link DefaultUnitConverter}.
 	 * 
 	 * @return the current <code>UnitConverter</code>
+	 * @see DisplayContext#getUnitConverter()
 	 */
 	public static UnitConverter getUnitConverter() {
-		if (unitConverter == null) {
-			unitConverter = DefaultUnitConverter.getInstance();
-		}
-		return unitConverter;
+		return DisplayContext.getCurrent().getUnitConverter();
+	}
+
+	/**
+	 * Returns the {@link UnitConverter} used for the given control's Display.
+	 * 
+	 * @param control
+	 *            the control, may be <code>null</code>
+	 * @return the <code>UnitConverter</code> for the control's Display
+	 */
+	private static UnitConverter getUnitConverter(Control control) {
+		return DisplayContext.forControl(control).getUnitConverter();
 	}
 
 	/**
 	 * Sets a new UnitConverter that will be used to convert font-dependent
-	 * sizes to pixel sizes.
+	 * sizes to pixel sizes on all Displays that have no converter of their
+	 * own.
 	 * 
 	 * @param newUnitConverter
-	 *            the unit converter to be set
+	 *            the unit converter to be set, <code>null</code> to use the
+	 *            <code>DefaultUnitConverter</code> of each Display
+	 * @see DisplayContext#setUnitConverter(UnitConverter)
 	 */
 	public static void setUnitConverter(UnitConverter newUnitConverter) {
-		unitConverter = newUnitConverter;
+		DisplayContext.setDefaultUnitConverter(newUnitConverter);
+		invalidateConversions();
+	}
+
+	// Conversion Caching ***************************************************
+
+	/**
+	 * Returns the current conversion epoch. The epoch changes whenever pixel
+	 * sizes computed before may have become invalid; constant sizes cache
+	 * their pixel sizes per epoch.
+	 * 
+	 * @return the current conversion epoch
+	 * @see #invalidateConversions()
+	 */
+	public static int getConversionEpoch() {
+		return conversionEpoch;
+	}
+
+	/**
+	 * Invalidates all cached pixel sizes by starting a new conversion epoch.
+	 * Invoked if the unit converter changes; unit converters invoke it if
+	 * their dialog font or resolution changes. Call it yourself after you
+	 * change a unit converter's state in a way it cannot observe.
+	 */
+	public static synchronized void invalidateConversions() {
+		conversionEpoch++;
+	}
+
+	/**
+	 * Returns what the pixel sizes converted for the given control depend on.
+	 * The key is remembered per Display for the most recent control until
+	 * the next epoch or until the control is flushed.
+	 * 
+	 * @param control
+	 *            the control, may be <code>null</code>
+	 * @return the conversion key for the control
+	 * @see DisplayContext#getConversionKey(Control)
+	 */
+	static DisplayContext.ConversionKey getConversionKey(Control control) {
+		return DisplayContext.forControl(control).getConversionKey(control);
+	}
+
+	/**
+	 * Forgets the remembered conversion key for the given control, for
+	 * example because its font or monitor may have changed. Invoked if a
+	 * layout is flushed.
+	 * 
+	 * @param control
+	 *            the control to forget
+	 */
+	static void flushConversionKey(Control control) {
+		DisplayContext.forControl(control).flushConversionKey(control);
 	}
 
-	// Helper Class *********************************************************
+	// Helper Classes *******************************************************
 
 	/**
 	 * An ordinal-based serializable typesafe enumeration that implements the
@@ -345,8 +512,7 @@ public final class Sizes {
 					: (this == PREFERRED ? prefMeasure : defaultMeasure);
 			int maximum = 0;
 			for (Iterator i = controls.iterator(); i.hasNext();) {
-				Control c = (Control) i.next();
-				maximum = Math.max(maximum, measure.sizeOf(c));
+				maximum = Math.max(maximum, measure.sizeOf(i.next()));
 			}
 			return maximum;
 		}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.layout;
+
+import java.util.Locale;
+
+/**
+ * Encodes column specifications, row specifications and cell constraints as
+ * Java source expressions that construct equal instances without parsing.
+ * Used by build tools that precompile encoded layout descriptions into Java
+ * constants, for example the Ant task
+ * <code>net.ffxml.swtforms.tools.PrecompileSpecsTask</code>.
+ * <p>
+ * 
+ * <strong>Example:</strong>
+ * 
+ * <pre>
+ * SpecSourceEncoder.encode(new ColumnSpec(&quot;r:max(50dlu;p)&quot;));
+ * // new ColumnSpec(ColumnSpec.RIGHT, Sizes.bounded(Sizes.PREFERRED,
+ * //     Sizes.dluX(50), null), ColumnSpec.NO_GROW)
+ * </pre>
+ * 
+ * The generated expressions refer to the classes <code>ColumnSpec</code>,
+ * <code>RowSpec</code>, <code>CellConstraints</code>,
+ * <code>ConstantSize</code> and <code>Sizes</code> by their simple names;
+ * the enclosing source file must import them.
+ * 
+ * @author Florian Fankhauser
+ * @see ColumnSpec#decodeSpecs(String)
+ * @see RowSpec#decodeSpecs(String)
+ */
+public final class SpecSourceEncoder {
+
+	private SpecSourceEncoder() {
+		// Suppresses default constructor, ensuring non-instantiability.
+	}
+
+	// Encoding Specs *******************************************************
+
+	/**
+	 * Returns a Java expression that constructs a spec equal to the given
+	 * column or row spec.
+	 * 
+	 * @param spec
+	 *            the column or row spec to encode
+	 * @return a Java expression that creates an equal spec
+	 * @throws NullPointerException
+	 *             if the spec is <code>null</code>
+	 */
+	public static String encode(FormSpec spec) {
+		String className = spec.isHorizontal() ? "ColumnSpec" : "RowSpec";
+		StringBuffer buffer = new StringBuffer();
+		buffer.append("new ").append(className).append('(');
+		buffer.append(className).append('.').append(
+				spec.getDefaultAlignment().toString().toUpperCase(
+						Locale.ENGLISH));
+		buffer.append(", ");
+		buffer.append(encode(spec.getSize()));
+		buffer.append(", ");
+		buffer.append(encodeResizeWeight(className, spec.getResizeWeight()));
+		buffer.append(')');
+		return buffer.toString();
+	}
+
+	/**
+	 * Returns a Java expression that constructs a size equal to the given
+	 * constant, component or bounded size.
+	 * 
+	 * @param size
+	 *            the size to encode
+	 * @return a Java expression that creates an equal size
+	 * @throws NullPointerException
+	 *             if the size is <code>null</code>
+	 * @throws IllegalArgumentException
+	 *             if the size is not one of the sizes provided by this package
+	 */
+	public static String encode(Size size) {
+		if (size == Sizes.MINIMUM)
+			return "Sizes.MINIMUM";
+		if (size == Sizes.PREFERRED)
+			return "Sizes.PREFERRED";
+		if (size == Sizes.DEFAULT)
+			return "Sizes.DEFAULT";
+		if (size instanceof ConstantSize)
+			return encodeConstantSize((ConstantSize) size);
+		if (size instanceof BoundedSize) {
+			BoundedSize boundedSize = (BoundedSize) size;
+			return "Sizes.bounded(" + encode(boundedSize.getBasis()) + ", "
+					+ encodeOptional(boundedSize.getLowerBound()) + ", "
+					+ encodeOptional(boundedSize.getUpperBound()) + ')';
+		}
+		throw new IllegalArgumentException("Cannot encode the size " + size
+				+ " of type " + size.getClass().getName() + '.');
+	}
+
+	// Encoding Cell Constraints ********************************************
+
+	/**
+	 * Returns a Java expression that constructs cell constraints equal to the
+	 * given ones. Insets are not encoded, since the string encoding of cell
+	 * constraints cannot describe them.
+	 * 
+	 * @param constraints
+	 *            the cell constraints to encode
+	 * @return a Java expression that creates equal cell constraints
+	 * @throws NullPointerException
+	 *             if the constraints are <code>null</code>
+	 */
+	public static String encode(CellConstraints constraints) {
+		StringBuffer buffer = new StringBuffer("new CellConstraints(");
+		buffer.append(constraints.gridX).append(", ");
+		buffer.append(constraints.gridY).append(", ");
+		buffer.append(constraints.gridWidth).append(", ");
+		buffer.append(constraints.gridHeight).append(", ");
+		buffer.append("CellConstraints.").append(
+				constraints.hAlign.toString().toUpperCase(Locale.ENGLISH));
+		buffer.append(", ");
+		buffer.append("CellConstraints.").append(
+				constraints.vAlign.toString().toUpperCase(Locale.ENGLISH));
+		buffer.append(')');
+		return buffer.toString();
+	}
+
+	// Helper Code **********************************************************
+
+	private static String encodeOptional(Size size) {
+		return size == null ? "null" : encode(size);
+	}
+
+	private static String encodeConstantSize(ConstantSize size) {
+		ConstantSize.Unit unit = size.getUnit();
+		double value = size.getValue();
+		if (unit == ConstantSize.PIXEL)
+			return "Sizes.pixel(" + (int) value + ')';
+		if (unit == ConstantSize.DLUX)
+			return "Sizes.dluX(" + (int) value + ')';
+		if (unit == ConstantSize.DLUY)
+			return "Sizes.dluY(" + (int) value + ')';
+
+		String unitName;
+		if (unit == ConstantSize.POINT)
+			unitName = "POINT";
+		else if (unit == ConstantSize.MM)
+			unitName = "MM";
+		else if (unit == ConstantSize.CM)
+			unitName = "CM";
+		else if (unit == ConstantSize.IN)
+			unitName = "IN";
+		else
+			throw new IllegalStateException("Invalid unit " + unit);
+		return "Sizes.constant(" + encodeDouble(value) + ", ConstantSize."
+				+ unitName + ')';
+	}
+
+	private static String encodeResizeWeight(String className, double weight) {
+		if (weight == FormSpec.NO_GROW)
+			return className + ".NO_GROW";
+		if (weight == FormSpec.DEFAULT_GROW)
+			return className + ".DEFAULT_GROW";
+		return encodeDouble(weight);
+	}
+
+	private static String encodeDouble(double value) {
+		return Double.toString(value) + 'd';
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.layout;
+
+import org.eclipse.swt.graphics.Point;
+
+/**
+ * Describes a cell content that is laid out by a {@link FormLayout} like a
+ * control but has no native widget, for example a text that the layout
+ * container paints itself. A <code>FormLayout</code> measures virtual cells,
+ * takes them into account when it computes column widths and row heights,
+ * and assigns them their bounds.
+ * 
+ * @author Florian Fankhauser
+ * @see FormLayout#setConstraints(VirtualCell, CellConstraints)
+ */
+public interface VirtualCell {
+
+	/**
+	 * Computes and returns the size of this cell for the given hints, like
+	 * <code>Control#computeSize(int, int)</code>.
+	 * 
+	 * @param wHint
+	 *            the width hint, or <code>SWT.DEFAULT</code>
+	 * @param hHint
+	 *            the height hint, or <code>SWT.DEFAULT</code>
+	 * @return this cell's size
+	 */
+	Point computeSize(int wHint, int hHint);
+
+	/**
+	 * Sets this cell's bounds in the coordinates of the layout container.
+	 * 
+	 * @param x
+	 *            the horizontal origin
+	 * @param y
+	 *            the vertical origin
+	 * @param width
+	 *            the width
+	 * @param height
+	 *            the height
+	 */
+	void setBounds(int x, int y, int width, int height);
+
+}
@@ -30,13 +30,24 @@
 
 package net.ffxml.swtforms.util;
 
+import java.lang.reflect.Method;
+
 import org.eclipse.swt.graphics.FontMetrics;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Monitor;
 
 /**
  * An abstract implementation of the {@link UnitConverter} that minimizes the
  * effort required to convert font-dependent sizes to pixels.
+ * <p>
+ * 
+ * The control-aware conversions honor the resolution of the monitor that
+ * shows the control. SWT versions that provide a per-monitor zoom scale the
+ * default resolution by the ratio of the monitor's zoom to the primary
+ * monitor's zoom; other versions use the default resolution for all
+ * monitors. Override {@link #getMonitorResolution(Monitor)} to provide a
+ * platform specific resolution.
  * 
  * @author Karsten Lentzsch
  * @version $Revision: 1.2 $
@@ -48,6 +59,39 @@ abstract public class AbstractUnitConverter implements UnitConverter {
 
 	private static final int DTP_RESOLUTION = 72;
 
+	/**
+	 * The number of point sizes, starting at 0, whose pixel sizes are looked
+	 * up in a table.
+	 */
+	private static final int POINT_TABLE_SIZE = 97;
+
+	/**
+	 * Holds the pixel sizes of the points 0 to <code>POINT_TABLE_SIZE</code>
+	 * - 1 for the most recently used resolution.
+	 */
+	private volatile PointTable pointTable;
+
+	/**
+	 * Used as resolution if there is no Display to ask for its resolution.
+	 */
+	private static final int FALLBACK_SCREEN_RESOLUTION = 96;
+
+	/**
+	 * Holds the <code>Monitor#getZoom()</code> method of SWT versions that
+	 * support per-monitor scaling, <code>null</code> if unavailable.
+	 */
+	private static Method monitorZoomMethod;
+
+	private static boolean monitorZoomMethodLookedUp = false;
+
+	/**
+	 * Indicates whether SWT scales coordinates by the monitor zoom itself,
+	 * that is whether autoscaling has not been turned off with the system
+	 * property <code>swt.autoScale=false</code>.
+	 */
+	private static final boolean SWT_AUTO_SCALE = !"false"
+			.equalsIgnoreCase(getSystemProperty("swt.autoScale"));
+
 	// Unit Converter Implementation
 	// *********************************************
 
@@ -95,6 +139,66 @@ abstract public class AbstractUnitConverter implements UnitConverter {
 		return pointAsPixel(pt, getScreenResolution());
 	}
 
+	/**
+	 * Converts Inches and returns pixels using the resolution of the monitor
+	 * that shows the given control.
+	 * 
+	 * @param in
+	 *            the Inches
+	 * @param c
+	 *            the control, may be <code>null</code> for the default
+	 *            resolution
+	 * @return the given Inches as pixels
+	 */
+	public int inchAsPixel(double in, Control c) {
+		return inchAsPixel(in, getScreenResolution(c));
+	}
+
+	/**
+	 * Converts Millimeters and returns pixels using the resolution of the
+	 * monitor that shows the given control.
+	 * 
+	 * @param mm
+	 *            Millimeters
+	 * @param c
+	 *            the control, may be <code>null</code> for the default
+	 *            resolution
+	 * @return the given Millimeters as pixels
+	 */
+	public int millimeterAsPixel(double mm, Control c) {
+		return millimeterAsPixel(mm, getScreenResolution(c));
+	}
+
+	/**
+	 * Converts Centimeters and returns pixels using the resolution of the
+	 * monitor that shows the given control.
+	 * 
+	 * @param cm
+	 *            Centimeters
+	 * @param c
+	 *            the control, may be <code>null</code> for the default
+	 *            resolution
+	 * @return the given Centimeters as pixels
+	 */
+	public int centimeterAsPixel(double cm, Control c) {
+		return centimeterAsPixel(cm, getScreenResolution(c));
+	}
+
+	/**
+	 * Converts DTP Points and returns pixels using the resolution of the
+	 * monitor that shows the given control.
+	 * 
+	 * @param pt
+	 *            DTP Points
+	 * @param c
+	 *            the control, may be <code>null</code> for the default
+	 *            resolution
+	 * @return the given Points as pixels
+	 */
+	public int pointAsPixel(int pt, Control c) {
+		return pointAsPixel(pt, getScreenResolution(c));
+	}
+
 	/**
 	 * Converts horizontal dialog units and returns pixels. Honors the
 	 * resolution and dialog font size.
@@ -145,6 +249,24 @@ abstract public class AbstractUnitConverter implements UnitConverter {
 	 */
 	abstract protected double getDialogBaseUnitsY(Control control);
 
+	/**
+	 * Returns an object that identifies the dialog base units used to convert
+	 * dialog units for the given control. Two calls must return the same
+	 * object only if the dialog base units are the same. Used to cache pixel
+	 * sizes; this default returns <code>null</code>, which disables the
+	 * caching of dialog unit conversions.
+	 * 
+	 * @param control
+	 *            a control that provides the fontmetrics, may be
+	 *            <code>null</code>
+	 * @return an object that identifies the dialog base units, or
+	 *         <code>null</code>
+	 * @see net.ffxml.swtforms.layout.Sizes#invalidateConversions()
+	 */
+	public Object getDialogBaseUnitsKey(Control control) {
+		return null;
+	}
+
 	// Convenience Methods ***************************************************
 
 	/**
@@ -196,7 +318,14 @@ abstract public class AbstractUnitConverter implements UnitConverter {
 	 * @return the given Points as pixels
 	 */
 	protected final int pointAsPixel(int pt, int dpi) {
-		return Math.round(dpi * pt / DTP_RESOLUTION);
+		if (pt < 0 || pt >= POINT_TABLE_SIZE)
+			return Math.round(dpi * pt / DTP_RESOLUTION);
+		PointTable table = pointTable;
+		if (table == null || table.dpi != dpi) {
+			table = new PointTable(dpi);
+			pointTable = table;
+		}
+		return table.pixels[pt];
 	}
 
 	/**
@@ -227,6 +356,24 @@ abstract public class AbstractUnitConverter implements UnitConverter {
 
 	// Helper Code ************************************************************
 
+	/**
+	 * Maps the points 0 to <code>POINT_TABLE_SIZE</code> - 1 to pixels for
+	 * a resolution.
+	 */
+	private static final class PointTable {
+
+		final int dpi;
+		final int[] pixels;
+
+		PointTable(int dpi) {
+			this.dpi = dpi;
+			this.pixels = new int[POINT_TABLE_SIZE];
+			for (int pt = 0; pt < POINT_TABLE_SIZE; pt++) {
+				pixels[pt] = Math.round(dpi * pt / DTP_RESOLUTION);
+			}
+		}
+	}
+
 	protected double computeAverageCharWidth(FontMetrics metrics) {
 		return metrics.getAverageCharWidth();
 	}
@@ -243,18 +390,113 @@ abstract public class AbstractUnitConverter implements UnitConverter {
 		return getDefaultScreenResolution();
 	}
 
-	private static int defaultScreenResolution = -1;
+	/**
+	 * Returns the resolution of the monitor that shows the given control, or
+	 * the default resolution if the control is <code>null</code> or
+	 * disposed.
+	 * 
+	 * @param control
+	 *            the control, may be <code>null</code>
+	 * @return the resolution in dpi used to convert sizes for the control
+	 */
+	public int getScreenResolution(Control control) {
+		if (control == null || control.isDisposed())
+			return getScreenResolution();
+		return getMonitorResolution(control.getMonitor());
+	}
 
 	/**
-	 * Computes and returns the default resolution.
+	 * Returns the resolution of the given monitor. Scales the default
+	 * resolution by the ratio of the monitor's zoom to the primary monitor's
+	 * zoom, if the SWT version provides a per-monitor zoom and SWT's
+	 * autoscaling is turned off. With autoscaling, which is the default of
+	 * the SWT versions that provide a per-monitor zoom, SWT itself scales
+	 * the coordinates of controls on a monitor by its zoom; scaling the
+	 * resolution as well would scale the sizes twice.
+	 * 
+	 * @param monitor
+	 *            the monitor, may be <code>null</code>
+	 * @return the monitor's resolution in dpi
+	 */
+	protected int getMonitorResolution(Monitor monitor) {
+		int resolution = getScreenResolution();
+		if (monitor == null || SWT_AUTO_SCALE)
+			return resolution;
+		int zoom = getMonitorZoom(monitor);
+		Display display = getDisplay();
+		int primaryZoom = display == null ? -1 : getMonitorZoom(display
+				.getPrimaryMonitor());
+		if (zoom <= 0 || primaryZoom <= 0 || zoom == primaryZoom)
+			return resolution;
+		return resolution * zoom / primaryZoom;
+	}
+
+	/**
+	 * Reads a system property; answers <code>null</code> if the property is
+	 * not set or cannot be read.
+	 */
+	private static String getSystemProperty(String key) {
+		try {
+			return System.getProperty(key);
+		} catch (SecurityException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the zoom of the given monitor in percent, or -1 if the SWT
+	 * version does not provide a per-monitor zoom.
+	 */
+	private static synchronized int getMonitorZoom(Monitor monitor) {
+		if (monitor == null)
+			return -1;
+		if (!monitorZoomMethodLookedUp) {
+			monitorZoomMethodLookedUp = true;
+			try {
+				monitorZoomMethod = Monitor.class.getMethod("getZoom",
+						new Class[0]);
+			} catch (NoSuchMethodException e) {
+				monitorZoomMethod = null;
+			}
+		}
+		if (monitorZoomMethod == null)
+			return -1;
+		try {
+			return ((Integer) monitorZoomMethod.invoke(monitor, new Object[0]))
+					.intValue();
+		} catch (Exception e) {
+			return -1;
+		}
+	}
+
+	private int defaultScreenResolution = -1;
+
+	/**
+	 * Computes and returns the default resolution, that is the resolution of
+	 * this converter's Display. Returns a fallback resolution without
+	 * remembering it if there is no Display.
 	 * 
 	 * @return the default screen resolution
 	 */
 	protected int getDefaultScreenResolution() {
 		if (defaultScreenResolution == -1) {
-			defaultScreenResolution = Display.getCurrent().getDPI().x;
+			Display display = getDisplay();
+			if (display == null || display.isDisposed())
+				return FALLBACK_SCREEN_RESOLUTION;
+			defaultScreenResolution = display.getDPI().x;
 		}
 		return defaultScreenResolution;
 	}
 
+	/**
+	 * Returns the Display this converter converts sizes for. The default
+	 * implementation returns the calling thread's Display.
+	 * 
+	 * @return the Display this converter converts for, may be
+	 *         <code>null</code>
+	 */
+	protected Display getDisplay() {
+		return Display.getCurrent();
+	}
+
 }
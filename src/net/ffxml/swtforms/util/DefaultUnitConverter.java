@@ -32,10 +32,28 @@ package net.ffxml.swtforms.util;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
-import java.util.HashMap;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import net.ffxml.swtforms.layout.Sizes;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.FontMetrics;
 import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.widgets.Control;
@@ -62,6 +80,13 @@ import org.eclipse.swt.widgets.Display;
  * 
  * Since the Forms 1.1 this converter logs font information at the
  * <code>CONFIG</code> level.
+ * <p>
+ * 
+ * Dialog base units are cached per {@link FontDescriptor} and monitor
+ * resolution in a least recently used cache that holds at most
+ * <em>maximumCacheSize</em> entries. Evicted entries are reported as changes
+ * of the property <em>evictedFont</em>, whose new value is the descriptor
+ * of the evicted font.
  * 
  * @author Karsten Lentzsch
  * @version $Revision: 1.2 $
@@ -74,9 +99,38 @@ public final class DefaultUnitConverter extends AbstractUnitConverter {
 			.getLogger(DefaultUnitConverter.class.getName());
 
 	/**
-	 * Holds the sole instance that will be lazily instantiated.
+	 * The name of the property that is fired when the dialog base units of a
+	 * font have been evicted from the cache.
+	 */
+	public static final String PROPERTYNAME_EVICTED_FONT = "evictedFont";
+
+	/**
+	 * The default maximum number of fonts whose dialog base units are cached.
+	 */
+	public static final int DEFAULT_MAXIMUM_CACHE_SIZE = 32;
+
+	/**
+	 * The number of dialog units, starting at 0, whose pixel sizes are
+	 * precomputed for each dialog font.
+	 */
+	private static final int DIALOG_UNIT_TABLE_SIZE = 129;
+
+	/**
+	 * Identifies files written by {@link #saveCache(File)}.
 	 */
-	private static DefaultUnitConverter instance;
+	private static final int CACHE_FILE_MAGIC = 0x53574442;
+
+	/**
+	 * The version of the cache file format.
+	 */
+	private static final int CACHE_FILE_VERSION = 1;
+
+	/**
+	 * The maximum number of entries and characters in a font name that are
+	 * accepted when reading a cache file; larger values indicate a corrupt
+	 * file.
+	 */
+	private static final int CACHE_FILE_LIMIT = 4096;
 
 	/**
 	 * Holds the font that is used to compute the global dialog base units. By
@@ -103,34 +157,95 @@ public final class DefaultUnitConverter extends AbstractUnitConverter {
 	 * Holds the cached global dialog base units that are used if a component is
 	 * not (yet) available - for example in a Border.
 	 */
-	private DialogBaseUnits cachedGlobalDialogBaseUnits = computeGlobalDialogBaseUnits();
+	private DialogBaseUnits cachedGlobalDialogBaseUnits;
+
+	/**
+	 * Maps <code>CacheKey</code>s to dialog base units in access order. This
+	 * is a second-level cache, that stores dialog base units for a font's
+	 * name, height and style on a monitor resolution.
+	 */
+	private final Map cachedDialogBaseUnits = new LinkedHashMap(16, 0.75f,
+			true);
+
+	/**
+	 * Maps fonts weakly to their <code>FontDescriptor</code>s. This is the
+	 * first-level cache, that avoids to read the font data of a font on every
+	 * lookup. Fonts compare by their native handle, which is cleared when the
+	 * font is disposed; hence a disposed font never matches a new font.
+	 * Guarded by the lock of <code>cachedDialogBaseUnits</code>.
+	 */
+	private final Map fontDescriptors = new WeakHashMap();
 
 	/**
-	 * Maps <code>FontMetrics</code> to horizontal dialog base units. This is
-	 * a second-level cache, that stores dialog base units for a
-	 * <code>FontMetrics</code> object.
+	 * Holds the maximum number of cached dialog base units.
 	 */
-	private Map cachedDialogBaseUnits = new HashMap();
+	private int maximumCacheSize = DEFAULT_MAXIMUM_CACHE_SIZE;
+
+	private int cacheHitCount;
+	private int cacheMissCount;
+	private int cacheEvictionCount;
+
+	/**
+	 * Indicates whether dialog base units have been computed since the cache
+	 * has been loaded from or saved to a file.
+	 */
+	private boolean cacheModified;
+
+	/**
+	 * Holds the file the cache is saved to if the Display is disposed.
+	 */
+	private File cacheFile;
 
 	// Instance Creation and Access *******************************************
 	/**
-	 * Constructs a DefaultUnitConverter and registers a listener that handles
-	 * changes in the look&amp;feel.
+	 * Holds the Display this converter converts sizes for.
+	 */
+	private final Display display;
+
+	/**
+	 * Constructs a DefaultUnitConverter for the given Display. Instances are
+	 * created by the Display's {@link DisplayContext}.
+	 * 
+	 * @param display
+	 *            the Display, <code>null</code> to convert for the calling
+	 *            thread's Display
 	 */
-	private DefaultUnitConverter() {
+	DefaultUnitConverter(Display display) {
+		this.display = display;
 		changeSupport = new PropertyChangeSupport(this);
 	}
 
 	/**
-	 * Lazily instantiates and returns the sole instance.
+	 * Returns the instance for the calling thread's Display.
 	 * 
-	 * @return the lazily instantiated sole instance
+	 * @return the instance for the calling thread's Display
+	 * @see DisplayContext#getCurrent()
 	 */
 	public static DefaultUnitConverter getInstance() {
-		if (instance == null) {
-			instance = new DefaultUnitConverter();
-		}
-		return instance;
+		return DisplayContext.getCurrent().getDefaultUnitConverter();
+	}
+
+	/**
+	 * Returns the instance for the given Display. May be invoked from any
+	 * thread.
+	 * 
+	 * @param display
+	 *            the Display
+	 * @return the instance for the given Display
+	 */
+	public static DefaultUnitConverter getInstance(Display display) {
+		return DisplayContext.getInstance(display).getDefaultUnitConverter();
+	}
+
+	/**
+	 * Returns this converter's Display, or the calling thread's Display if
+	 * this converter is not bound to a Display.
+	 * 
+	 * @return the Display this converter converts for, may be
+	 *         <code>null</code>
+	 */
+	protected Display getDisplay() {
+		return display != null ? display : Display.getCurrent();
 	}
 
 	// Access to Bound Properties *********************************************
@@ -158,10 +273,85 @@ public final class DefaultUnitConverter extends AbstractUnitConverter {
 		FontMetrics oldFontMetrics = defaultDialogFontMetrics;
 		// Don't use the getter
 		defaultDialogFontMetrics = newFontMetrics;
+		cachedGlobalDialogBaseUnits = null;
+		Sizes.invalidateConversions();
 		changeSupport.firePropertyChange("defaultDialogFontMetrics",
 				oldFontMetrics, newFontMetrics);
 	}
 
+	/**
+	 * Returns the maximum number of fonts whose dialog base units are cached.
+	 * 
+	 * @return the maximum cache size
+	 */
+	public int getMaximumCacheSize() {
+		return maximumCacheSize;
+	}
+
+	/**
+	 * Sets the maximum number of fonts whose dialog base units are cached and
+	 * evicts the least recently used entries that exceed the new size.
+	 * 
+	 * @param newMaximumCacheSize
+	 *            the maximum cache size to be set
+	 * @throws IllegalArgumentException
+	 *             if the size is not positive
+	 */
+	public void setMaximumCacheSize(int newMaximumCacheSize) {
+		if (newMaximumCacheSize <= 0)
+			throw new IllegalArgumentException(
+					"The maximum cache size must be positive.");
+		int oldMaximumCacheSize = maximumCacheSize;
+		List evicted;
+		synchronized (cachedDialogBaseUnits) {
+			maximumCacheSize = newMaximumCacheSize;
+			evicted = evictExcessEntries();
+		}
+		changeSupport.firePropertyChange("maximumCacheSize",
+				oldMaximumCacheSize, newMaximumCacheSize);
+		fireEvictions(evicted);
+	}
+
+	// Cache Statistics *******************************************************
+
+	/**
+	 * Returns the number of fonts whose dialog base units are cached.
+	 * 
+	 * @return the current cache size
+	 */
+	public int getCacheSize() {
+		synchronized (cachedDialogBaseUnits) {
+			return cachedDialogBaseUnits.size();
+		}
+	}
+
+	/**
+	 * Returns how often dialog base units have been found in the cache.
+	 * 
+	 * @return the number of cache hits
+	 */
+	public int getCacheHitCount() {
+		return cacheHitCount;
+	}
+
+	/**
+	 * Returns how often dialog base units had to be computed.
+	 * 
+	 * @return the number of cache misses
+	 */
+	public int getCacheMissCount() {
+		return cacheMissCount;
+	}
+
+	/**
+	 * Returns how many entries have been evicted from the cache.
+	 * 
+	 * @return the number of cache evictions
+	 */
+	public int getCacheEvictionCount() {
+		return cacheEvictionCount;
+	}
+
 	// Implementing Abstract Superclass Behavior ******************************
 
 	/**
@@ -187,6 +377,56 @@ public final class DefaultUnitConverter extends AbstractUnitConverter {
 		return getDialogBaseUnits(control).y;
 	}
 
+	/**
+	 * Returns the cached or computed dialog base units object for the given
+	 * control; its identity changes if and only if the dialog base units
+	 * change.
+	 * 
+	 * @param control
+	 *            a control that provides the fontmetrics, may be
+	 *            <code>null</code>
+	 * @return the dialog base units object for the given control
+	 */
+	public Object getDialogBaseUnitsKey(Control control) {
+		return getDialogBaseUnits(control);
+	}
+
+	/**
+	 * Converts horizontal dialog units and returns pixels. Looks up the
+	 * pixels of small dialog units in a table precomputed for the control's
+	 * dialog base units.
+	 * 
+	 * @param dluX
+	 *            the horizontal dialog units
+	 * @param c
+	 *            a control that provides the fontmetrics
+	 * @return the given horizontal dialog units as pixels
+	 */
+	public int dialogUnitXAsPixel(int dluX, Control c) {
+		DialogBaseUnits dialogBaseUnits = getDialogBaseUnits(c);
+		int[] pixels = dialogBaseUnits.xPixels;
+		return dluX >= 0 && dluX < pixels.length ? pixels[dluX]
+				: dialogUnitXAsPixel(dluX, dialogBaseUnits.x);
+	}
+
+	/**
+	 * Converts vertical dialog units and returns pixels. Looks up the pixels
+	 * of small dialog units in a table precomputed for the control's dialog
+	 * base units.
+	 * 
+	 * @param dluY
+	 *            the vertical dialog units
+	 * @param c
+	 *            a control that provides the fontmetrics
+	 * @return the given vertical dialog units as pixels
+	 */
+	public int dialogUnitYAsPixel(int dluY, Control c) {
+		DialogBaseUnits dialogBaseUnits = getDialogBaseUnits(c);
+		int[] pixels = dialogBaseUnits.yPixels;
+		return dluY >= 0 && dluY < pixels.length ? pixels[dluY]
+				: dialogUnitYAsPixel(dluY, dialogBaseUnits.y);
+	}
+
 	// Compute and Cache Global and Components Dialog Base Units **************
 
 	/**
@@ -210,8 +450,8 @@ public final class DefaultUnitConverter extends AbstractUnitConverter {
 	 * <p>
 	 * 
 	 * Before we compute the dialog base units we check whether they have been
-	 * computed and cached before - for the same component
-	 * <code>FontMetrics</code>.
+	 * computed and cached before - for a font with the same name, height and
+	 * style on a monitor with the same resolution.
 	 * 
 	 * @param c
 	 *            the control that provides the fontmetrics
@@ -221,19 +461,98 @@ public final class DefaultUnitConverter extends AbstractUnitConverter {
 		if (c == null) {
 			return getGlobalDialogBaseUnits();
 		}
-		DialogBaseUnits dialogBaseUnits = (DialogBaseUnits) cachedDialogBaseUnits
-				.get(c.getFont());
-		if (dialogBaseUnits == null) {
-			GC gc = new GC(c);
-			FontMetrics fm = gc.getFontMetrics();
-			dialogBaseUnits = computeDialogBaseUnits(fm);
-			cachedDialogBaseUnits.put(c.getFont(), dialogBaseUnits);
-			gc.dispose();
+		CacheKey key = new CacheKey(describe(c.getFont()),
+				getScreenResolution(c));
+		synchronized (cachedDialogBaseUnits) {
+			DialogBaseUnits dialogBaseUnits = (DialogBaseUnits) cachedDialogBaseUnits
+					.get(key);
+			if (dialogBaseUnits != null) {
+				cacheHitCount++;
+				return dialogBaseUnits;
+			}
+			cacheMissCount++;
 		}
 
+		GC gc = new GC(c);
+		DialogBaseUnits dialogBaseUnits;
+		try {
+			dialogBaseUnits = computeDialogBaseUnits(gc.getFontMetrics());
+		} finally {
+			gc.dispose();
+		}
+		List evicted;
+		synchronized (cachedDialogBaseUnits) {
+			cachedDialogBaseUnits.put(key, dialogBaseUnits);
+			cacheModified = true;
+			evicted = evictExcessEntries();
+		}
+		fireEvictions(evicted);
 		return dialogBaseUnits;
 	}
 
+	/**
+	 * Returns the descriptor of the given font, looked up in the first-level
+	 * cache; reads the font data on a miss only.
+	 * 
+	 * @param font
+	 *            the font to describe
+	 * @return the font's descriptor
+	 */
+	private FontDescriptor describe(Font font) {
+		synchronized (cachedDialogBaseUnits) {
+			FontDescriptor descriptor = (FontDescriptor) fontDescriptors
+					.get(font);
+			if (descriptor != null)
+				return descriptor;
+		}
+		FontDescriptor descriptor = FontDescriptor.valueOf(font);
+		synchronized (cachedDialogBaseUnits) {
+			fontDescriptors.put(font, descriptor);
+		}
+		return descriptor;
+	}
+
+	/**
+	 * Removes the least recently used cache entries that exceed the maximum
+	 * cache size. Must be invoked while holding the cache's lock.
+	 * 
+	 * @return the descriptors of the evicted fonts, <code>null</code> if
+	 *         none
+	 */
+	private List evictExcessEntries() {
+		List evicted = null;
+		Iterator iterator = cachedDialogBaseUnits.keySet().iterator();
+		while (cachedDialogBaseUnits.size() > maximumCacheSize) {
+			CacheKey key = (CacheKey) iterator.next();
+			iterator.remove();
+			cacheEvictionCount++;
+			if (evicted == null)
+				evicted = new ArrayList();
+			evicted.add(key.font);
+		}
+		return evicted;
+	}
+
+	/**
+	 * Reports the evicted fonts to the property change listeners.
+	 * 
+	 * @param evicted
+	 *            the descriptors of the evicted fonts, may be
+	 *            <code>null</code>
+	 */
+	private void fireEvictions(List evicted) {
+		if (evicted == null)
+			return;
+		boolean logEvictions = LOGGER.isLoggable(Level.FINE);
+		for (int i = 0; i < evicted.size(); i++) {
+			if (logEvictions) {
+				LOGGER.fine("Evicted dialog base units for " + evicted.get(i));
+			}
+			changeSupport.firePropertyChange(PROPERTYNAME_EVICTED_FONT, null,
+					evicted.get(i));
+		}
+	}
+
 	/**
 	 * Computes and returns the horizontal dialog base units. Honors the font,
 	 * font size and resolution.
@@ -250,13 +569,71 @@ public final class DefaultUnitConverter extends AbstractUnitConverter {
 	private DialogBaseUnits computeDialogBaseUnits(FontMetrics metrics) {
 		double averageCharWidth = computeAverageCharWidth(metrics);
 		double height = metrics.getHeight();
-		DialogBaseUnits dialogBaseUnits = new DialogBaseUnits(averageCharWidth,
-				height);
-		LOGGER.config("Computed dialog base units " + dialogBaseUnits
-				+ " for: " + metrics.toString());
+		DialogBaseUnits dialogBaseUnits = createDialogBaseUnits(
+				averageCharWidth, height);
+		if (LOGGER.isLoggable(Level.CONFIG)) {
+			LOGGER.config("Computed dialog base units " + dialogBaseUnits
+					+ " for: " + metrics.toString());
+		}
 		return dialogBaseUnits;
 	}
 
+	/**
+	 * Creates dialog base units and precomputes the pixel sizes of small
+	 * dialog units.
+	 */
+	private DialogBaseUnits createDialogBaseUnits(double averageCharWidth,
+			double height) {
+		int[] xPixels = new int[DIALOG_UNIT_TABLE_SIZE];
+		int[] yPixels = new int[DIALOG_UNIT_TABLE_SIZE];
+		for (int dlu = 0; dlu < DIALOG_UNIT_TABLE_SIZE; dlu++) {
+			xPixels[dlu] = dialogUnitXAsPixel(dlu, averageCharWidth);
+			yPixels[dlu] = dialogUnitYAsPixel(dlu, height);
+		}
+		return new DialogBaseUnits(averageCharWidth, height, xPixels, yPixels);
+	}
+
+	/**
+	 * Computes and caches the global dialog base units and the dialog base
+	 * units of the given fonts on the default resolution, using the given GC
+	 * for all font metrics. Skips dialog base units that are cached already.
+	 * Invoked by {@link SwtForms#warmUp(Display, Font[])}.
+	 * 
+	 * @param gc
+	 *            a GC on this converter's Display that still uses its default
+	 *            font
+	 * @param fonts
+	 *            the fonts whose dialog base units shall be cached
+	 * @throws NullPointerException
+	 *             if a font is <code>null</code>
+	 */
+	void precomputeDialogBaseUnits(GC gc, Font[] fonts) {
+		if (cachedGlobalDialogBaseUnits == null) {
+			if (defaultDialogFontMetrics == null) {
+				defaultDialogFontMetrics = gc.getFontMetrics();
+			}
+			cachedGlobalDialogBaseUnits = computeGlobalDialogBaseUnits();
+		}
+		int resolution = getScreenResolution();
+		for (int i = 0; i < fonts.length; i++) {
+			CacheKey key = new CacheKey(describe(fonts[i]), resolution);
+			synchronized (cachedDialogBaseUnits) {
+				if (cachedDialogBaseUnits.containsKey(key))
+					continue;
+			}
+			gc.setFont(fonts[i]);
+			DialogBaseUnits dialogBaseUnits = computeDialogBaseUnits(gc
+					.getFontMetrics());
+			List evicted;
+			synchronized (cachedDialogBaseUnits) {
+				cachedDialogBaseUnits.put(key, dialogBaseUnits);
+				cacheModified = true;
+				evicted = evictExcessEntries();
+			}
+			fireEvictions(evicted);
+		}
+	}
+
 	/**
 	 * Computes the global dialog base units.
 	 */
@@ -268,17 +645,247 @@ public final class DefaultUnitConverter extends AbstractUnitConverter {
 	}
 
 	/**
-	 * Looks up and returns the font used by the current Display.
+	 * Looks up and returns the font used by this converter's Display.
 	 * 
-	 * @return the font used for current display
+	 * @return the font used for this converter's display
+	 * @throws IllegalStateException
+	 *             if there is no Display to look up the font
 	 */
 	private FontMetrics lookupDefaultDialogFontMetrics() {
-		GC gc = new GC(Display.getCurrent());
+		Display fontDisplay = getDisplay();
+		if (fontDisplay == null || fontDisplay.isDisposed())
+			throw new IllegalStateException(
+					"The default dialog font can only be looked up "
+							+ "for a Display; invoke from a UI thread or "
+							+ "set the default dialog font metrics.");
+		GC gc = new GC(fontDisplay);
 		FontMetrics fm = gc.getFontMetrics();
 		gc.dispose();
 		return fm;
 	}
 
+	// Persistent Cache *****************************************************
+
+	/**
+	 * Returns the file the cache is saved to when the Display is disposed.
+	 * 
+	 * @return the cache file, <code>null</code> if none
+	 * @see #setCacheFile(File)
+	 */
+	public synchronized File getCacheFile() {
+		return cacheFile;
+	}
+
+	/**
+	 * Sets a file that persists the cached dialog base units across
+	 * launches. Loads the file now, if it exists and has been written in the
+	 * same environment, and saves the cache to it when this converter's
+	 * Display is disposed, if dialog base units have been computed in the
+	 * meantime. I/O errors are logged, not thrown.
+	 * <p>
+	 * 
+	 * Must be invoked in the user interface thread of this converter's
+	 * Display, because the save on disposal is registered with
+	 * {@link Display#disposeExec(Runnable)}.
+	 * 
+	 * @param file
+	 *            the cache file
+	 * @throws NullPointerException
+	 *             if the file is <code>null</code>
+	 * @throws IllegalStateException
+	 *             if this converter is not bound to a Display, or a cache
+	 *             file has been set before
+	 * @throws org.eclipse.swt.SWTException
+	 *             if not invoked in the user interface thread of the Display
+	 * @see #loadCache(File)
+	 * @see #saveCache(File)
+	 */
+	public void setCacheFile(File file) {
+		if (file == null)
+			throw new NullPointerException("The cache file must not be null.");
+		if (display == null)
+			throw new IllegalStateException(
+					"The cache file requires a converter bound to a Display.");
+		synchronized (this) {
+			if (cacheFile != null)
+				throw new IllegalStateException(
+						"The cache file has already been set.");
+			cacheFile = file;
+		}
+		try {
+			loadCache(file);
+		} catch (IOException e) {
+			LOGGER.warning("Can't read the dialog base units cache " + file
+					+ ": " + e);
+		}
+		display.disposeExec(new Runnable() {
+			public void run() {
+				boolean modified;
+				synchronized (cachedDialogBaseUnits) {
+					modified = cacheModified;
+				}
+				if (!modified)
+					return;
+				try {
+					saveCache(getCacheFile());
+				} catch (IOException e) {
+					LOGGER.warning("Can't write the dialog base units cache "
+							+ getCacheFile() + ": " + e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Reads dialog base units from the given file and adds them to the cache.
+	 * The file is read through a stream and closed right away; it is not
+	 * mapped into memory, because a mapping keeps the file locked on Windows
+	 * until the buffer is garbage collected, which would make the replacement
+	 * of the file fail when the cache is saved. Ignores the file if it does
+	 * not exist, is not a valid cache file or has been written in another
+	 * environment, that is for another platform, SWT version or operating
+	 * system version.
+	 * 
+	 * @param file
+	 *            the cache file to read
+	 * @return the number of dialog base units read
+	 * @throws IOException
+	 *             if the file cannot be read
+	 * @see #saveCache(File)
+	 */
+	public int loadCache(File file) throws IOException {
+		if (!file.isFile())
+			return 0;
+		List keys = new ArrayList();
+		List values = new ArrayList();
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(file)));
+		try {
+			if (in.readInt() != CACHE_FILE_MAGIC
+					|| in.readInt() != CACHE_FILE_VERSION
+					|| !getEnvironmentFingerprint().equals(getString(in))) {
+				LOGGER.fine("Ignored the stale dialog base units cache " + file);
+				return 0;
+			}
+			int count = in.readInt();
+			if (count < 0 || count > CACHE_FILE_LIMIT)
+				return 0;
+			for (int i = 0; i < count; i++) {
+				FontDescriptor font = new FontDescriptor(getString(in), in
+						.readInt(), in.readInt());
+				int resolution = in.readInt();
+				double x = in.readDouble();
+				double y = in.readDouble();
+				keys.add(new CacheKey(font, resolution));
+				values.add(createDialogBaseUnits(x, y));
+			}
+		} catch (EOFException e) {
+			LOGGER.warning("Ignored the truncated dialog base units cache "
+					+ file);
+			return 0;
+		} catch (IllegalArgumentException e) {
+			LOGGER.warning("Ignored the corrupt dialog base units cache "
+					+ file);
+			return 0;
+		} finally {
+			in.close();
+		}
+		List evicted;
+		synchronized (cachedDialogBaseUnits) {
+			for (int i = 0; i < keys.size(); i++) {
+				if (!cachedDialogBaseUnits.containsKey(keys.get(i))) {
+					cachedDialogBaseUnits.put(keys.get(i), values.get(i));
+				}
+			}
+			evicted = evictExcessEntries();
+		}
+		fireEvictions(evicted);
+		return keys.size();
+	}
+
+	/**
+	 * Writes the cached dialog base units to the given file, together with a
+	 * fingerprint of the environment. Replaces the file only after the new
+	 * content has been written completely.
+	 * 
+	 * @param file
+	 *            the cache file to write
+	 * @throws IOException
+	 *             if the file cannot be written
+	 * @see #loadCache(File)
+	 */
+	public void saveCache(File file) throws IOException {
+		Map.Entry[] entries;
+		synchronized (cachedDialogBaseUnits) {
+			entries = (Map.Entry[]) cachedDialogBaseUnits.entrySet().toArray(
+					new Map.Entry[0]);
+			cacheModified = false;
+		}
+		File directory = file.getAbsoluteFile().getParentFile();
+		if (directory != null && !directory.isDirectory()
+				&& !directory.mkdirs())
+			throw new IOException("Can't create the directory " + directory);
+		File temporaryFile = new File(file.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(temporaryFile)));
+		try {
+			out.writeInt(CACHE_FILE_MAGIC);
+			out.writeInt(CACHE_FILE_VERSION);
+			putString(out, getEnvironmentFingerprint());
+			out.writeInt(entries.length);
+			for (int i = 0; i < entries.length; i++) {
+				CacheKey key = (CacheKey) entries[i].getKey();
+				DialogBaseUnits dialogBaseUnits = (DialogBaseUnits) entries[i]
+						.getValue();
+				putString(out, key.font.getName());
+				out.writeInt(key.font.getHeight());
+				out.writeInt(key.font.getStyle());
+				out.writeInt(key.resolution);
+				out.writeDouble(dialogBaseUnits.x);
+				out.writeDouble(dialogBaseUnits.y);
+			}
+		} finally {
+			out.close();
+		}
+		if (!temporaryFile.renameTo(file)) {
+			// Some platforms can't rename onto an existing file.
+			file.delete();
+			if (!temporaryFile.renameTo(file))
+				throw new IOException("Can't replace " + file);
+		}
+	}
+
+	/**
+	 * Describes the environment that affects font metrics apart from the font
+	 * and resolution: the operating system, the SWT platform and version.
+	 * Cache files written in another environment are ignored.
+	 * 
+	 * @return the environment fingerprint
+	 */
+	private static String getEnvironmentFingerprint() {
+		return System.getProperty("os.name") + '/'
+				+ System.getProperty("os.version") + '/' + SWT.getPlatform()
+				+ '/' + SWT.getVersion();
+	}
+
+	private static String getString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0 || length > CACHE_FILE_LIMIT)
+			throw new IllegalArgumentException("Invalid string length "
+					+ length);
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = in.readChar();
+		}
+		return new String(chars);
+	}
+
+	private static void putString(DataOutputStream out, String s)
+			throws IOException {
+		out.writeInt(s.length());
+		out.writeChars(s);
+	}
+
 	// Managing Property Change Listeners **********************************
 
 	/**
@@ -370,15 +977,48 @@ public final class DefaultUnitConverter extends AbstractUnitConverter {
 
 	// Helper Code ************************************************************
 
+	// Identifies cached dialog base units by font and resolution.
+	private static final class CacheKey {
+
+		final FontDescriptor font;
+		final int resolution;
+
+		CacheKey(FontDescriptor font, int resolution) {
+			this.font = font;
+			this.resolution = resolution;
+		}
+
+		public boolean equals(Object o) {
+			if (!(o instanceof CacheKey))
+				return false;
+			CacheKey key = (CacheKey) o;
+			return resolution == key.resolution && font.equals(key.font);
+		}
+
+		public int hashCode() {
+			return font.hashCode() * 37 + resolution;
+		}
+	}
+
 	// Describes horizontal and vertical dialog base units.
 	private static final class DialogBaseUnits {
 
 		final double x;
 		final double y;
 
-		DialogBaseUnits(double dialogBaseUnitsX, double dialogBaseUnitsY) {
+		/**
+		 * Hold the pixel sizes of the dialog units 0 to
+		 * <code>DIALOG_UNIT_TABLE_SIZE</code> - 1.
+		 */
+		final int[] xPixels;
+		final int[] yPixels;
+
+		DialogBaseUnits(double dialogBaseUnitsX, double dialogBaseUnitsY,
+				int[] xPixels, int[] yPixels) {
 			this.x = dialogBaseUnitsX;
 			this.y = dialogBaseUnitsY;
+			this.xPixels = xPixels;
+			this.yPixels = yPixels;
 		}
 
 		public String toString() {
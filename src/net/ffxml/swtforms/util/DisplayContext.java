@@ -0,0 +1,548 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.util;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.ffxml.swtforms.layout.ColumnSpec;
+import net.ffxml.swtforms.layout.Sizes;
+
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Holds the unit converter and layout style used for the widgets of one
+ * <code>Display</code>, together with the per-Display caches owned by them.
+ * Applications that run multiple Displays, each in its own UI thread, get one
+ * context per Display; no state is shared between the UI threads.
+ * <p>
+ * 
+ * The static accessors {@link net.ffxml.swtforms.layout.Sizes#getUnitConverter()},
+ * {@link LayoutStyle#getCurrent()} and {@link DefaultUnitConverter#getInstance()}
+ * delegate to the context of the calling thread's Display. The static
+ * setters {@link net.ffxml.swtforms.layout.Sizes#setUnitConverter(UnitConverter)}
+ * and {@link LayoutStyle#setCurrent(LayoutStyle)} set defaults for all
+ * contexts that have no converter or style of their own.
+ * <p>
+ * 
+ * <strong>Examples:</strong>
+ * 
+ * <pre>
+ * DisplayContext.getInstance(display).setLayoutStyle(MacLayoutStyle.INSTANCE);
+ * UnitConverter converter = DisplayContext.forControl(composite).getUnitConverter();
+ * </pre>
+ * 
+ * Contexts are released when their Display is disposed. This class is thread
+ * safe.
+ * 
+ * @author Florian Fankhauser
+ * @see UnitConverter
+ * @see LayoutStyle
+ */
+public final class DisplayContext {
+
+	/**
+	 * Maps Displays to their contexts.
+	 */
+	private static final Map CONTEXTS = new HashMap();
+
+	/**
+	 * The context used by threads that have no Display.
+	 */
+	private static final DisplayContext DETACHED = new DisplayContext(null);
+
+	/**
+	 * Holds the context of the calling thread's Display.
+	 */
+	private static final ThreadLocal CURRENT = new ThreadLocal();
+
+	/**
+	 * Holds the unit converter used by contexts without a converter of their
+	 * own; <code>null</code> to use a <code>DefaultUnitConverter</code>.
+	 */
+	private static volatile UnitConverter defaultUnitConverter;
+
+	/**
+	 * Holds the layout style used by contexts without a style of their own.
+	 */
+	private static volatile LayoutStyle defaultLayoutStyle = LayoutStyle
+			.initialLayoutStyle();
+
+	// Fields ***************************************************************
+
+	private final Display display;
+
+	private volatile UnitConverter unitConverter;
+
+	private volatile LayoutStyle layoutStyle;
+
+	/**
+	 * Holds the lazily created <code>DefaultUnitConverter</code> for this
+	 * context's Display.
+	 */
+	private DefaultUnitConverter displayUnitConverter;
+
+	/**
+	 * Holds the lazily created font registry for this context's Display.
+	 */
+	private FontRegistry fontRegistry;
+
+	/**
+	 * Holds the lazily created layout statistics for this context's Display.
+	 */
+	private LayoutStatistics layoutStatistics;
+
+	/**
+	 * Holds the layout style that the button column specs have been created
+	 * for.
+	 */
+	private LayoutStyle buttonSpecStyle;
+
+	private ColumnSpec buttonColumnSpec;
+
+	private ColumnSpec growingButtonColumnSpec;
+
+	/**
+	 * Remembers the conversion key of the control that has been most recently
+	 * converted for on this Display. A layout pass converts all constant
+	 * sizes for the same container.
+	 */
+	private volatile ConversionKey lastConversionKey;
+
+	// Instance Creation ****************************************************
+
+	private DisplayContext(Display display) {
+		this.display = display;
+	}
+
+	/**
+	 * Returns the context of the given Display; creates it if necessary. May
+	 * be invoked from any thread.
+	 * 
+	 * @param display
+	 *            the Display, <code>null</code> for the context used by
+	 *            threads without a Display
+	 * @return the given Display's context
+	 */
+	public static DisplayContext getInstance(final Display display) {
+		if (display == null)
+			return DETACHED;
+		DisplayContext context;
+		synchronized (CONTEXTS) {
+			context = (DisplayContext) CONTEXTS.get(display);
+			if (context != null || display.isDisposed())
+				return context != null ? context : DETACHED;
+			context = new DisplayContext(display);
+			CONTEXTS.put(display, context);
+		}
+		final Runnable release = new Runnable() {
+			public void run() {
+				synchronized (CONTEXTS) {
+					CONTEXTS.remove(display);
+				}
+			}
+		};
+		if (display.getThread() == Thread.currentThread()) {
+			display.disposeExec(release);
+		} else {
+			display.asyncExec(new Runnable() {
+				public void run() {
+					display.disposeExec(release);
+				}
+			});
+		}
+		return context;
+	}
+
+	/**
+	 * Returns the context of the calling thread's Display, or the detached
+	 * context if the thread has no Display.
+	 * 
+	 * @return the calling thread's context
+	 */
+	public static DisplayContext getCurrent() {
+		DisplayContext context = (DisplayContext) CURRENT.get();
+		if (context != null && !context.display.isDisposed())
+			return context;
+		Display display = Display.getCurrent();
+		if (display == null)
+			return DETACHED;
+		context = getInstance(display);
+		CURRENT.set(context);
+		return context;
+	}
+
+	/**
+	 * Returns the context of the given control's Display, or the calling
+	 * thread's context if the control is <code>null</code> or disposed. May
+	 * be invoked from any thread.
+	 * 
+	 * @param control
+	 *            the control, may be <code>null</code>
+	 * @return the context of the control's Display
+	 */
+	public static DisplayContext forControl(Control control) {
+		if (control == null || control.isDisposed())
+			return getCurrent();
+		Display display = control.getDisplay();
+		DisplayContext context = (DisplayContext) CURRENT.get();
+		if (context != null && context.display == display)
+			return context;
+		return getInstance(display);
+	}
+
+	// Defaults *************************************************************
+
+	/**
+	 * Sets the unit converter used by all contexts that have no converter of
+	 * their own. Invoked by
+	 * {@link net.ffxml.swtforms.layout.Sizes#setUnitConverter(UnitConverter)}.
+	 * 
+	 * @param converter
+	 *            the default converter, <code>null</code> to use a
+	 *            <code>DefaultUnitConverter</code> per Display
+	 */
+	public static void setDefaultUnitConverter(UnitConverter converter) {
+		defaultUnitConverter = converter;
+	}
+
+	/**
+	 * Returns the layout style used by all contexts that have no style of
+	 * their own.
+	 * 
+	 * @return the default layout style
+	 */
+	public static LayoutStyle getDefaultLayoutStyle() {
+		return defaultLayoutStyle;
+	}
+
+	/**
+	 * Sets the layout style used by all contexts that have no style of their
+	 * own. Invoked by {@link LayoutStyle#setCurrent(LayoutStyle)}.
+	 * 
+	 * @param style
+	 *            the default layout style
+	 * @throws NullPointerException
+	 *             if the style is <code>null</code>
+	 */
+	public static void setDefaultLayoutStyle(LayoutStyle style) {
+		if (style == null)
+			throw new NullPointerException("The layout style must not be null.");
+		defaultLayoutStyle = style;
+	}
+
+	// Accessors ************************************************************
+
+	/**
+	 * Returns this context's Display, <code>null</code> for the detached
+	 * context.
+	 * 
+	 * @return this context's Display
+	 */
+	public Display getDisplay() {
+		return display;
+	}
+
+	/**
+	 * Returns the unit converter used for this context's Display: its own
+	 * converter if set, otherwise the default converter if set, otherwise a
+	 * <code>DefaultUnitConverter</code> for this Display.
+	 * 
+	 * @return the unit converter used for this context's Display
+	 */
+	public UnitConverter getUnitConverter() {
+		UnitConverter converter = unitConverter;
+		if (converter != null)
+			return converter;
+		converter = defaultUnitConverter;
+		if (converter != null)
+			return converter;
+		return getDefaultUnitConverter();
+	}
+
+	/**
+	 * Sets the unit converter used for this context's Display and
+	 * invalidates all cached pixel sizes.
+	 * 
+	 * @param converter
+	 *            the converter, <code>null</code> to use the default
+	 */
+	public void setUnitConverter(UnitConverter converter) {
+		unitConverter = converter;
+		Sizes.invalidateConversions();
+	}
+
+	/**
+	 * Lazily creates and returns the <code>DefaultUnitConverter</code> for
+	 * this context's Display.
+	 * 
+	 * @return this Display's <code>DefaultUnitConverter</code>
+	 */
+	public synchronized DefaultUnitConverter getDefaultUnitConverter() {
+		if (displayUnitConverter == null) {
+			displayUnitConverter = new DefaultUnitConverter(display);
+		}
+		return displayUnitConverter;
+	}
+
+	/**
+	 * Lazily creates and returns the font registry for this context's
+	 * Display. Must be invoked in the Display's UI thread.
+	 * 
+	 * @return this Display's <code>FontRegistry</code>
+	 * @throws IllegalStateException
+	 *             if this is the detached context
+	 */
+	public synchronized FontRegistry getFontRegistry() {
+		if (display == null)
+			throw new IllegalStateException(
+					"Fonts can only be shared on a Display.");
+		if (fontRegistry == null) {
+			fontRegistry = new FontRegistry(display);
+		}
+		return fontRegistry;
+	}
+
+	/**
+	 * Lazily creates and returns the layout statistics for this context's
+	 * Display. The statistics collect data only while they are installed,
+	 * see {@link LayoutStatistics#install()}. May be invoked from any thread.
+	 * 
+	 * @return this Display's <code>LayoutStatistics</code>
+	 * @throws IllegalStateException
+	 *             if this is the detached context
+	 */
+	public synchronized LayoutStatistics getLayoutStatistics() {
+		if (display == null)
+			throw new IllegalStateException(
+					"Layout statistics are collected per Display.");
+		if (layoutStatistics == null) {
+			layoutStatistics = new LayoutStatistics(display);
+		}
+		return layoutStatistics;
+	}
+
+	/**
+	 * Returns the layout style used for this context's Display: its own style
+	 * if set, otherwise the default style.
+	 * 
+	 * @return the layout style used for this context's Display
+	 */
+	public LayoutStyle getLayoutStyle() {
+		LayoutStyle style = layoutStyle;
+		return style != null ? style : defaultLayoutStyle;
+	}
+
+	/**
+	 * Sets the layout style used for this context's Display.
+	 * 
+	 * @param style
+	 *            the style, <code>null</code> to use the default
+	 */
+	public void setLayoutStyle(LayoutStyle style) {
+		layoutStyle = style;
+	}
+
+	// Conversion Keys ******************************************************
+
+	/**
+	 * Returns what the pixel sizes converted for the given control depend on:
+	 * this context's unit converter, its dialog base units key and its
+	 * resolution for the control, in the current conversion epoch. Remembers
+	 * the answer for the most recent control until the next epoch or until
+	 * the control is flushed.
+	 * 
+	 * @param control
+	 *            the control, may be <code>null</code>
+	 * @return the conversion key for the control
+	 * @see Sizes#getConversionEpoch()
+	 * @see AbstractUnitConverter#getDialogBaseUnitsKey(Control)
+	 */
+	public ConversionKey getConversionKey(Control control) {
+		int epoch = Sizes.getConversionEpoch();
+		ConversionKey last = lastConversionKey;
+		if (last != null && last.isFor(control) && last.epoch == epoch)
+			return last;
+		UnitConverter converter = getUnitConverter();
+		ConversionKey conversionKey;
+		if (converter instanceof AbstractUnitConverter) {
+			AbstractUnitConverter abstractConverter = (AbstractUnitConverter) converter;
+			conversionKey = new ConversionKey(control, epoch, converter,
+					abstractConverter.getDialogBaseUnitsKey(control),
+					abstractConverter.getScreenResolution(control));
+		} else {
+			conversionKey = new ConversionKey(control, epoch, converter, null,
+					-1);
+		}
+		lastConversionKey = conversionKey;
+		return conversionKey;
+	}
+
+	/**
+	 * Forgets the remembered conversion key for the given control, for
+	 * example because its font or monitor may have changed.
+	 * 
+	 * @param control
+	 *            the control to forget
+	 */
+	public void flushConversionKey(Control control) {
+		ConversionKey last = lastConversionKey;
+		if (last != null && last.isFor(control)) {
+			lastConversionKey = null;
+		}
+	}
+
+	// Button Column Specifications *****************************************
+
+	/**
+	 * Returns the column spec for gridded buttons: the preferred width, but at
+	 * least the default button width of this context's layout style. The spec
+	 * is cached until the layout style changes, so that all button bars of
+	 * this Display share it and its pixel conversions.
+	 * 
+	 * @return the column spec for gridded buttons
+	 * @see LayoutStyle#getDefaultButtonWidth()
+	 */
+	public synchronized ColumnSpec getButtonColumnSpec() {
+		ensureValidButtonSpecs();
+		return buttonColumnSpec;
+	}
+
+	/**
+	 * Returns the column spec for gridded buttons that grow, cached like
+	 * {@link #getButtonColumnSpec()}.
+	 * 
+	 * @return the column spec for growing gridded buttons
+	 */
+	public synchronized ColumnSpec getGrowingButtonColumnSpec() {
+		ensureValidButtonSpecs();
+		return growingButtonColumnSpec;
+	}
+
+	private void ensureValidButtonSpecs() {
+		LayoutStyle style = getLayoutStyle();
+		if (style == buttonSpecStyle)
+			return;
+		buttonSpecStyle = style;
+		buttonColumnSpec = new ColumnSpec(Sizes.bounded(Sizes.PREFERRED,
+				style.getDefaultButtonWidth(), null));
+		growingButtonColumnSpec = new ColumnSpec(ColumnSpec.DEFAULT,
+				buttonColumnSpec.getSize(), ColumnSpec.DEFAULT_GROW);
+	}
+
+	// Helper Classes *******************************************************
+
+	/**
+	 * Describes what the pixel sizes converted for a control depend on: the
+	 * conversion epoch, the unit converter, and for an
+	 * {@link AbstractUnitConverter} the dialog base units key and the
+	 * resolution. Refers to the control weakly, so that a disposed control is
+	 * not retained.
+	 * 
+	 * @see DisplayContext#getConversionKey(Control)
+	 */
+	public static final class ConversionKey {
+
+		/**
+		 * Refers to the control, <code>null</code> if converted without a
+		 * control.
+		 */
+		private final WeakReference controlRef;
+
+		private final int epoch;
+
+		private final UnitConverter converter;
+
+		private final Object dialogBaseUnitsKey;
+
+		private final int resolution;
+
+		private ConversionKey(Control control, int epoch,
+				UnitConverter converter, Object dialogBaseUnitsKey,
+				int resolution) {
+			this.controlRef = control == null ? null : new WeakReference(
+					control);
+			this.epoch = epoch;
+			this.converter = converter;
+			this.dialogBaseUnitsKey = dialogBaseUnitsKey;
+			this.resolution = resolution;
+		}
+
+		/**
+		 * Returns the conversion epoch this key has been computed in.
+		 * 
+		 * @return the conversion epoch
+		 */
+		public int getEpoch() {
+			return epoch;
+		}
+
+		/**
+		 * Returns the unit converter that converts the sizes.
+		 * 
+		 * @return the unit converter
+		 */
+		public UnitConverter getUnitConverter() {
+			return converter;
+		}
+
+		/**
+		 * Returns an object that identifies the dialog base units the
+		 * converter uses for the control.
+		 * 
+		 * @return the dialog base units key, <code>null</code> if the
+		 *         converter cannot identify them
+		 */
+		public Object getDialogBaseUnitsKey() {
+			return dialogBaseUnitsKey;
+		}
+
+		/**
+		 * Returns the resolution the converter uses for the control.
+		 * 
+		 * @return the resolution in dpi, -1 if the converter is not an
+		 *         <code>AbstractUnitConverter</code>
+		 */
+		public int getResolution() {
+			return resolution;
+		}
+
+		private boolean isFor(Control control) {
+			if (controlRef == null)
+				return control == null;
+			return control != null && controlRef.get() == control;
+		}
+
+	}
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.util;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Listener;
+import org.eclipse.swt.widgets.Monitor;
+import org.eclipse.swt.widgets.Shell;
+
+/**
+ * Re-lays out a shell if it moves to a monitor with a different resolution.
+ * Pixel sizes converted from dialog units and physical units are cached per
+ * monitor resolution; hence moving a shell requires to flush only the
+ * layouts of that shell, not all cached sizes.
+ * <p>
+ * 
+ * <strong>Example:</strong>
+ * 
+ * <pre>
+ * Shell shell = new Shell(display);
+ * DpiChangeTracker.install(shell);
+ * </pre>
+ * 
+ * @author Florian Fankhauser
+ * @see AbstractUnitConverter#getScreenResolution(org.eclipse.swt.widgets.Control)
+ */
+public final class DpiChangeTracker implements Listener {
+
+	/**
+	 * The key used to store the tracker in the shell's data.
+	 */
+	private static final String DATA_KEY = DpiChangeTracker.class.getName();
+
+	private final Shell shell;
+
+	/**
+	 * Holds the monitor the shell has been on when last checked.
+	 */
+	private Monitor lastMonitor;
+
+	/**
+	 * Holds the resolution of the last monitor.
+	 */
+	private int lastResolution;
+
+	// Instance Creation ****************************************************
+
+	private DpiChangeTracker(Shell shell) {
+		this.shell = shell;
+		this.lastMonitor = shell.getMonitor();
+		this.lastResolution = resolution();
+	}
+
+	/**
+	 * Installs a tracker on the given shell, unless one is installed already.
+	 * 
+	 * @param shell
+	 *            the shell to track
+	 * @throws NullPointerException
+	 *             if the shell is <code>null</code>
+	 */
+	public static void install(Shell shell) {
+		if (shell.getData(DATA_KEY) != null)
+			return;
+		DpiChangeTracker tracker = new DpiChangeTracker(shell);
+		shell.setData(DATA_KEY, tracker);
+		shell.addListener(SWT.Move, tracker);
+		shell.addListener(SWT.Resize, tracker);
+	}
+
+	/**
+	 * Removes the tracker from the given shell, if any.
+	 * 
+	 * @param shell
+	 *            the shell to stop tracking
+	 */
+	public static void uninstall(Shell shell) {
+		DpiChangeTracker tracker = (DpiChangeTracker) shell.getData(DATA_KEY);
+		if (tracker == null)
+			return;
+		shell.setData(DATA_KEY, null);
+		shell.removeListener(SWT.Move, tracker);
+		shell.removeListener(SWT.Resize, tracker);
+	}
+
+	// Event Handling *******************************************************
+
+	/**
+	 * Checks whether the shell has moved to another monitor and re-lays out
+	 * all its composites if the monitor's resolution differs.
+	 * 
+	 * @param event
+	 *            the move or resize event
+	 */
+	public void handleEvent(Event event) {
+		if (shell.isDisposed())
+			return;
+		Monitor monitor = shell.getMonitor();
+		if (monitor == null || monitor.equals(lastMonitor))
+			return;
+		lastMonitor = monitor;
+		int resolution = resolution();
+		if (resolution == lastResolution)
+			return;
+		lastResolution = resolution;
+		shell.layout(true, true);
+	}
+
+	private int resolution() {
+		UnitConverter converter = DisplayContext.forControl(shell)
+				.getUnitConverter();
+		return converter instanceof AbstractUnitConverter ? ((AbstractUnitConverter) converter)
+				.getScreenResolution(shell)
+				: -1;
+	}
+
+}
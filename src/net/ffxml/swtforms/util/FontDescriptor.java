@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.util;
+
+import java.io.Serializable;
+
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.FontData;
+
+/**
+ * An immutable, device independent description of a font by name, height and
+ * style. Unlike <code>Font</code> objects, which are disposed and recreated
+ * frequently, equal fonts map to equal descriptors; hence descriptors are
+ * used as keys for per-font caches.
+ * 
+ * @author Florian Fankhauser
+ * @see DefaultUnitConverter
+ */
+public final class FontDescriptor implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String name;
+	private final int height;
+	private final int style;
+
+	// Instance Creation ****************************************************
+
+	/**
+	 * Constructs a <code>FontDescriptor</code> for the given font name,
+	 * height and style.
+	 * 
+	 * @param name
+	 *            the font's face name
+	 * @param height
+	 *            the font's height in points
+	 * @param style
+	 *            the font's style, a combination of <code>SWT.NORMAL</code>,
+	 *            <code>SWT.BOLD</code> and <code>SWT.ITALIC</code>
+	 * @throws NullPointerException
+	 *             if the name is <code>null</code>
+	 */
+	public FontDescriptor(String name, int height, int style) {
+		if (name == null)
+			throw new NullPointerException("The font name must not be null.");
+		this.name = name;
+		this.height = height;
+		this.style = style;
+	}
+
+	/**
+	 * Returns a descriptor for the given font data.
+	 * 
+	 * @param fontData
+	 *            the font data to describe
+	 * @return a descriptor for the given font data
+	 * @throws NullPointerException
+	 *             if the font data is <code>null</code>
+	 */
+	public static FontDescriptor valueOf(FontData fontData) {
+		return new FontDescriptor(fontData.getName(), fontData.getHeight(),
+				fontData.getStyle());
+	}
+
+	/**
+	 * Returns a descriptor for the given font. Describes the font's first
+	 * font data.
+	 * 
+	 * @param font
+	 *            the font to describe
+	 * @return a descriptor for the given font
+	 * @throws NullPointerException
+	 *             if the font is <code>null</code>
+	 */
+	public static FontDescriptor valueOf(Font font) {
+		return valueOf(font.getFontData()[0]);
+	}
+
+	// Accessors ************************************************************
+
+	/**
+	 * Returns the font's face name.
+	 * 
+	 * @return the font's face name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the font's height in points.
+	 * 
+	 * @return the font's height
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the font's style.
+	 * 
+	 * @return the font's style
+	 */
+	public int getStyle() {
+		return style;
+	}
+
+	/**
+	 * Creates and returns a <code>FontData</code> for this descriptor.
+	 * 
+	 * @return a new <code>FontData</code> for this descriptor
+	 */
+	public FontData toFontData() {
+		return new FontData(name, height, style);
+	}
+
+	// Overriding Object Behavior *******************************************
+
+	/**
+	 * Indicates whether some other FontDescriptor is "equal to" this one.
+	 * 
+	 * @param o
+	 *            the Object with which to compare
+	 * @return <code>true</code> if this object is the same as the obj
+	 *         argument; <code>false</code> otherwise.
+	 * @see java.lang.Object#hashCode()
+	 */
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof FontDescriptor))
+			return false;
+		FontDescriptor descriptor = (FontDescriptor) o;
+		return height == descriptor.height && style == descriptor.style
+				&& name.equals(descriptor.name);
+	}
+
+	/**
+	 * Returns a hash code value for the object.
+	 * 
+	 * @return a hash code value for this object.
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	public int hashCode() {
+		return (name.hashCode() * 37 + height) * 37 + style;
+	}
+
+	/**
+	 * Returns a string representation of this descriptor.
+	 * 
+	 * @return a string representation of this descriptor
+	 */
+	public String toString() {
+		return name + '-' + height + '-' + style;
+	}
+
+}
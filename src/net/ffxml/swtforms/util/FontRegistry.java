@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.eclipse.swt.events.DisposeEvent;
+import org.eclipse.swt.events.DisposeListener;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Shares the fonts derived from a base font and a style among the controls
+ * of one Display. Fonts are reference counted: a font is created when it is
+ * first acquired and disposed when its last reference is released. Hence a
+ * form with many bold titles uses one bold font, regardless of its size.
+ * <p>
+ * 
+ * <strong>Example:</strong>
+ * 
+ * <pre>
+ * FontRegistry.getInstance(label.getDisplay()).setFont(label, SWT.BOLD);
+ * </pre>
+ * 
+ * Each Display has its own registry, see {@link DisplayContext}. Registries
+ * must be used in their Display's UI thread. Fonts that are still acquired
+ * when the Display is disposed are disposed with it.
+ * 
+ * @author Florian Fankhauser
+ * @see FontDescriptor
+ */
+public final class FontRegistry {
+
+	private final Display display;
+
+	/**
+	 * Maps <code>FontDescriptor</code>s to the entries of acquired fonts.
+	 */
+	private final Map entriesByDescriptor = new HashMap();
+
+	/**
+	 * Maps acquired fonts to their entries.
+	 */
+	private final Map entriesByFont = new HashMap();
+
+	// Instance Creation ****************************************************
+
+	/**
+	 * Constructs a FontRegistry for the given Display. Instances are created
+	 * by the Display's {@link DisplayContext}.
+	 * 
+	 * @param display
+	 *            the Display that the fonts are created on
+	 */
+	FontRegistry(Display display) {
+		this.display = display;
+		display.disposeExec(new Runnable() {
+			public void run() {
+				disposeAll();
+			}
+		});
+	}
+
+	/**
+	 * Returns the registry of the given Display.
+	 * 
+	 * @param display
+	 *            the Display
+	 * @return the Display's font registry
+	 * @throws NullPointerException
+	 *             if the Display is <code>null</code>
+	 */
+	public static FontRegistry getInstance(Display display) {
+		if (display == null)
+			throw new NullPointerException("The display must not be null.");
+		return DisplayContext.getInstance(display).getFontRegistry();
+	}
+
+	// Sharing Fonts ********************************************************
+
+	/**
+	 * Returns a font with the name and height of the given base font and the
+	 * given style, and adds a reference to it. Each invocation must be
+	 * balanced by a {@link #release(Font)}.
+	 * 
+	 * @param baseFont
+	 *            the font that provides name and height
+	 * @param style
+	 *            the style, a combination of <code>SWT.NORMAL</code>,
+	 *            <code>SWT.BOLD</code> and <code>SWT.ITALIC</code>
+	 * @return the shared font
+	 * @throws NullPointerException
+	 *             if the base font is <code>null</code>
+	 */
+	public Font acquire(Font baseFont, int style) {
+		FontDescriptor base = FontDescriptor.valueOf(baseFont);
+		FontDescriptor descriptor = new FontDescriptor(base.getName(), base
+				.getHeight(), style);
+		Entry entry = (Entry) entriesByDescriptor.get(descriptor);
+		if (entry == null) {
+			entry = new Entry(descriptor, new Font(display, descriptor
+					.toFontData()));
+			entriesByDescriptor.put(descriptor, entry);
+			entriesByFont.put(entry.font, entry);
+		}
+		entry.references++;
+		return entry.font;
+	}
+
+	/**
+	 * Removes a reference to the given font, which must have been acquired
+	 * from this registry, and disposes it if no references remain.
+	 * 
+	 * @param font
+	 *            the font to release
+	 * @throws IllegalArgumentException
+	 *             if the font has not been acquired from this registry or
+	 *             has been released already
+	 */
+	public void release(Font font) {
+		Entry entry = (Entry) entriesByFont.get(font);
+		if (entry == null)
+			throw new IllegalArgumentException(
+					"The font has not been acquired from this registry.");
+		if (--entry.references > 0)
+			return;
+		entriesByFont.remove(font);
+		entriesByDescriptor.remove(entry.descriptor);
+		entry.font.dispose();
+	}
+
+	/**
+	 * Sets a shared font with the given style, derived from the control's
+	 * current font, and releases it when the control is disposed.
+	 * 
+	 * @param control
+	 *            the control whose font shall be styled
+	 * @param style
+	 *            the style, a combination of <code>SWT.NORMAL</code>,
+	 *            <code>SWT.BOLD</code> and <code>SWT.ITALIC</code>
+	 * @throws NullPointerException
+	 *             if the control is <code>null</code>
+	 */
+	public void setFont(Control control, int style) {
+		final Font font = acquire(control.getFont(), style);
+		control.setFont(font);
+		control.addDisposeListener(new DisposeListener() {
+			public void widgetDisposed(DisposeEvent e) {
+				if (!display.isDisposed())
+					release(font);
+			}
+		});
+	}
+
+	// Statistics ***********************************************************
+
+	/**
+	 * Returns the number of fonts this registry currently shares.
+	 * 
+	 * @return the number of shared fonts
+	 */
+	public int getFontCount() {
+		return entriesByFont.size();
+	}
+
+	/**
+	 * Returns the number of references to the given font.
+	 * 
+	 * @param font
+	 *            the font
+	 * @return the font's number of references, 0 if it is not shared by
+	 *         this registry
+	 */
+	public int getReferenceCount(Font font) {
+		Entry entry = (Entry) entriesByFont.get(font);
+		return entry == null ? 0 : entry.references;
+	}
+
+	// Helper Code **********************************************************
+
+	private void disposeAll() {
+		for (Iterator i = entriesByFont.keySet().iterator(); i.hasNext();) {
+			((Font) i.next()).dispose();
+		}
+		entriesByFont.clear();
+		entriesByDescriptor.clear();
+	}
+
+	// Holds a shared font and counts its references.
+	private static final class Entry {
+
+		final FontDescriptor descriptor;
+		final Font font;
+		int references;
+
+		Entry(FontDescriptor descriptor, Font font) {
+			this.descriptor = descriptor;
+			this.font = font;
+		}
+	}
+
+}
@@ -0,0 +1,526 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.logging.Logger;
+
+import net.ffxml.swtforms.layout.FormLayout;
+import net.ffxml.swtforms.layout.LayoutInstrumentation;
+import net.ffxml.swtforms.layout.LayoutPassMetrics;
+
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Aggregates the pass metrics of all <code>FormLayout</code>s on one
+ * Display: passes per second, pass time percentiles, native
+ * <code>computeSize</code> calls, the size cache hit rate, the live layouts
+ * and constraints, and the composites with the slowest passes.
+ * <p>
+ * 
+ * {@link #install()} makes the layouts of all Displays report to the
+ * statistics of their Display, see {@link DisplayContext#getLayoutStatistics()}.
+ * The statistics implement a JMX Standard MBean interface. On Java 5 and
+ * later {@link #registerMBean()} registers them with the platform MBean
+ * server until the Display is disposed; the JMX classes are accessed
+ * reflectively, because the library runs on Java 1.4:
+ * 
+ * <pre>
+ * LayoutStatistics.install();
+ * DisplayContext.getInstance(display).getLayoutStatistics().registerMBean();
+ * </pre>
+ * 
+ * Pass times are measured with the {@link NanoClock}; see there for the
+ * resolution on older runtimes.
+ * <p>
+ * 
+ * Passes are recorded in the UI thread; the accessors may be invoked from
+ * any thread. This class is thread safe.
+ * 
+ * @author Florian Fankhauser
+ * @see LayoutInstrumentation
+ */
+public final class LayoutStatistics implements LayoutStatisticsMBean {
+
+	private final static Logger LOGGER = Logger
+			.getLogger(LayoutStatistics.class.getName());
+
+	/**
+	 * Routes the metrics of each pass to the statistics of the Display of the
+	 * laid out container.
+	 */
+	private static final LayoutInstrumentation DISPATCHER = new LayoutInstrumentation() {
+		public void passFinished(LayoutPassMetrics metrics) {
+			Composite container = metrics.getContainer();
+			if (container == null || container.isDisposed())
+				return;
+			DisplayContext context = DisplayContext.forControl(container);
+			if (context.getDisplay() != null) {
+				context.getLayoutStatistics().passFinished(metrics);
+			}
+		}
+	};
+
+	/**
+	 * The number of recent pass times kept for the percentiles.
+	 */
+	private static final int SAMPLE_SIZE = 1024;
+
+	/**
+	 * The maximum number of distinct composites tracked for the slowest
+	 * composites list; composites first seen beyond it are not tracked.
+	 */
+	private static final int MAX_TRACKED_COMPOSITES = 256;
+
+	private static final int DEFAULT_TOP_COUNT = 10;
+
+	// Fields ***************************************************************
+
+	private final Display display;
+
+	private long passCount;
+
+	private long computeSizeCount;
+
+	private long cacheHitCount;
+
+	private long cacheMissCount;
+
+	/**
+	 * Holds the times of the most recent passes in nanoseconds in a ring
+	 * buffer.
+	 */
+	private final long[] samples = new long[SAMPLE_SIZE];
+
+	private int sampleCount;
+
+	private int nextSample;
+
+	private long rateIntervalStart = System.currentTimeMillis();
+
+	private int rateIntervalPasses;
+
+	private double passesPerSecond;
+
+	/**
+	 * Maps the live layouts to the keys of their composites.
+	 */
+	private final Map layouts = new WeakHashMap();
+
+	/**
+	 * Maps composite keys to their <code>CompositeStatistics</code>.
+	 */
+	private final Map composites = new HashMap();
+
+	private int topCount = DEFAULT_TOP_COUNT;
+
+	/**
+	 * Holds the <code>ObjectName</code> these statistics are registered
+	 * with, <code>null</code> if not registered.
+	 */
+	private Object registeredName;
+
+	// Instance Creation ****************************************************
+
+	/**
+	 * Constructs the statistics for the given Display; used by the
+	 * <code>DisplayContext</code>.
+	 * 
+	 * @param display
+	 *            the Display
+	 */
+	LayoutStatistics(Display display) {
+		this.display = display;
+	}
+
+	// Installing ***********************************************************
+
+	/**
+	 * Makes all layouts without an instrumentation of their own report their
+	 * passes to the statistics of their Display.
+	 * 
+	 * @see FormLayout#setDefaultInstrumentation(LayoutInstrumentation)
+	 */
+	public static void install() {
+		FormLayout.setDefaultInstrumentation(DISPATCHER);
+	}
+
+	/**
+	 * Stops collecting statistics if they have been installed as the default
+	 * instrumentation.
+	 */
+	public static void uninstall() {
+		if (isInstalled()) {
+			FormLayout.setDefaultInstrumentation(LayoutInstrumentation.NONE);
+		}
+	}
+
+	/**
+	 * Returns whether the statistics are installed as the default
+	 * instrumentation.
+	 * 
+	 * @return true if installed
+	 */
+	public static boolean isInstalled() {
+		return FormLayout.getDefaultInstrumentation() == DISPATCHER;
+	}
+
+	/**
+	 * Returns an object name for registering these statistics with an MBean
+	 * server; unique per Display.
+	 * 
+	 * @return the object name as a string
+	 */
+	public String getObjectName() {
+		return "net.ffxml.swtforms:type=LayoutStatistics,display="
+				+ Integer.toHexString(System.identityHashCode(display));
+	}
+
+	/**
+	 * Registers these statistics with the platform MBean server under
+	 * {@link #getObjectName()}, and unregisters them when the Display is
+	 * disposed. Does nothing if they have been registered before. Requires
+	 * Java 5 or later; the JMX classes are looked up reflectively. Must be
+	 * invoked in the user interface thread of the Display.
+	 * 
+	 * @return true if registered, false if JMX is not available or the
+	 *         registration failed
+	 * @throws org.eclipse.swt.SWTException
+	 *             if not invoked in the user interface thread of the Display
+	 */
+	public boolean registerMBean() {
+		synchronized (this) {
+			if (registeredName != null)
+				return true;
+		}
+		Object name;
+		try {
+			Class nameClass = Class.forName("javax.management.ObjectName");
+			name = nameClass.getConstructor(new Class[] { String.class })
+					.newInstance(new Object[] { getObjectName() });
+			invokeMBeanServer("registerMBean", new Class[] { Object.class,
+					nameClass }, new Object[] { this, name });
+		} catch (ClassNotFoundException e) {
+			return false;
+		} catch (InvocationTargetException e) {
+			LOGGER.warning("Can't register the layout statistics "
+					+ getObjectName() + ": " + e.getTargetException());
+			return false;
+		} catch (Exception e) {
+			LOGGER.warning("Can't register the layout statistics "
+					+ getObjectName() + ": " + e);
+			return false;
+		}
+		synchronized (this) {
+			registeredName = name;
+		}
+		display.disposeExec(new Runnable() {
+			public void run() {
+				unregisterMBean();
+			}
+		});
+		return true;
+	}
+
+	/**
+	 * Unregisters these statistics from the platform MBean server if they
+	 * have been registered by {@link #registerMBean()}.
+	 */
+	public void unregisterMBean() {
+		Object name;
+		synchronized (this) {
+			name = registeredName;
+			registeredName = null;
+		}
+		if (name == null)
+			return;
+		try {
+			invokeMBeanServer("unregisterMBean", new Class[] { name
+					.getClass() }, new Object[] { name });
+		} catch (InvocationTargetException e) {
+			LOGGER.fine("Can't unregister the layout statistics " + name
+					+ ": " + e.getTargetException());
+		} catch (Exception e) {
+			LOGGER.fine("Can't unregister the layout statistics " + name
+					+ ": " + e);
+		}
+	}
+
+	/**
+	 * Invokes the given method of the platform MBean server reflectively.
+	 */
+	private static Object invokeMBeanServer(String methodName,
+			Class[] parameterTypes, Object[] arguments) throws Exception {
+		Object server = Class.forName(
+				"java.lang.management.ManagementFactory").getMethod(
+				"getPlatformMBeanServer", null).invoke(null, null);
+		Method method = Class.forName("javax.management.MBeanServer")
+				.getMethod(methodName, parameterTypes);
+		return method.invoke(server, arguments);
+	}
+
+	// Recording ************************************************************
+
+	/**
+	 * Adds the metrics of a finished pass.
+	 * 
+	 * @param metrics
+	 *            the metrics of the finished pass
+	 */
+	synchronized void passFinished(LayoutPassMetrics metrics) {
+		passCount++;
+		computeSizeCount += metrics.getComputeSizeCount();
+		cacheHitCount += metrics.getCacheHitCount();
+		cacheMissCount += metrics.getCacheMissCount();
+
+		long nanos = metrics.getNanos();
+		samples[nextSample] = nanos;
+		nextSample = (nextSample + 1) % SAMPLE_SIZE;
+		sampleCount = Math.min(sampleCount + 1, SAMPLE_SIZE);
+
+		long now = System.currentTimeMillis();
+		if (now - rateIntervalStart >= 1000) {
+			passesPerSecond = rateIntervalPasses * 1000.0
+					/ (now - rateIntervalStart);
+			rateIntervalStart = now;
+			rateIntervalPasses = 0;
+		}
+		rateIntervalPasses++;
+
+		FormLayout layout = metrics.getLayout();
+		String key = (String) layouts.get(layout);
+		if (key == null) {
+			key = compositeKey(metrics.getContainer(), layout);
+			layouts.put(layout, key);
+		}
+		CompositeStatistics statistics = (CompositeStatistics) composites
+				.get(key);
+		if (statistics == null) {
+			if (composites.size() >= MAX_TRACKED_COMPOSITES)
+				return;
+			statistics = new CompositeStatistics(key);
+			composites.put(key, statistics);
+		}
+		statistics.passCount++;
+		statistics.totalNanos += nanos;
+		statistics.maxNanos = Math.max(statistics.maxNanos, nanos);
+	}
+
+	// Implementing LayoutStatisticsMBean ***********************************
+
+	public synchronized long getPassCount() {
+		return passCount;
+	}
+
+	public synchronized double getPassesPerSecond() {
+		long elapsed = System.currentTimeMillis() - rateIntervalStart;
+		if (elapsed >= 1000)
+			return rateIntervalPasses * 1000.0 / elapsed;
+		return passesPerSecond;
+	}
+
+	public double getSolveMillisMedian() {
+		return percentile(50);
+	}
+
+	public double getSolveMillis90thPercentile() {
+		return percentile(90);
+	}
+
+	public double getSolveMillis99thPercentile() {
+		return percentile(99);
+	}
+
+	public double getSolveMillisMaximum() {
+		return percentile(100);
+	}
+
+	public synchronized long getComputeSizeCount() {
+		return computeSizeCount;
+	}
+
+	public synchronized double getCacheHitRate() {
+		long lookups = cacheHitCount + cacheMissCount;
+		return lookups == 0 ? 0.0 : (double) cacheHitCount / lookups;
+	}
+
+	public synchronized int getLiveLayoutCount() {
+		return layouts.size();
+	}
+
+	/**
+	 * Returns the number of constrained components and cells in the live
+	 * layouts. The layouts are read without synchronizing with the UI thread,
+	 * so the value is approximate.
+	 * 
+	 * @return the number of live constraints
+	 */
+	public synchronized int getLiveConstraintCount() {
+		int count = 0;
+		for (Iterator i = layouts.keySet().iterator(); i.hasNext();) {
+			FormLayout layout = (FormLayout) i.next();
+			if (layout != null) {
+				count += layout.getConstraintCount();
+			}
+		}
+		return count;
+	}
+
+	public synchronized int getTopCount() {
+		return topCount;
+	}
+
+	public synchronized void setTopCount(int count) {
+		if (count < 0)
+			throw new IllegalArgumentException(
+					"The top count must not be negative.");
+		topCount = count;
+	}
+
+	public synchronized String[] getSlowestComposites() {
+		CompositeStatistics[] all = (CompositeStatistics[]) composites
+				.values().toArray(new CompositeStatistics[composites.size()]);
+		Arrays.sort(all, SLOWEST_FIRST);
+		String[] result = new String[Math.min(topCount, all.length)];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = all[i].toString();
+		}
+		return result;
+	}
+
+	public synchronized void reset() {
+		passCount = 0;
+		computeSizeCount = 0;
+		cacheHitCount = 0;
+		cacheMissCount = 0;
+		sampleCount = 0;
+		nextSample = 0;
+		rateIntervalStart = System.currentTimeMillis();
+		rateIntervalPasses = 0;
+		passesPerSecond = 0.0;
+		composites.clear();
+	}
+
+	// Helper Code **********************************************************
+
+	/**
+	 * Returns the given percentile of the recent pass times in milliseconds.
+	 */
+	private synchronized double percentile(int percent) {
+		if (sampleCount == 0)
+			return 0.0;
+		long[] sorted = new long[sampleCount];
+		System.arraycopy(samples, 0, sorted, 0, sampleCount);
+		Arrays.sort(sorted);
+		int index = (int) Math.ceil(percent / 100.0 * sampleCount) - 1;
+		return toMillis(sorted[Math.max(0, index)]);
+	}
+
+	/**
+	 * Converts nanoseconds to milliseconds, rounded to microseconds.
+	 */
+	private static double toMillis(long nanos) {
+		return (nanos / 1000L) / 1000.0;
+	}
+
+	/**
+	 * Identifies a composite by its class and its layout's column and row
+	 * specifications.
+	 */
+	private static String compositeKey(Composite container, FormLayout layout) {
+		StringBuffer buffer = new StringBuffer();
+		buffer.append(container.getClass().getName());
+		buffer.append(" [");
+		for (int col = 1; col <= layout.getColumnCount(); col++) {
+			if (col > 1) {
+				buffer.append(", ");
+			}
+			buffer.append(layout.getColumnSpec(col).toShortString());
+		}
+		buffer.append(" / ");
+		for (int row = 1; row <= layout.getRowCount(); row++) {
+			if (row > 1) {
+				buffer.append(", ");
+			}
+			buffer.append(layout.getRowSpec(row).toShortString());
+		}
+		buffer.append(']');
+		return buffer.toString();
+	}
+
+	/**
+	 * Orders composites by their maximum and then total pass time, slowest
+	 * first.
+	 */
+	private static final Comparator SLOWEST_FIRST = new Comparator() {
+		public int compare(Object o1, Object o2) {
+			CompositeStatistics s1 = (CompositeStatistics) o1;
+			CompositeStatistics s2 = (CompositeStatistics) o2;
+			if (s1.maxNanos != s2.maxNanos)
+				return s1.maxNanos > s2.maxNanos ? -1 : 1;
+			if (s1.totalNanos != s2.totalNanos)
+				return s1.totalNanos > s2.totalNanos ? -1 : 1;
+			return s1.key.compareTo(s2.key);
+		}
+	};
+
+	// Helper Class *********************************************************
+
+	private static final class CompositeStatistics {
+
+		private final String key;
+
+		private int passCount;
+
+		private long totalNanos;
+
+		private long maxNanos;
+
+		private CompositeStatistics(String key) {
+			this.key = key;
+		}
+
+		public String toString() {
+			return key + ": max=" + toMillis(maxNanos) + " ms, total="
+					+ toMillis(totalNanos) + " ms, passes=" + passCount;
+		}
+
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.util;
+
+/**
+ * The management interface of {@link LayoutStatistics}. Follows the naming
+ * conventions of a JMX Standard MBean, so that a <code>LayoutStatistics</code>
+ * can be registered with an MBean server as is.
+ * <p>
+ * 
+ * Pass times are fractional milliseconds measured with the {@link NanoClock}.
+ * On runtimes before Java 5 the clock has a resolution of 10 to 16
+ * milliseconds on Windows, so that most percentiles are 0.
+ * 
+ * @author Florian Fankhauser
+ * @see LayoutStatistics
+ */
+public interface LayoutStatisticsMBean {
+
+	/**
+	 * Returns the number of layout passes since the last reset.
+	 * 
+	 * @return the number of passes
+	 */
+	long getPassCount();
+
+	/**
+	 * Returns the number of layout passes per second, measured over the last
+	 * full second.
+	 * 
+	 * @return the recent pass rate
+	 */
+	double getPassesPerSecond();
+
+	/**
+	 * Returns the median pass time of the recent passes.
+	 * 
+	 * @return the 50th percentile of the pass times in milliseconds
+	 * @see NanoClock
+	 */
+	double getSolveMillisMedian();
+
+	/**
+	 * Returns the 90th percentile of the recent pass times.
+	 * 
+	 * @return the 90th percentile of the pass times in milliseconds
+	 * @see NanoClock
+	 */
+	double getSolveMillis90thPercentile();
+
+	/**
+	 * Returns the 99th percentile of the recent pass times.
+	 * 
+	 * @return the 99th percentile of the pass times in milliseconds
+	 * @see NanoClock
+	 */
+	double getSolveMillis99thPercentile();
+
+	/**
+	 * Returns the maximum of the recent pass times.
+	 * 
+	 * @return the maximum pass time in milliseconds
+	 * @see NanoClock
+	 */
+	double getSolveMillisMaximum();
+
+	/**
+	 * Returns the number of native <code>computeSize</code> calls since the
+	 * last reset.
+	 * 
+	 * @return the number of <code>computeSize</code> calls
+	 */
+	long getComputeSizeCount();
+
+	/**
+	 * Returns the share of component sizes found in the layouts' size caches.
+	 * 
+	 * @return the size cache hit rate between 0 and 1
+	 */
+	double getCacheHitRate();
+
+	/**
+	 * Returns the number of layouts on the Display that have performed a pass
+	 * and have not been garbage collected.
+	 * 
+	 * @return the number of live layouts
+	 */
+	int getLiveLayoutCount();
+
+	/**
+	 * Returns the number of constrained components and cells in the live
+	 * layouts.
+	 * 
+	 * @return the number of live constraints
+	 */
+	int getLiveConstraintCount();
+
+	/**
+	 * Returns the maximum number of entries listed by
+	 * {@link #getSlowestComposites()}.
+	 * 
+	 * @return the number of slowest composites listed
+	 */
+	int getTopCount();
+
+	/**
+	 * Sets the maximum number of entries listed by
+	 * {@link #getSlowestComposites()}.
+	 * 
+	 * @param count
+	 *            the number of slowest composites to list
+	 * @throws IllegalArgumentException
+	 *             if the count is negative
+	 */
+	void setTopCount(int count);
+
+	/**
+	 * Lists the composites with the slowest passes, identified by their class
+	 * and their column and row specifications, slowest first.
+	 * 
+	 * @return descriptions of the slowest composites
+	 */
+	String[] getSlowestComposites();
+
+	/**
+	 * Clears all statistics.
+	 */
+	void reset();
+
+}
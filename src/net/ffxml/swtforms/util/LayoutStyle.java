@@ -51,11 +51,6 @@ import net.ffxml.swtforms.layout.Size;
 
 public abstract class LayoutStyle {
 
-	/**
-	 * Holds the current layout style.
-	 */
-	private static LayoutStyle current = initialLayoutStyle();
-
 	// Computing the initial layout style *************************************
 
 	/**
@@ -65,7 +60,7 @@ public abstract class LayoutStyle {
 	 * 
 	 * @return MacLayoutStyle on Mac, WindowsLayoutStyle on all other platforms
 	 */
-	private static LayoutStyle initialLayoutStyle() {
+	static LayoutStyle initialLayoutStyle() {
 		if (isOSMac())
 			return MacLayoutStyle.INSTANCE;
 		return WindowsLayoutStyle.INSTANCE;
@@ -104,22 +99,28 @@ public abstract class LayoutStyle {
 	// Accessing the current style ******************************************
 
 	/**
-	 * Returns the current <code>LayoutStyle</code>.
+	 * Returns the current <code>LayoutStyle</code>, that is the style used for
+	 * the calling thread's Display.
 	 * 
 	 * @return the current <code>LayoutStyle</code>
+	 * @see DisplayContext#getLayoutStyle()
 	 */
 	public static LayoutStyle getCurrent() {
-		return current;
+		return DisplayContext.getCurrent().getLayoutStyle();
 	}
 
 	/**
-	 * Set a new <code>LayoutStyle</code>.
+	 * Set a new <code>LayoutStyle</code> for all Displays that have no style
+	 * of their own.
 	 * 
 	 * @param newLayoutStyle
 	 *            the style to be set
+	 * @throws NullPointerException
+	 *             if the style is <code>null</code>
+	 * @see DisplayContext#setLayoutStyle(LayoutStyle)
 	 */
 	public static void setCurrent(LayoutStyle newLayoutStyle) {
-		current = newLayoutStyle;
+		DisplayContext.setDefaultLayoutStyle(newLayoutStyle);
 	}
 
 	// Layout Sizes *********************************************************
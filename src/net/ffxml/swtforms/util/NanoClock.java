@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.util;
+
+import java.lang.reflect.Method;
+
+/**
+ * Provides a clock for measuring short durations like layout passes. On Java
+ * 5 and later it uses <code>System.nanoTime()</code>, which is looked up
+ * reflectively because the library runs on Java 1.4. On older runtimes it
+ * falls back to <code>System.currentTimeMillis()</code>, whose resolution is
+ * 10 to 16 milliseconds on Windows; most layout passes then measure 0.
+ * 
+ * @author Florian Fankhauser
+ * @see net.ffxml.swtforms.layout.LayoutPassMetrics
+ */
+public final class NanoClock {
+
+	/**
+	 * Refers to <code>System.nanoTime()</code>, <code>null</code> if not
+	 * available.
+	 */
+	private static final Method NANO_TIME = lookupNanoTime();
+
+	private NanoClock() {
+		// Suppresses default constructor, ensuring non-instantiability.
+	}
+
+	/**
+	 * Returns the current value of the clock in nanoseconds. The value has
+	 * no relation to the wall time; use it to measure elapsed time only.
+	 * 
+	 * @return the current value of the clock in nanoseconds
+	 * @see #isPrecise()
+	 */
+	public static long nanoTime() {
+		if (NANO_TIME != null) {
+			try {
+				return ((Long) NANO_TIME.invoke(null, null)).longValue();
+			} catch (Exception e) {
+				// Falls back to the millisecond clock.
+			}
+		}
+		return System.currentTimeMillis() * 1000000L;
+	}
+
+	/**
+	 * Returns whether the clock uses <code>System.nanoTime()</code>, or the
+	 * coarse <code>System.currentTimeMillis()</code>.
+	 * 
+	 * @return true if the clock resolves far below a millisecond
+	 */
+	public static boolean isPrecise() {
+		return NANO_TIME != null;
+	}
+
+	private static Method lookupNanoTime() {
+		try {
+			return System.class.getMethod("nanoTime", null);
+		} catch (NoSuchMethodException e) {
+			return null;
+		} catch (SecurityException e) {
+			return null;
+		}
+	}
+
+}
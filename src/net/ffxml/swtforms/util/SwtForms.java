@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2002-2006 JGoodies Karsten Lentzsch. All Rights Reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without 
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ *  o Redistributions of source code must retain the above copyright notice, 
+ *    this list of conditions and the following disclaimer. 
+ *     
+ *  o Redistributions in binary form must reproduce the above copyright notice, 
+ *    this list of conditions and the following disclaimer in the documentation 
+ *    and/or other materials provided with the distribution. 
+ *     
+ *  o Neither the name of JGoodies Karsten Lentzsch nor the names of 
+ *    its contributors may be used to endorse or promote products derived 
+ *    from this software without specific prior written permission. 
+ *     
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" 
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, 
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR 
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR 
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, 
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, 
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; 
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, 
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE 
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, 
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE. 
+ */
+
+package net.ffxml.swtforms.util;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.ffxml.swtforms.factories.Borders;
+import net.ffxml.swtforms.factories.FormFactory;
+import net.ffxml.swtforms.layout.ConstantSize;
+import net.ffxml.swtforms.layout.LayoutMap;
+
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Provides entry points that concern the library as a whole.
+ * <p>
+ * 
+ * The first form built on a Display pays for lazily initialized state: the
+ * layout style, the dialog font metrics and dialog base units, the layout
+ * variables and the constants of {@link FormFactory} and {@link Borders}.
+ * Applications can move this cost to their startup, for example behind a
+ * splash screen:
+ * 
+ * <pre>
+ * SwtForms.WarmUpReport report = SwtForms.warmUp(display, new Font[] {
+ * 		dialogFont, titleFont });
+ * System.out.println(report);
+ * </pre>
+ * 
+ * @author Florian Fankhauser
+ * @see DisplayContext
+ * @see DefaultUnitConverter
+ */
+public final class SwtForms {
+
+	private final static Logger LOGGER = Logger.getLogger(SwtForms.class
+			.getName());
+
+	/**
+	 * Refers to the standard column variables of the root layout map that
+	 * are decoded when a Display is warmed up.
+	 */
+	private static final String STANDARD_COLUMN_VARIABLES = "$glue, $lcgap, $rgap, $ugap, $dm, $tdm, $button, $growing-button";
+
+	/**
+	 * Refers to the standard row variables of the root layout map that are
+	 * decoded when a Display is warmed up.
+	 */
+	private static final String STANDARD_ROW_VARIABLES = "$glue, $rgap, $ugap, $nlgap, $lgap, $pgap, $dm, $tdm";
+
+	private SwtForms() {
+		// Suppresses default constructor, ensuring non-instantiability.
+	}
+
+	// Warm-Up ***************************************************************
+
+	/**
+	 * Initializes and caches the state of the given Display's context that
+	 * is otherwise computed when the first form is built, including the
+	 * global dialog base units.
+	 * 
+	 * @param display
+	 *            the Display to warm up
+	 * @return the durations of the warm-up phases
+	 * @throws NullPointerException
+	 *             if the Display is <code>null</code>
+	 * @throws IllegalStateException
+	 *             if not invoked from the Display's UI thread
+	 * @see #warmUp(Display, Font[])
+	 */
+	public static WarmUpReport warmUp(Display display) {
+		return warmUp(display, new Font[0]);
+	}
+
+	/**
+	 * Initializes and caches the state of the given Display's context that
+	 * is otherwise computed when the first form is built: the global dialog
+	 * base units and the dialog base units of the given fonts, the layout
+	 * style with the pixel sizes of its gaps and margins, the standard gap,
+	 * button and dialog margin variables of the root layout map decoded
+	 * against the Display's layout style, and the constants of
+	 * {@link FormFactory} and {@link Borders}. Uses a single GC for all font
+	 * metrics. Logs the durations at the <code>CONFIG</code> level.
+	 * <p>
+	 * 
+	 * If the Display's unit converter is not a {@link DefaultUnitConverter},
+	 * the dialog base units are left to that converter.
+	 * 
+	 * @param display
+	 *            the Display to warm up
+	 * @param fonts
+	 *            the fonts whose dialog base units shall be cached, for
+	 *            example the fonts used in dialogs
+	 * @return the durations of the warm-up phases
+	 * @throws NullPointerException
+	 *             if the Display, the fonts array or a font is
+	 *             <code>null</code>
+	 * @throws IllegalStateException
+	 *             if not invoked from the Display's UI thread
+	 */
+	public static WarmUpReport warmUp(Display display, Font[] fonts) {
+		if (display == null)
+			throw new NullPointerException("The display must not be null.");
+		if (fonts == null)
+			throw new NullPointerException("The fonts must not be null.");
+		if (display.getThread() != Thread.currentThread())
+			throw new IllegalStateException(
+					"A Display must be warmed up in its UI thread.");
+
+		WarmUpReport report = new WarmUpReport();
+		long start = NanoClock.nanoTime();
+		DisplayContext context = DisplayContext.getInstance(display);
+		UnitConverter converter = context.getUnitConverter();
+		if (converter instanceof DefaultUnitConverter) {
+			GC gc = new GC(display);
+			try {
+				((DefaultUnitConverter) converter).precomputeDialogBaseUnits(
+						gc, fonts);
+			} finally {
+				gc.dispose();
+			}
+		}
+		start = report.addPhase("dialog base units", start);
+
+		LayoutStyle style = context.getLayoutStyle();
+		convertToPixels(new ConstantSize[] { style.getDialogMarginX(),
+				style.getDialogMarginY(), style.getTabbedDialogMarginX(),
+				style.getTabbedDialogMarginY(),
+				style.getLabelComponentPadX(),
+				style.getRelatedComponentsPadX(),
+				style.getRelatedComponentsPadY(),
+				style.getUnrelatedComponentsPadX(),
+				style.getUnrelatedComponentsPadY(), style.getNarrowLinePad(),
+				style.getLinePad(), style.getParagraphPad(),
+				style.getButtonBarPad() });
+		start = report.addPhase("layout style", start);
+
+		LayoutMap root = LayoutMap.getRoot();
+		root.decodeColumnSpecs(STANDARD_COLUMN_VARIABLES, style);
+		root.decodeRowSpecs(STANDARD_ROW_VARIABLES, style);
+		start = report.addPhase("layout map", start);
+
+		initialize(FormFactory.class);
+		initialize(Borders.class);
+		report.addPhase("factory constants", start);
+
+		if (LOGGER.isLoggable(Level.CONFIG)) {
+			LOGGER.config("Warmed up " + display + ": " + report);
+		}
+		return report;
+	}
+
+	/**
+	 * Converts the given sizes to pixels, which caches their pixel sizes for
+	 * the current conversion epoch.
+	 */
+	private static void convertToPixels(ConstantSize[] sizes) {
+		for (int i = 0; i < sizes.length; i++) {
+			sizes[i].getPixelSize(null);
+		}
+	}
+
+	/**
+	 * Initializes the given class, which creates its constants. A class
+	 * literal alone loads the class but does not initialize it.
+	 */
+	private static void initialize(Class type) {
+		try {
+			Class.forName(type.getName(), true, type.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			// The class has been loaded already by the class literal.
+			throw new NoClassDefFoundError(type.getName());
+		}
+	}
+
+	// Helper Classes *******************************************************
+
+	/**
+	 * Describes how long the phases of a warm-up took.
+	 * 
+	 * @see SwtForms#warmUp(Display, Font[])
+	 */
+	public static final class WarmUpReport {
+
+		private static final int MAXIMUM_PHASE_COUNT = 8;
+
+		private final String[] phaseNames = new String[MAXIMUM_PHASE_COUNT];
+
+		private final long[] phaseNanos = new long[MAXIMUM_PHASE_COUNT];
+
+		private int phaseCount;
+
+		WarmUpReport() {
+			// Instances are created by SwtForms only.
+		}
+
+		/**
+		 * Records a phase that started at the given {@link NanoClock} time
+		 * and ends now.
+		 * 
+		 * @return the end of the phase
+		 */
+		long addPhase(String name, long start) {
+			long end = NanoClock.nanoTime();
+			phaseNames[phaseCount] = name;
+			phaseNanos[phaseCount] = end - start;
+			phaseCount++;
+			return end;
+		}
+
+		/**
+		 * Returns the number of warm-up phases.
+		 * 
+		 * @return the number of phases
+		 */
+		public int getPhaseCount() {
+			return phaseCount;
+		}
+
+		/**
+		 * Returns the name of the phase with the given index.
+		 * 
+		 * @param index
+		 *            the phase index, starting at 0
+		 * @return the phase's name
+		 * @throws IndexOutOfBoundsException
+		 *             if the index is invalid
+		 */
+		public String getPhaseName(int index) {
+			checkIndex(index);
+			return phaseNames[index];
+		}
+
+		/**
+		 * Returns the duration of the phase with the given index.
+		 * 
+		 * @param index
+		 *            the phase index, starting at 0
+		 * @return the phase's duration in milliseconds
+		 * @throws IndexOutOfBoundsException
+		 *             if the index is invalid
+		 */
+		public long getPhaseMillis(int index) {
+			return getPhaseNanos(index) / 1000000L;
+		}
+
+		/**
+		 * Returns the duration of the phase with the given index in
+		 * nanoseconds.
+		 * 
+		 * @param index
+		 *            the phase index, starting at 0
+		 * @return the phase's duration in nanoseconds
+		 * @throws IndexOutOfBoundsException
+		 *             if the index is invalid
+		 * @see NanoClock#isPrecise()
+		 */
+		public long getPhaseNanos(int index) {
+			checkIndex(index);
+			return phaseNanos[index];
+		}
+
+		/**
+		 * Returns the duration of all phases.
+		 * 
+		 * @return the total duration in milliseconds
+		 */
+		public long getTotalMillis() {
+			return getTotalNanos() / 1000000L;
+		}
+
+		/**
+		 * Returns the duration of all phases in nanoseconds.
+		 * 
+		 * @return the total duration in nanoseconds
+		 */
+		public long getTotalNanos() {
+			long total = 0;
+			for (int i = 0; i < phaseCount; i++) {
+				total += phaseNanos[i];
+			}
+			return total;
+		}
+
+		private void checkIndex(int index) {
+			if (index < 0 || index >= phaseCount)
+				throw new IndexOutOfBoundsException("Phase index " + index
+						+ " must be in [0, " + phaseCount + ").");
+		}
+
+		public String toString() {
+			StringBuffer buffer = new StringBuffer();
+			for (int i = 0; i < phaseCount; i++) {
+				buffer.append(phaseNames[i]);
+				buffer.append('=');
+				buffer.append(toMillis(phaseNanos[i]));
+				buffer.append("ms, ");
+			}
+			buffer.append("total=");
+			buffer.append(toMillis(getTotalNanos()));
+			buffer.append("ms");
+			return buffer.toString();
+		}
+
+		private static double toMillis(long nanos) {
+			return (nanos / 1000L) / 1000.0;
+		}
+	}
+
+}